@@ -0,0 +1,42 @@
+package com.cas.asistencias.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Tiempo máximo de las exportaciones en streaming. El resto de peticiones asíncronas conserva el
+ * tiempo por defecto: solo las que el controlador marca con {@link #EXPORTACION} reciben
+ * asistencias.export.timeout-ms, aplicado justo antes de iniciar el procesamiento asíncrono.
+ */
+@Configuration
+public class AsistenciasAsyncConfig implements WebMvcConfigurer {
+
+    public static final String EXPORTACION = AsistenciasAsyncConfig.class.getName() + ".EXPORTACION";
+
+    private final long exportacionTimeoutMs;
+
+    public AsistenciasAsyncConfig(@Value("${asistencias.export.timeout-ms:1800000}") long exportacionTimeoutMs) {
+        this.exportacionTimeoutMs = exportacionTimeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                if (request instanceof AsyncWebRequest asyncRequest
+                        && request.getAttribute(EXPORTACION, RequestAttributes.SCOPE_REQUEST) != null) {
+                    asyncRequest.setTimeout(exportacionTimeoutMs);
+                }
+            }
+        });
+    }
+}
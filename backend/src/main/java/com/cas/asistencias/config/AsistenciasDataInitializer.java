@@ -4,6 +4,7 @@ import com.cas.asistencias.model.Asistencia;
 import com.cas.asistencias.model.Reunion;
 import com.cas.asistencias.repository.AsistenciaRepository;
 import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.asistencias.service.EstadisticasAsistenciaService;
 import com.cas.login.model.User;
 import com.cas.login.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -24,12 +25,15 @@ public class AsistenciasDataInitializer implements CommandLineRunner {
     private final ReunionRepository reunionRepository;
     private final AsistenciaRepository asistenciaRepository;
     private final UserRepository userRepository;
+    private final EstadisticasAsistenciaService estadisticasAsistenciaService;
 
     @Override
     public void run(String... args) throws Exception {
         if (reunionRepository.count() == 0) {
             log.info("Inicializando datos de ejemplo para reuniones y asistencias...");
             crearDatosDeEjemplo();
+            // Los datos de ejemplo se guardan directamente por repositorio: reconstruir los contadores
+            estadisticasAsistenciaService.reconciliar();
             log.info("Datos de ejemplo creados exitosamente");
         } else {
             log.info("Los datos de reuniones ya existen, omitiendo inicialización");
@@ -0,0 +1,35 @@
+package com.cas.asistencias.config;
+
+import com.cas.asistencias.security.AsistenciaAuthorizationManager;
+import com.cas.asistencias.security.AutorizarAsistencia;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+
+/**
+ * Registra el interceptor de {@link AutorizarAsistencia} junto a los de @EnableMethodSecurity y en la
+ * misma posición que @PreAuthorize.
+ */
+@Configuration
+public class AsistenciasMethodSecurityConfig {
+
+    // Infraestructura: se crea antes que los beans de aplicación, por eso el manager se resuelve en la primera llamada
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor autorizarAsistenciaInterceptor(ObjectProvider<AsistenciaAuthorizationManager> authorizationManager) {
+        AuthorizationManager<MethodInvocation> diferido =
+                (authentication, invocacion) -> authorizationManager.getObject().check(authentication, invocacion);
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                AnnotationMatchingPointcut.forMethodAnnotation(AutorizarAsistencia.class), diferido);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cas.asistencias.config;
+
+import com.cas.asistencias.service.EstadisticasAsistenciaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Tarea periódica que reconstruye los contadores de asistencia por reunión y corrige desviaciones
+ * (por ejemplo, asistencias borradas en cascada al eliminar un usuario).
+ */
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@Slf4j
+public class EstadisticasReconciliacionJob {
+
+    private final EstadisticasAsistenciaService estadisticasAsistenciaService;
+
+    @Scheduled(cron = "${asistencias.estadisticas.reconciliacion.cron:0 0 4 * * *}")
+    public void reconciliar() {
+        log.info("Iniciando reconciliación programada de estadísticas de asistencia");
+        estadisticasAsistenciaService.reconciliar();
+    }
+}
@@ -1,20 +1,32 @@
 package com.cas.asistencias.controller;
 
 import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.MetricasCheckInDto;
 import com.cas.asistencias.dto.ReporteAsistenciaDto;
+import com.cas.asistencias.dto.ResultadoRegistroAsistenciaDto;
+import com.cas.asistencias.dto.ResultadoUpsertAsistenciaDto;
+import com.cas.asistencias.security.AutorizarAsistencia;
+import com.cas.asistencias.security.ReglaAsistencia;
 import com.cas.asistencias.service.AsistenciaService;
-import com.cas.asistencias.service.AsistenciaSecurityService;
+import com.cas.asistencias.service.AsistenciaStreamService;
+import com.cas.asistencias.service.CheckInService;
+import com.cas.asistencias.service.IdempotenciaService;
+import com.cas.asistencias.service.PoliticaConflicto;
+import com.cas.common.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/asistencias")
@@ -24,20 +36,54 @@ import java.util.List;
 public class AsistenciaController {
 
     private final AsistenciaService asistenciaService;
-    private final AsistenciaSecurityService asistenciaSecurityService;
+    private final IdempotenciaService idempotenciaService;
+    private final CheckInService checkInService;
+    private final AsistenciaStreamService asistenciaStreamService;
 
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistencia(#asistenciaDto.usuarioId, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
     @Operation(summary = "Registrar asistencia", description = "Registra la asistencia de un usuario a una reunión")
-    public ResponseEntity<AsistenciaDto> registrarAsistencia(@RequestBody AsistenciaDto asistenciaDto) {
+    public ResponseEntity<AsistenciaDto> registrarAsistencia(
+            @RequestBody AsistenciaDto asistenciaDto,
+            @Parameter(description = "Clave para que los reintentos de la misma petición no la repitan")
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey,
+            Authentication authentication) {
         log.info("Registrando asistencia para usuario {} en reunión {}", 
                 asistenciaDto.getUsuarioId(), asistenciaDto.getReunionId());
-        AsistenciaDto asistencia = asistenciaService.registrarAsistencia(asistenciaDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(asistencia);
+        return idempotenciaService.ejecutar(authentication.getName(), idempotencyKey, "registrar", asistenciaDto,
+                AsistenciaDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(asistenciaService.registrarAsistencia(asistenciaDto)));
+    }
+
+    @PutMapping("/reunion/{reunionId}/usuario/{usuarioId}")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
+    @Operation(summary = "Registrar o actualizar asistencia",
+            description = "Registra la asistencia o, si ya existe, la resuelve según la política de conflicto. " +
+                    "Seguro ante registros concurrentes del mismo usuario; responde 201 si la creó y 200 en otro caso")
+    public ResponseEntity<AsistenciaDto> registrarOActualizarAsistencia(
+            @Parameter(description = "ID de la reunión") @PathVariable Long reunionId,
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId,
+            @Parameter(description = "Política ante una asistencia existente (por defecto asistencias.upsert.politica)")
+            @RequestParam(required = false) PoliticaConflicto politica,
+            @Parameter(description = "Clave para que los reintentos de la misma petición no la repitan")
+            @RequestHeader(value = IdempotenciaService.CABECERA, required = false) String idempotencyKey,
+            @RequestBody AsistenciaDto asistenciaDto,
+            Authentication authentication) {
+        log.info("Registrando o actualizando asistencia para usuario {} en reunión {}", usuarioId, reunionId);
+        asistenciaDto.setReunionId(reunionId);
+        asistenciaDto.setUsuarioId(usuarioId);
+        return idempotenciaService.ejecutar(authentication.getName(), idempotencyKey, "upsert:" + politica,
+                asistenciaDto, AsistenciaDto.class, () -> {
+                    ResultadoUpsertAsistenciaDto resultado =
+                            asistenciaService.registrarOActualizarAsistencia(asistenciaDto, politica);
+                    HttpStatus estado = resultado.getResultado() == ResultadoUpsertAsistenciaDto.Resultado.CREADA
+                            ? HttpStatus.CREATED : HttpStatus.OK;
+                    return ResponseEntity.status(estado).body(resultado.getAsistencia());
+                });
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistenciaPorId(#id, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.ASISTENCIA)
     @Operation(summary = "Actualizar asistencia")
     public ResponseEntity<AsistenciaDto> actualizarAsistencia(
             @Parameter(description = "ID de la asistencia") @PathVariable Long id,
@@ -48,7 +94,7 @@ public class AsistenciaController {
     }
 
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistenciaPorId(#id, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.ASISTENCIA)
     @Operation(summary = "Eliminar asistencia")
     public ResponseEntity<Void> eliminarAsistencia(
             @Parameter(description = "ID de la asistencia") @PathVariable Long id) {
@@ -58,7 +104,7 @@ public class AsistenciaController {
     }
 
     @GetMapping("/reunion/{reunionId}")
-    @PreAuthorize("hasAnyRole('DIRIGENTE', 'ADMIN')")
+    @AutorizarAsistencia(ReglaAsistencia.DIRIGENTE_O_ADMIN)
     @Operation(summary = "Obtener asistencias por reunión")
     public ResponseEntity<List<AsistenciaDto>> obtenerAsistenciasPorReunion(
             @Parameter(description = "ID de la reunión") @PathVariable Long reunionId) {
@@ -67,8 +113,31 @@ public class AsistenciaController {
         return ResponseEntity.ok(asistencias);
     }
 
+    @GetMapping(value = "/reunion/{reunionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @AutorizarAsistencia(ReglaAsistencia.DIRIGENTE_O_ADMIN)
+    @Operation(summary = "Stream en vivo de asistencias de una reunión EN_CURSO",
+            description = "Server-Sent Events: primero un evento 'snapshot' con el reporte completo y luego un evento " +
+                    "'asistencia' por cada alta, cambio, salida o baja")
+    public SseEmitter suscribirAsistenciasReunion(
+            @Parameter(description = "ID de la reunión") @PathVariable Long reunionId) {
+        log.info("Nueva suscripción al stream de asistencias de la reunión: {}", reunionId);
+        return asistenciaStreamService.suscribir(reunionId);
+    }
+
+    @GetMapping(value = "/reunion/{reunionId}", params = "limit")
+    @AutorizarAsistencia(ReglaAsistencia.DIRIGENTE_O_ADMIN)
+    @Operation(summary = "Obtener asistencias por reunión (paginado por cursor)",
+            description = "Devuelve hasta 'limit' asistencias ordenadas por ID a partir del cursor 'after'")
+    public ResponseEntity<CursorPage<AsistenciaDto>> obtenerAsistenciasPorReunionPaginadas(
+            @Parameter(description = "ID de la reunión") @PathVariable Long reunionId,
+            @Parameter(description = "Cursor devuelto en nextCursor") @RequestParam(required = false) String after,
+            @Parameter(description = "Tamaño de página") @RequestParam Integer limit) {
+        log.info("Obteniendo página de asistencias para reunión: {}", reunionId);
+        return ResponseEntity.ok(asistenciaService.obtenerAsistenciasPorReunion(reunionId, after, limit));
+    }
+
     @GetMapping("/usuario/{usuarioId}")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistencia(#usuarioId, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
     @Operation(summary = "Obtener asistencias por usuario")
     public ResponseEntity<List<AsistenciaDto>> obtenerAsistenciasPorUsuario(
             @Parameter(description = "ID del usuario") @PathVariable Long usuarioId) {
@@ -77,8 +146,20 @@ public class AsistenciaController {
         return ResponseEntity.ok(asistencias);
     }
 
+    @GetMapping(value = {"/usuario/{usuarioId}", "/historial/usuario/{usuarioId}"}, params = "limit")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
+    @Operation(summary = "Obtener historial de asistencias de un usuario (paginado por cursor)",
+            description = "Devuelve hasta 'limit' asistencias ordenadas por fecha de reunión descendente a partir del cursor 'after'")
+    public ResponseEntity<CursorPage<AsistenciaDto>> obtenerHistorialUsuarioPaginado(
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId,
+            @Parameter(description = "Cursor devuelto en nextCursor") @RequestParam(required = false) String after,
+            @Parameter(description = "Tamaño de página") @RequestParam Integer limit) {
+        log.info("Obteniendo página de historial de asistencias para usuario: {}", usuarioId);
+        return ResponseEntity.ok(asistenciaService.obtenerHistorialUsuario(usuarioId, after, limit));
+    }
+
     @GetMapping("/reunion/{reunionId}/usuario/{usuarioId}")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistencia(#usuarioId, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
     @Operation(summary = "Obtener asistencia específica")
     public ResponseEntity<AsistenciaDto> obtenerAsistencia(
             @Parameter(description = "ID de la reunión") @PathVariable Long reunionId,
@@ -89,17 +170,19 @@ public class AsistenciaController {
     }
 
     @GetMapping("/reporte/reunion/{reunionId}")
-    @PreAuthorize("hasAnyRole('DIRIGENTE', 'ADMIN')")
+    @AutorizarAsistencia(ReglaAsistencia.DIRIGENTE_O_ADMIN)
     @Operation(summary = "Generar reporte de asistencia", description = "Genera un reporte completo de asistencia para una reunión")
     public ResponseEntity<ReporteAsistenciaDto> generarReporteAsistencia(
-            @Parameter(description = "ID de la reunión") @PathVariable Long reunionId) {
+            @Parameter(description = "ID de la reunión") @PathVariable Long reunionId,
+            @Parameter(description = "Incluir el detalle de cada asistencia (false devuelve solo el resumen)")
+            @RequestParam(defaultValue = "true") boolean detalle) {
         log.info("Generando reporte de asistencia para reunión: {}", reunionId);
-        ReporteAsistenciaDto reporte = asistenciaService.generarReporteAsistencia(reunionId);
+        ReporteAsistenciaDto reporte = asistenciaService.generarReporteAsistencia(reunionId, detalle);
         return ResponseEntity.ok(reporte);
     }
 
     @GetMapping("/historial/usuario/{usuarioId}")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistencia(#usuarioId, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
     @Operation(summary = "Obtener historial de asistencias de un usuario")
     public ResponseEntity<List<AsistenciaDto>> obtenerHistorialUsuario(
             @Parameter(description = "ID del usuario") @PathVariable Long usuarioId) {
@@ -109,7 +192,7 @@ public class AsistenciaController {
     }
 
     @PatchMapping("/{id}/salida")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarAsistenciaPorId(#id, authentication))")
+    @AutorizarAsistencia(ReglaAsistencia.ASISTENCIA)
     @Operation(summary = "Marcar salida", description = "Registra la hora de salida de un asistente")
     public ResponseEntity<AsistenciaDto> marcarSalida(
             @Parameter(description = "ID de la asistencia") @PathVariable Long id) {
@@ -118,17 +201,44 @@ public class AsistenciaController {
         return ResponseEntity.ok(asistencia);
     }
 
+    @PostMapping("/check-in")
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
+    @Operation(summary = "Registrar check-in",
+            description = "Encola el registro para confirmarlo junto a otros check-ins en un mismo lote y commit. " +
+                    "Responde cuando el lote está confirmado; 503 si la cola está llena")
+    public CompletableFuture<ResponseEntity<ResultadoRegistroAsistenciaDto>> registrarCheckIn(
+            @RequestBody AsistenciaDto asistenciaDto) {
+        return checkInService.encolar(asistenciaDto).thenApply(resultado -> {
+            HttpStatus estado = switch (resultado.getResultado()) {
+                case CREADA -> HttpStatus.CREATED;
+                case DUPLICADA -> HttpStatus.CONFLICT;
+                case REUNION_NO_ENCONTRADA, USUARIO_NO_ENCONTRADO -> HttpStatus.NOT_FOUND;
+            };
+            return ResponseEntity.status(estado).body(resultado);
+        });
+    }
+
+    @GetMapping("/check-in/metricas")
+    @AutorizarAsistencia(ReglaAsistencia.ADMIN)
+    @Operation(summary = "Métricas de la cola de check-in",
+            description = "Profundidad de la cola, tamaño de los lotes y latencia de confirmación")
+    public ResponseEntity<MetricasCheckInDto> obtenerMetricasCheckIn() {
+        return ResponseEntity.ok(checkInService.obtenerMetricas());
+    }
+
     @PostMapping("/multiple")
-    @PreAuthorize("hasRole('ADMIN') or (hasRole('DIRIGENTE') and @asistenciaSecurityService.puedeGestionarMultiplesAsistencias(#asistenciasDto, authentication))")
-    @Operation(summary = "Registrar múltiples asistencias")
-    public ResponseEntity<List<AsistenciaDto>> registrarMultiplesAsistencias(
+    @AutorizarAsistencia(ReglaAsistencia.LOTE)
+    @Operation(summary = "Registrar múltiples asistencias",
+            description = "Registra un lote de asistencias en una sola transacción y devuelve el resultado de cada fila " +
+                    "(creada, duplicada o no encontrada). Responde 201 si todas se crearon y 207 en caso contrario")
+    public ResponseEntity<List<ResultadoRegistroAsistenciaDto>> registrarMultiplesAsistencias(
             @RequestBody List<AsistenciaDto> asistenciasDto) {
         log.info("Registrando {} asistencias", asistenciasDto.size());
-        
-        List<AsistenciaDto> asistenciasRegistradas = asistenciasDto.stream()
-                .map(asistenciaService::registrarAsistencia)
-                .toList();
-        
-        return ResponseEntity.status(HttpStatus.CREATED).body(asistenciasRegistradas);
+
+        List<ResultadoRegistroAsistenciaDto> resultados = asistenciaService.registrarAsistenciasMultiples(asistenciasDto);
+        boolean todasCreadas = resultados.stream()
+                .allMatch(r -> r.getResultado() == ResultadoRegistroAsistenciaDto.Resultado.CREADA);
+
+        return ResponseEntity.status(todasCreadas ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resultados);
     }
 }
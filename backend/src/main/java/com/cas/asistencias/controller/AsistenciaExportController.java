@@ -0,0 +1,112 @@
+package com.cas.asistencias.controller;
+
+import com.cas.asistencias.config.AsistenciasAsyncConfig;
+import com.cas.asistencias.security.AutorizarAsistencia;
+import com.cas.asistencias.security.ReglaAsistencia;
+import com.cas.asistencias.service.AsistenciaExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/asistencias/export")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Asistencias", description = "API para gestión de asistencias a reuniones")
+public class AsistenciaExportController {
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+
+    private final AsistenciaExportService asistenciaExportService;
+
+    @GetMapping(value = "/usuario/{usuarioId}", produces = {NDJSON_VALUE, CSV_VALUE})
+    @AutorizarAsistencia(ReglaAsistencia.USUARIO)
+    @Operation(summary = "Exportar historial de asistencias de un usuario",
+            description = "Transmite el historial en NDJSON o CSV según la cabecera Accept, sin cargarlo completo en memoria")
+    public ResponseEntity<StreamingResponseBody> exportarHistorialUsuario(
+            @Parameter(description = "ID del usuario") @PathVariable Long usuarioId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request) {
+        log.info("Exportando historial de asistencias para usuario: {}", usuarioId);
+        asistenciaExportService.verificarUsuarioExiste(usuarioId);
+        AsistenciaExportService.Formato formato = resolverFormato(accept);
+
+        StreamingResponseBody cuerpo = salida ->
+                asistenciaExportService.exportarHistorialUsuario(usuarioId, formato, salida);
+        return respuesta(request, cuerpo, formato, "historial-usuario-" + usuarioId);
+    }
+
+    @GetMapping(value = "/reunion/{reunionId}", produces = {NDJSON_VALUE, CSV_VALUE})
+    @AutorizarAsistencia(ReglaAsistencia.DIRIGENTE_O_ADMIN)
+    @Operation(summary = "Exportar asistencias de una reunión",
+            description = "Transmite las asistencias en NDJSON o CSV según la cabecera Accept, sin cargarlas completas en memoria")
+    public ResponseEntity<StreamingResponseBody> exportarAsistenciasReunion(
+            @Parameter(description = "ID de la reunión") @PathVariable Long reunionId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request) {
+        log.info("Exportando asistencias para reunión: {}", reunionId);
+        asistenciaExportService.verificarReunionExiste(reunionId);
+        AsistenciaExportService.Formato formato = resolverFormato(accept);
+
+        StreamingResponseBody cuerpo = salida ->
+                asistenciaExportService.exportarAsistenciasReunion(reunionId, formato, salida);
+        return respuesta(request, cuerpo, formato, "asistencias-reunion-" + reunionId);
+    }
+
+    // Cada formato recibe la calidad del rango más específico de Accept que lo incluye (q=0 lo excluye);
+    // gana la mayor calidad, luego el rango más específico, y en empate o sin cabecera NDJSON
+    private AsistenciaExportService.Formato resolverFormato(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return AsistenciaExportService.Formato.NDJSON;
+        }
+        List<MediaType> tipos = MediaType.parseMediaTypes(accept);
+        MediaType csv = rangoMasEspecifico(tipos, AsistenciaExportService.CSV);
+        MediaType ndjson = rangoMasEspecifico(tipos, AsistenciaExportService.NDJSON);
+        if (csv == null || csv.getQualityValue() == 0) {
+            return AsistenciaExportService.Formato.NDJSON;
+        }
+        if (ndjson == null || ndjson.getQualityValue() < csv.getQualityValue()
+                || (ndjson.getQualityValue() == csv.getQualityValue() && especificidad(csv) > especificidad(ndjson))) {
+            return AsistenciaExportService.Formato.CSV;
+        }
+        return AsistenciaExportService.Formato.NDJSON;
+    }
+
+    private static MediaType rangoMasEspecifico(List<MediaType> tipos, MediaType formato) {
+        MediaType elegido = null;
+        for (MediaType tipo : tipos) {
+            if (tipo.includes(formato) && (elegido == null || especificidad(tipo) > especificidad(elegido))) {
+                elegido = tipo;
+            }
+        }
+        return elegido;
+    }
+
+    private static int especificidad(MediaType tipo) {
+        return tipo.isWildcardType() ? 0 : tipo.isWildcardSubtype() ? 1 : 2;
+    }
+
+    // Marca la petición para que AsistenciasAsyncConfig le aplique el tiempo máximo de exportación
+    private ResponseEntity<StreamingResponseBody> respuesta(HttpServletRequest request, StreamingResponseBody cuerpo,
+                                                           AsistenciaExportService.Formato formato,
+                                                           String nombreArchivo) {
+        request.setAttribute(AsistenciasAsyncConfig.EXPORTACION, Boolean.TRUE);
+        boolean csv = formato == AsistenciaExportService.Formato.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? AsistenciaExportService.CSV : AsistenciaExportService.NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + nombreArchivo + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(cuerpo);
+    }
+}
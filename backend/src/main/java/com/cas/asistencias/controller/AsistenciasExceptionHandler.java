@@ -2,10 +2,15 @@ package com.cas.asistencias.controller;
 
 import com.cas.asistencias.exception.AsistenciaDuplicadaException;
 import com.cas.asistencias.exception.AsistenciaNotFoundException;
+import com.cas.asistencias.exception.AsistenciasNoAutorizadasException;
+import com.cas.asistencias.exception.ClaveIdempotenciaReutilizadaException;
+import com.cas.asistencias.exception.ColaCheckInLlenaException;
 import com.cas.asistencias.exception.ReunionNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -56,6 +61,63 @@ public class AsistenciasExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
     }
 
+    @ExceptionHandler(ClaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<Map<String, Object>> handleClaveIdempotenciaReutilizadaException(ClaveIdempotenciaReutilizadaException ex) {
+        log.error("Clave de idempotencia reutilizada: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.UNPROCESSABLE_ENTITY.value());
+        response.put("error", "Clave de idempotencia reutilizada");
+        response.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
+    @ExceptionHandler(ColaCheckInLlenaException.class)
+    public ResponseEntity<Map<String, Object>> handleColaCheckInLlenaException(ColaCheckInLlenaException ex) {
+        log.warn("Check-in rechazado: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.put("error", "Cola de check-in llena");
+        response.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @ExceptionHandler(AsistenciasNoAutorizadasException.class)
+    public ResponseEntity<Map<String, Object>> handleAsistenciasNoAutorizadasException(AsistenciasNoAutorizadasException ex) {
+        log.warn("Registro de asistencias denegado: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.FORBIDDEN.value());
+        response.put("error", "Acceso denegado");
+        response.put("message", ex.getMessage());
+        response.put("usuariosNoSupervisados", ex.getUsuarioIds());
+        
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
+    // Este advice es global: sin este manejador las denegaciones de @PreAuthorize de cualquier controlador
+    // (también los de login, cuyos tests ya esperan 403) caerían en el de RuntimeException (500)
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String, Object>> handleAccessDeniedException(AccessDeniedException ex) {
+        log.warn("Acceso denegado: {}", ex.getMessage());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", HttpStatus.FORBIDDEN.value());
+        response.put("error", "Acceso denegado");
+        response.put("message", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
         log.error("Error interno: {}", ex.getMessage(), ex);
@@ -1,8 +1,11 @@
 package com.cas.asistencias.controller;
 
+import com.cas.asistencias.dto.ReconciliacionEstadisticasDto;
 import com.cas.asistencias.dto.ReunionDto;
 import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.service.EstadisticasAsistenciaService;
 import com.cas.asistencias.service.ReunionService;
+import com.cas.common.pagination.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +15,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,6 +28,7 @@ import java.util.List;
 public class ReunionController {
 
     private final ReunionService reunionService;
+    private final EstadisticasAsistenciaService estadisticasAsistenciaService;
 
     @GetMapping
     @Operation(summary = "Obtener todas las reuniones", description = "Obtiene una lista paginada de todas las reuniones")
@@ -41,6 +46,16 @@ public class ReunionController {
         return ResponseEntity.ok(reuniones);
     }
 
+    @GetMapping(value = "/todas", params = "limit")
+    @Operation(summary = "Obtener reuniones paginadas por cursor",
+            description = "Devuelve hasta 'limit' reuniones ordenadas por fecha descendente a partir del cursor 'after'")
+    public ResponseEntity<CursorPage<ReunionDto>> obtenerReunionesPorCursor(
+            @Parameter(description = "Cursor devuelto en nextCursor") @RequestParam(required = false) String after,
+            @Parameter(description = "Tamaño de página") @RequestParam Integer limit) {
+        log.info("Obteniendo página de reuniones por cursor");
+        return ResponseEntity.ok(reunionService.obtenerReuniones(after, limit));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener reunión por ID")
     public ResponseEntity<ReunionDto> obtenerReunion(
@@ -105,11 +120,12 @@ public class ReunionController {
     }
 
     @GetMapping("/buscar")
-    @Operation(summary = "Buscar reuniones por nombre")
+    @Operation(summary = "Buscar reuniones",
+            description = "Busca el texto en nombre, lugar y descripción tolerando errores de tipeo; resultados ordenados por relevancia")
     public ResponseEntity<Page<ReunionDto>> buscarReuniones(
-            @Parameter(description = "Nombre a buscar") @RequestParam String nombre,
+            @Parameter(description = "Texto a buscar") @RequestParam String nombre,
             Pageable pageable) {
-        log.info("Buscando reuniones con nombre: {}", nombre);
+        log.info("Buscando reuniones con texto: {}", nombre);
         Page<ReunionDto> reuniones = reunionService.buscarReuniones(nombre, pageable);
         return ResponseEntity.ok(reuniones);
     }
@@ -123,4 +139,14 @@ public class ReunionController {
         ReunionDto reunion = reunionService.cambiarEstadoReunion(id, estado);
         return ResponseEntity.ok(reunion);
     }
+
+    @PostMapping("/estadisticas/reconciliar")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconciliar estadísticas de asistencia",
+            description = "Reconstruye los contadores de asistencia de todas las reuniones y devuelve las desviaciones corregidas")
+    public ResponseEntity<ReconciliacionEstadisticasDto> reconciliarEstadisticas() {
+        log.info("Reconciliando estadísticas de asistencia");
+        ReconciliacionEstadisticasDto resultado = estadisticasAsistenciaService.reconciliar();
+        return ResponseEntity.ok(resultado);
+    }
 }
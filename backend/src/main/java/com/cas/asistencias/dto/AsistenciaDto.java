@@ -41,6 +41,25 @@ public class AsistenciaDto {
         this.observaciones = observaciones;
     }
 
+    // Constructor para proyecciones JPQL (SELECT new ...): todos los campos excepto nombreUsuario
+    public AsistenciaDto(Long id, Long reunionId, String nombreReunion, LocalDateTime fechaReunion,
+                        Long usuarioId, String usernameUsuario, LocalDateTime fechaRegistro,
+                        Asistencia.EstadoAsistencia estadoAsistencia, LocalDateTime horaLlegada,
+                        LocalDateTime horaSalida, String observaciones, String registradoPor) {
+        this.id = id;
+        this.reunionId = reunionId;
+        this.nombreReunion = nombreReunion;
+        this.fechaReunion = fechaReunion;
+        this.usuarioId = usuarioId;
+        this.usernameUsuario = usernameUsuario;
+        this.fechaRegistro = fechaRegistro;
+        this.estadoAsistencia = estadoAsistencia;
+        this.horaLlegada = horaLlegada;
+        this.horaSalida = horaSalida;
+        this.observaciones = observaciones;
+        this.registradoPor = registradoPor;
+    }
+
     // Constructor para mostrar información completa
     public AsistenciaDto(Long id, Long reunionId, String nombreReunion, Long usuarioId, 
                         String nombreUsuario, Asistencia.EstadoAsistencia estadoAsistencia, 
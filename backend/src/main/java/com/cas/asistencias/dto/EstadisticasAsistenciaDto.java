@@ -0,0 +1,37 @@
+package com.cas.asistencias.dto;
+
+import com.cas.asistencias.model.Asistencia;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Conteo de asistencias de una reunión agrupado por estado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasAsistenciaDto {
+
+    private long presentes;
+    private long ausentes;
+    private long tardanzas;
+    private long justificados;
+
+    public long getTotal() {
+        return presentes + ausentes + tardanzas + justificados;
+    }
+
+    // Acumula el conteo de un estado (usado al leer resultados agrupados por estado)
+    public void sumar(Asistencia.EstadoAsistencia estado, long cantidad) {
+        if (estado == null) {
+            return;
+        }
+        switch (estado) {
+            case PRESENTE -> presentes += cantidad;
+            case AUSENTE -> ausentes += cantidad;
+            case TARDANZA -> tardanzas += cantidad;
+            case JUSTIFICADO -> justificados += cantidad;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.cas.asistencias.dto;
+
+import com.cas.asistencias.model.Asistencia;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cambio en las asistencias de una reunión. Se publica como evento de aplicación y se transmite a los
+ * suscriptores del stream en vivo una vez confirmada la transacción. La asistencia se envía completa,
+ * por lo que aplicar el mismo evento dos veces deja al cliente en el mismo estado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoAsistenciaDto {
+
+    public enum Tipo {
+        REGISTRADA,
+        ACTUALIZADA,
+        SALIDA,
+        ELIMINADA,
+        // La reunión dejó de estar EN_CURSO o fue eliminada: el stream se cierra
+        REUNION_CERRADA
+    }
+
+    private Tipo tipo;
+    private Long reunionId;
+    private Asistencia.EstadoAsistencia estadoAnterior;
+    private AsistenciaDto asistencia;
+
+    public static EventoAsistenciaDto reunionCerrada(Long reunionId) {
+        return new EventoAsistenciaDto(Tipo.REUNION_CERRADA, reunionId, null, null);
+    }
+}
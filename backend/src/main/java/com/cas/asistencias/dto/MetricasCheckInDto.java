@@ -0,0 +1,29 @@
+package com.cas.asistencias.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de la cola de check-in: profundidad actual, tamaño de los lotes y latencia de confirmación.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasCheckInDto {
+
+    private int profundidadCola;
+    private int capacidadCola;
+    private long encolados;
+    private long rechazados;
+    private long lotesConfirmados;
+    // Check-ins de los lotes confirmados, con cualquier resultado
+    private long filasProcesadas;
+    // Check-ins insertados (resultado CREADA)
+    private long filasConfirmadas;
+    private long lotesFallidos;
+    private int ultimoTamanoLote;
+    private double tamanoLotePromedio;
+    private double latenciaCommitPromedioMs;
+    private double latenciaCommitMaximaMs;
+}
@@ -0,0 +1,31 @@
+package com.cas.asistencias.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de reconstruir los contadores de asistencia a partir de la tabla de asistencias.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliacionEstadisticasDto {
+
+    private LocalDateTime fechaEjecucion;
+    private int reunionesRevisadas;
+    private List<Desviacion> desviaciones = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Desviacion {
+        private Long reunionId;
+        private EstadisticasAsistenciaDto registradas;
+        private EstadisticasAsistenciaDto reales;
+    }
+}
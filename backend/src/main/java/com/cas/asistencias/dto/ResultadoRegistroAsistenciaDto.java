@@ -0,0 +1,39 @@
+package com.cas.asistencias.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado del registro de una fila dentro de un registro masivo de asistencias.
+ * Permite informar el estado de cada fila sin abortar todo el lote.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoRegistroAsistenciaDto {
+
+    private int indice;
+    private Long reunionId;
+    private Long usuarioId;
+    private Resultado resultado;
+    private AsistenciaDto asistencia;
+    private String mensaje;
+
+    public enum Resultado {
+        CREADA,
+        DUPLICADA,
+        REUNION_NO_ENCONTRADA,
+        USUARIO_NO_ENCONTRADO
+    }
+
+    public static ResultadoRegistroAsistenciaDto creada(int indice, AsistenciaDto asistencia) {
+        return new ResultadoRegistroAsistenciaDto(indice, asistencia.getReunionId(), asistencia.getUsuarioId(),
+                Resultado.CREADA, asistencia, null);
+    }
+
+    public static ResultadoRegistroAsistenciaDto fallida(int indice, Long reunionId, Long usuarioId,
+                                                         Resultado resultado, String mensaje) {
+        return new ResultadoRegistroAsistenciaDto(indice, reunionId, usuarioId, resultado, null, mensaje);
+    }
+}
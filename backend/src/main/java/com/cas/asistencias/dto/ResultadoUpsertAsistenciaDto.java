@@ -0,0 +1,23 @@
+package com.cas.asistencias.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de registrar o actualizar una asistencia según la política de conflicto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoUpsertAsistenciaDto {
+
+    public enum Resultado {
+        CREADA,
+        ACTUALIZADA,
+        SIN_CAMBIOS
+    }
+
+    private Resultado resultado;
+    private AsistenciaDto asistencia;
+}
@@ -24,6 +24,8 @@ public class ReunionDto {
     private Integer totalAsistentes;
     private Integer presentes;
     private Integer ausentes;
+    private Integer tardanzas;
+    private Integer justificados;
 
     // Constructor para crear una nueva reunión (sin id)
     public ReunionDto(String nombre, String descripcion, LocalDateTime fechaReunion, 
@@ -0,0 +1,22 @@
+package com.cas.asistencias.exception;
+
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.Set;
+
+/**
+ * Denegación de un registro masivo: lleva los IDs de los usuarios que el dirigente no supervisa.
+ */
+public class AsistenciasNoAutorizadasException extends AccessDeniedException {
+
+    private final Set<Long> usuarioIds;
+
+    public AsistenciasNoAutorizadasException(Set<Long> usuarioIds) {
+        super("No tiene permisos para gestionar la asistencia de los usuarios: " + usuarioIds);
+        this.usuarioIds = usuarioIds;
+    }
+
+    public Set<Long> getUsuarioIds() {
+        return usuarioIds;
+    }
+}
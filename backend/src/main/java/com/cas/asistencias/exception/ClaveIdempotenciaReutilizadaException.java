@@ -0,0 +1,8 @@
+package com.cas.asistencias.exception;
+
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    public ClaveIdempotenciaReutilizadaException(String clave) {
+        super("La clave de idempotencia " + clave + " ya se usó con una petición distinta");
+    }
+}
@@ -0,0 +1,8 @@
+package com.cas.asistencias.exception;
+
+public class ColaCheckInLlenaException extends RuntimeException {
+
+    public ColaCheckInLlenaException(int capacidad) {
+        super("La cola de check-in está llena (" + capacidad + " pendientes); reintente en unos segundos");
+    }
+}
@@ -16,8 +16,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Asistencia {
 
+    // Secuencia con asignación por bloques para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asistencias_seq")
+    @SequenceGenerator(name = "asistencias_seq", sequenceName = "asistencias_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,6 +49,11 @@ public class Asistencia {
     @Column(name = "registrado_por")
     private String registradoPor;
 
+    // Copia de reunion.fechaReunion que mantienen los triggers de V15; solo se usa para ordenar y paginar
+    // el historial de un usuario con el índice (user_id, fecha_reunion, id)
+    @Column(name = "fecha_reunion", insertable = false, updatable = false)
+    private LocalDateTime fechaReunion;
+
     @PrePersist
     protected void onCreate() {
         if (fechaRegistro == null) {
@@ -0,0 +1,44 @@
+package com.cas.asistencias.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta registrada para una cabecera Idempotency-Key de un usuario. Los reintentos con la misma
+ * clave reciben esta respuesta sin volver a ejecutar la operación.
+ */
+@Entity
+@Table(name = "asistencia_idempotency_keys",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"usuario", "clave"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String usuario;
+
+    @Column(nullable = false)
+    private String clave;
+
+    // SHA-256 de la petición original: la misma clave con otra petición se rechaza
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Column(name = "estado_http")
+    private Integer estadoHttp;
+
+    @Column(columnDefinition = "TEXT")
+    private String respuesta;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,37 @@
+package com.cas.asistencias.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contadores de asistencia por reunión mantenidos de forma incremental por AsistenciaService.
+ * Se actualizan con sentencias atómicas (ver EstadisticasReunionRepository), nunca a través de la entidad.
+ */
+@Entity
+@Table(name = "reunion_attendance_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasReunion {
+
+    @Id
+    @Column(name = "reunion_id")
+    private Long reunionId;
+
+    @Column(nullable = false)
+    private long presentes;
+
+    @Column(nullable = false)
+    private long ausentes;
+
+    @Column(nullable = false)
+    private long tardanzas;
+
+    @Column(nullable = false)
+    private long justificados;
+}
@@ -1,16 +1,26 @@
 package com.cas.asistencias.repository;
 
+import com.cas.asistencias.dto.AsistenciaDto;
 import com.cas.asistencias.model.Asistencia;
 import com.cas.asistencias.model.Reunion;
 import com.cas.login.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
@@ -27,6 +37,33 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
     // Verificar si un usuario ya tiene asistencia registrada en una reunión
     boolean existsByReunionAndUsuario(Reunion reunion, User usuario);
 
+    // Obtener los pares (reunión, usuario) ya registrados dentro de un conjunto de reuniones y usuarios
+    @Query("SELECT a.reunion.id, a.usuario.id FROM Asistencia a WHERE a.reunion.id IN :reunionIds AND a.usuario.id IN :usuarioIds")
+    List<Object[]> findParesRegistrados(@Param("reunionIds") Collection<Long> reunionIds,
+                                        @Param("usuarioIds") Collection<Long> usuarioIds);
+
+    // Insertar la asistencia solo si el usuario no tiene una en la reunión; devuelve 0 si ya existía.
+    // Ante un INSERT concurrente del mismo par espera a que termine en lugar de fallar por la restricción única
+    @Modifying
+    @Query(value = "INSERT INTO asistencias (reunion_id, user_id, fecha_registro, estado_asistencia, hora_llegada, " +
+                   "observaciones, registrado_por) " +
+                   "VALUES (:reunionId, :usuarioId, :fechaRegistro, :estado, CAST(:horaLlegada AS timestamp), " +
+                   "CAST(:observaciones AS text), CAST(:registradoPor AS varchar)) " +
+                   "ON CONFLICT (reunion_id, user_id) DO NOTHING",
+           nativeQuery = true)
+    int insertarSiNoExiste(@Param("reunionId") Long reunionId,
+                           @Param("usuarioId") Long usuarioId,
+                           @Param("fechaRegistro") LocalDateTime fechaRegistro,
+                           @Param("estado") String estado,
+                           @Param("horaLlegada") LocalDateTime horaLlegada,
+                           @Param("observaciones") String observaciones,
+                           @Param("registradoPor") String registradoPor);
+
+    // Obtener la asistencia de un usuario en una reunión bloqueando la fila (SELECT ... FOR UPDATE)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Asistencia a WHERE a.reunion.id = :reunionId AND a.usuario.id = :usuarioId")
+    Optional<Asistencia> findParaActualizar(@Param("reunionId") Long reunionId, @Param("usuarioId") Long usuarioId);
+
     // Buscar asistencias por estado
     List<Asistencia> findByEstadoAsistencia(Asistencia.EstadoAsistencia estadoAsistencia);
 
@@ -43,6 +80,71 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
     @Query("SELECT COUNT(a) FROM Asistencia a WHERE a.reunion = :reunion AND a.estadoAsistencia = 'AUSENTE'")
     long countAusentesByReunion(@Param("reunion") Reunion reunion);
 
+    // Contar asistencias de todas las reuniones agrupadas por reunión y estado (reconciliación de contadores)
+    @Query("SELECT a.reunion.id, a.estadoAsistencia, COUNT(a) FROM Asistencia a GROUP BY a.reunion.id, a.estadoAsistencia")
+    List<Object[]> contarTodasPorReunionYEstado();
+
+    // Contar asistencias de una reunión agrupadas por estado (reconciliación con los contadores ya bloqueados)
+    @Query("SELECT a.estadoAsistencia, COUNT(a) FROM Asistencia a WHERE a.reunion.id = :reunionId GROUP BY a.estadoAsistencia")
+    List<Object[]> contarPorEstado(@Param("reunionId") Long reunionId);
+
+    // Proyección a AsistenciaDto con reunión y usuario en el mismo JOIN: una sola sentencia SQL, sin cargar entidades
+    String PROYECCION_DTO = "SELECT new com.cas.asistencias.dto.AsistenciaDto(a.id, r.id, r.nombre, r.fechaReunion, " +
+            "u.id, u.username, a.fechaRegistro, a.estadoAsistencia, a.horaLlegada, a.horaSalida, a.observaciones, " +
+            "a.registradoPor) FROM Asistencia a JOIN a.reunion r JOIN a.usuario u ";
+
+    // Detalle de asistencias de una reunión
+    @Query(PROYECCION_DTO + "WHERE r.id = :reunionId ORDER BY a.id")
+    List<AsistenciaDto> findDetalleByReunionId(@Param("reunionId") Long reunionId);
+
+    // Asistencias de un usuario
+    @Query(PROYECCION_DTO + "WHERE u.id = :usuarioId ORDER BY a.id")
+    List<AsistenciaDto> findDtoByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Asistencia específica de un usuario en una reunión
+    @Query(PROYECCION_DTO + "WHERE r.id = :reunionId AND u.id = :usuarioId")
+    Optional<AsistenciaDto> findDtoByReunionIdAndUsuarioId(@Param("reunionId") Long reunionId,
+                                                          @Param("usuarioId") Long usuarioId);
+
+    // Historial de asistencias de un usuario, de la reunión más reciente a la más antigua
+    @Query(PROYECCION_DTO + "WHERE u.id = :usuarioId ORDER BY r.fechaReunion DESC")
+    List<AsistenciaDto> findHistorialDtoByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Paginación por cursor: asistencias de una reunión a partir de un ID
+    @Query(PROYECCION_DTO + "WHERE r.id = :reunionId AND a.id > :despuesDeId ORDER BY a.id")
+    List<AsistenciaDto> findDetalleByReunionIdDespuesDe(@Param("reunionId") Long reunionId,
+                                                       @Param("despuesDeId") Long despuesDeId,
+                                                       Pageable pageable);
+
+    // Paginación por cursor: primera página del historial de un usuario (fecha de reunión descendente).
+    // Ordena por la copia a.fechaReunion para recorrer idx_asistencias_usuario_fecha sin ordenar todo el historial
+    @Query(PROYECCION_DTO + "WHERE u.id = :usuarioId ORDER BY a.fechaReunion DESC, a.id DESC")
+    List<AsistenciaDto> findHistorialDtoByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    // Paginación por cursor: historial de un usuario posterior a la posición (fechaReunion, id)
+    @Query(PROYECCION_DTO + "WHERE u.id = :usuarioId AND (a.fechaReunion, a.id) < (:fecha, :id) " +
+           "ORDER BY a.fechaReunion DESC, a.id DESC")
+    List<AsistenciaDto> findHistorialDtoByUsuarioIdDespuesDe(@Param("usuarioId") Long usuarioId,
+                                                            @Param("fecha") LocalDateTime fecha,
+                                                            @Param("id") Long id,
+                                                            Pageable pageable);
+
+    // Exportación: historial de un usuario leído con cursor JDBC (fetch size acotado, sin cargar toda la lista)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(PROYECCION_DTO + "WHERE u.id = :usuarioId ORDER BY a.fechaReunion DESC, a.id DESC")
+    Stream<AsistenciaDto> streamHistorialDtoByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Exportación: asistencias de una reunión leídas con cursor JDBC
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(PROYECCION_DTO + "WHERE r.id = :reunionId ORDER BY a.id")
+    Stream<AsistenciaDto> streamDetalleByReunionId(@Param("reunionId") Long reunionId);
+
     // Buscar asistencias de un usuario en un rango de fechas
     @Query("SELECT a FROM Asistencia a WHERE a.usuario = :usuario AND a.reunion.fechaReunion BETWEEN :fechaInicio AND :fechaFin ORDER BY a.reunion.fechaReunion DESC")
     List<Asistencia> findByUsuarioAndFechaRange(@Param("usuario") User usuario, 
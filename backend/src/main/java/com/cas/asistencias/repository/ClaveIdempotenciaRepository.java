@@ -0,0 +1,36 @@
+package com.cas.asistencias.repository;
+
+import com.cas.asistencias.model.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    // Reserva la clave; devuelve 0 si ya existía y no ha caducado. Una clave creada antes de :caducidad se trata
+    // como ausente: se reutiliza la fila con la nueva huella y sin respuesta registrada. Si otra transacción la
+    // reservó y aún no terminó, espera a que confirme o revierta, de modo que los reintentos concurrentes se serializan
+    @Modifying
+    @Query(value = "INSERT INTO asistencia_idempotency_keys (usuario, clave, huella, fecha_creacion) " +
+                   "VALUES (:usuario, :clave, :huella, :fecha) ON CONFLICT (usuario, clave) DO UPDATE " +
+                   "SET huella = EXCLUDED.huella, fecha_creacion = EXCLUDED.fecha_creacion, estado_http = NULL, respuesta = NULL " +
+                   "WHERE asistencia_idempotency_keys.fecha_creacion < :caducidad",
+           nativeQuery = true)
+    int reservar(@Param("usuario") String usuario, @Param("clave") String clave,
+                 @Param("huella") String huella, @Param("fecha") LocalDateTime fecha,
+                 @Param("caducidad") LocalDateTime caducidad);
+
+    // Buscar una clave de un usuario
+    Optional<ClaveIdempotencia> findByUsuarioAndClave(String usuario, String clave);
+
+    // Eliminar las claves anteriores a la fecha indicada
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :fecha")
+    int deleteByFechaCreacionBefore(@Param("fecha") LocalDateTime fecha);
+}
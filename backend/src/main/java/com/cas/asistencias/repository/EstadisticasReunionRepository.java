@@ -0,0 +1,70 @@
+package com.cas.asistencias.repository;
+
+import com.cas.asistencias.model.EstadisticasReunion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EstadisticasReunionRepository extends JpaRepository<EstadisticasReunion, Long> {
+
+    // Suma los deltas a los contadores de la reunión de forma atómica (crea la fila si no existe)
+    @Modifying
+    @Query(value = "INSERT INTO reunion_attendance_stats AS s (reunion_id, presentes, ausentes, tardanzas, justificados) " +
+                   "VALUES (:reunionId, :presentes, :ausentes, :tardanzas, :justificados) " +
+                   "ON CONFLICT (reunion_id) DO UPDATE SET " +
+                   "presentes = s.presentes + EXCLUDED.presentes, " +
+                   "ausentes = s.ausentes + EXCLUDED.ausentes, " +
+                   "tardanzas = s.tardanzas + EXCLUDED.tardanzas, " +
+                   "justificados = s.justificados + EXCLUDED.justificados",
+           nativeQuery = true)
+    void sumar(@Param("reunionId") Long reunionId,
+               @Param("presentes") long presentes,
+               @Param("ausentes") long ausentes,
+               @Param("tardanzas") long tardanzas,
+               @Param("justificados") long justificados);
+
+    // Crea la fila de contadores en cero si la reunión existe y aún no la tiene, para que la reconciliación pueda bloquearla
+    @Modifying
+    @Query(value = "INSERT INTO reunion_attendance_stats (reunion_id, presentes, ausentes, tardanzas, justificados) " +
+                   "SELECT r.id, 0, 0, 0, 0 FROM reuniones r WHERE r.id = :reunionId " +
+                   "ON CONFLICT (reunion_id) DO NOTHING",
+           nativeQuery = true)
+    void crearSiNoExiste(@Param("reunionId") Long reunionId);
+
+    // Lee los contadores de la reunión bloqueando la fila hasta el final de la transacción (SELECT ... FOR UPDATE)
+    @Query(value = "SELECT presentes, ausentes, tardanzas, justificados FROM reunion_attendance_stats " +
+                   "WHERE reunion_id = :reunionId FOR UPDATE",
+           nativeQuery = true)
+    Optional<Contadores> bloquear(@Param("reunionId") Long reunionId);
+
+    // Sobrescribe los contadores de la reunión con valores absolutos (usado por la reconciliación)
+    @Modifying
+    @Query(value = "INSERT INTO reunion_attendance_stats (reunion_id, presentes, ausentes, tardanzas, justificados) " +
+                   "VALUES (:reunionId, :presentes, :ausentes, :tardanzas, :justificados) " +
+                   "ON CONFLICT (reunion_id) DO UPDATE SET " +
+                   "presentes = EXCLUDED.presentes, " +
+                   "ausentes = EXCLUDED.ausentes, " +
+                   "tardanzas = EXCLUDED.tardanzas, " +
+                   "justificados = EXCLUDED.justificados",
+           nativeQuery = true)
+    void establecer(@Param("reunionId") Long reunionId,
+                    @Param("presentes") long presentes,
+                    @Param("ausentes") long ausentes,
+                    @Param("tardanzas") long tardanzas,
+                    @Param("justificados") long justificados);
+
+    interface Contadores {
+        Long getPresentes();
+
+        Long getAusentes();
+
+        Long getTardanzas();
+
+        Long getJustificados();
+    }
+}
@@ -28,14 +28,38 @@ public interface ReunionRepository extends JpaRepository<Reunion, Long> {
     List<Reunion> findProximasReuniones(@Param("fecha") LocalDateTime fecha, 
                                        @Param("estado") Reunion.EstadoReunion estado);
 
-    // Buscar reuniones por nombre (búsqueda parcial)
-    @Query("SELECT r FROM Reunion r WHERE LOWER(r.nombre) LIKE LOWER(CONCAT('%', :nombre, '%')) ORDER BY r.fechaReunion DESC")
-    Page<Reunion> findByNombreContainingIgnoreCase(@Param("nombre") String nombre, Pageable pageable);
+    // Buscar reuniones por texto en nombre, lugar y descripción (índice de trigramas idx_reuniones_busqueda_trgm).
+    // Coincide por subcadena o por similitud de palabra; ordena por relevancia, priorizando el nombre
+    @Query(value = "SELECT r.* FROM reuniones r " +
+                   "WHERE r.busqueda_texto LIKE :patron ESCAPE '\\' OR :texto <% r.busqueda_texto " +
+                   "ORDER BY word_similarity(:texto, lower(r.nombre)) * 2 + word_similarity(:texto, r.busqueda_texto) DESC, " +
+                   "r.fecha_reunion DESC, r.id DESC",
+           countQuery = "SELECT count(*) FROM reuniones r " +
+                        "WHERE r.busqueda_texto LIKE :patron ESCAPE '\\' OR :texto <% r.busqueda_texto",
+           nativeQuery = true)
+    Page<Reunion> buscarPorTexto(@Param("texto") String texto, @Param("patron") String patron, Pageable pageable);
 
     // Buscar reuniones del mes actual
     @Query("SELECT r FROM Reunion r WHERE YEAR(r.fechaReunion) = :year AND MONTH(r.fechaReunion) = :month ORDER BY r.fechaReunion ASC")
     List<Reunion> findByMes(@Param("year") int year, @Param("month") int month);
 
+    // Paginación por cursor: primera página ordenada por fecha descendente (usa idx_reuniones_fecha_id)
+    @Query("SELECT r FROM Reunion r ORDER BY r.fechaReunion DESC, r.id DESC")
+    List<Reunion> findPrimeraPagina(Pageable pageable);
+
+    // Paginación por cursor: reuniones posteriores a la posición (fechaReunion, id), comparación de filas sobre idx_reuniones_fecha_id
+    @Query("SELECT r FROM Reunion r WHERE (r.fechaReunion, r.id) < (:fecha, :id) " +
+           "ORDER BY r.fechaReunion DESC, r.id DESC")
+    List<Reunion> findPaginaDespuesDe(@Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pageable);
+
+    // Obtener solo el estado de una reunión
+    @Query("SELECT r.estado FROM Reunion r WHERE r.id = :id")
+    Optional<Reunion.EstadoReunion> findEstadoById(@Param("id") Long id);
+
+    // Obtener solo los IDs de todas las reuniones
+    @Query("SELECT r.id FROM Reunion r")
+    List<Long> findAllIds();
+
     // Buscar reuniones obligatorias
     List<Reunion> findByEsObligatoriaTrue();
 
@@ -0,0 +1,135 @@
+package com.cas.asistencias.security;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.service.AsistenciaSecurityService;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+import static com.cas.login.security.UserDetailsImpl.ROLE_ADMIN;
+import static com.cas.login.security.UserDetailsImpl.ROLE_DIRIGENTE;
+
+/**
+ * Evalúa las reglas de {@link AutorizarAsistencia}. La primera invocación de cada método resuelve su regla
+ * y la posición del argumento que necesita; las siguientes solo comparan la máscara de roles del usuario
+ * y, si es dirigente, consultan la supervisión. No hay parseo ni evaluación de expresiones por petición.
+ */
+@Component
+@RequiredArgsConstructor
+public class AsistenciaAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision CONCEDIDA = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENEGADA = new AuthorizationDecision(false);
+
+    private final AsistenciaSecurityService asistenciaSecurityService;
+
+    private final ParameterNameDiscoverer nombresParametros = new DefaultParameterNameDiscoverer();
+    private final Map<Method, Comprobacion> comprobaciones = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocacion) {
+        Comprobacion comprobacion = comprobaciones.computeIfAbsent(invocacion.getMethod(), this::compilar);
+        Authentication autenticacion = authentication.get();
+        if (autenticacion == null || !autenticacion.isAuthenticated()) {
+            return DENEGADA;
+        }
+        int roles = AsistenciaSecurityService.mascaraRoles(autenticacion);
+        return comprobacion.permite(autenticacion, roles, invocacion.getArguments()) ? CONCEDIDA : DENEGADA;
+    }
+
+    private Comprobacion compilar(Method metodo) {
+        AutorizarAsistencia anotacion = AnnotatedElementUtils.findMergedAnnotation(metodo, AutorizarAsistencia.class);
+        if (anotacion == null) {
+            throw new IllegalStateException("El método " + metodo + " no tiene @AutorizarAsistencia");
+        }
+        return switch (anotacion.value()) {
+            case ADMIN -> (autenticacion, roles, argumentos) -> (roles & ROLE_ADMIN) != 0;
+            case DIRIGENTE_O_ADMIN -> (autenticacion, roles, argumentos) -> (roles & (ROLE_ADMIN | ROLE_DIRIGENTE)) != 0;
+            case USUARIO -> compilarUsuario(metodo);
+            case ASISTENCIA -> {
+                int indice = indiceParametro(metodo, "id");
+                yield adminODirigenteQue((autenticacion, argumentos) ->
+                        asistenciaSecurityService.supervisaUsuarioDeAsistencia(autenticacion, (Long) argumentos[indice]));
+            }
+            case LOTE -> {
+                int indice = indiceParametro(metodo, List.class);
+                yield adminODirigenteQue((autenticacion, argumentos) ->
+                        asistenciaSecurityService.supervisaUsuarios(autenticacion, asistencias(argumentos[indice])));
+            }
+        };
+    }
+
+    // El usuario llega como parámetro usuarioId o dentro del AsistenciaDto del cuerpo
+    private Comprobacion compilarUsuario(Method metodo) {
+        String[] nombres = nombres(metodo);
+        for (int i = 0; i < nombres.length; i++) {
+            if (nombres[i].equals("usuarioId")) {
+                int indice = i;
+                return adminODirigenteQue((autenticacion, argumentos) ->
+                        asistenciaSecurityService.supervisaUsuario(autenticacion, (Long) argumentos[indice]));
+            }
+        }
+        int indice = indiceParametro(metodo, AsistenciaDto.class);
+        return adminODirigenteQue((autenticacion, argumentos) -> {
+            AsistenciaDto dto = (AsistenciaDto) argumentos[indice];
+            return dto != null && asistenciaSecurityService.supervisaUsuario(autenticacion, dto.getUsuarioId());
+        });
+    }
+
+    private static Comprobacion adminODirigenteQue(BiPredicate<Authentication, Object[]> supervision) {
+        return (autenticacion, roles, argumentos) -> (roles & ROLE_ADMIN) != 0
+                || ((roles & ROLE_DIRIGENTE) != 0 && supervision.test(autenticacion, argumentos));
+    }
+
+    private int indiceParametro(Method metodo, String nombre) {
+        String[] nombres = nombres(metodo);
+        for (int i = 0; i < nombres.length; i++) {
+            if (nombres[i].equals(nombre)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("El método " + metodo + " no tiene un parámetro '" + nombre + "'");
+    }
+
+    private static int indiceParametro(Method metodo, Class<?> tipo) {
+        Class<?>[] tipos = metodo.getParameterTypes();
+        for (int i = 0; i < tipos.length; i++) {
+            if (tipo.isAssignableFrom(tipos[i])) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("El método " + metodo + " no tiene un parámetro de tipo " + tipo.getSimpleName());
+    }
+
+    private String[] nombres(Method metodo) {
+        String[] nombres = nombresParametros.getParameterNames(metodo);
+        if (nombres == null) {
+            throw new IllegalStateException("No se pueden leer los nombres de parámetro de " + metodo
+                    + " (¿compilado sin -parameters?)");
+        }
+        return nombres;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AsistenciaDto> asistencias(Object argumento) {
+        return (List<AsistenciaDto>) argumento;
+    }
+
+    @FunctionalInterface
+    private interface Comprobacion {
+        boolean permite(Authentication autenticacion, int roles, Object[] argumentos);
+    }
+}
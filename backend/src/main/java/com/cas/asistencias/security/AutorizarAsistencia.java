@@ -0,0 +1,19 @@
+package com.cas.asistencias.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Protege un método con una regla de {@link ReglaAsistencia}, evaluada por AsistenciaAuthorizationManager
+ * antes de la invocación (equivale a un @PreAuthorize, sin expresión SpEL).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AutorizarAsistencia {
+
+    ReglaAsistencia value();
+}
@@ -0,0 +1,18 @@
+package com.cas.asistencias.security;
+
+/**
+ * Reglas de autorización de los endpoints de asistencias. Salvo ADMIN, todas admiten ADMIN y DIRIGENTE;
+ * las que apuntan a usuarios concretos exigen además que el dirigente los supervise.
+ */
+public enum ReglaAsistencia {
+    /** Solo ADMIN. */
+    ADMIN,
+    /** ADMIN o DIRIGENTE, sin comprobar supervisión. */
+    DIRIGENTE_O_ADMIN,
+    /** El usuario del parámetro {@code usuarioId} o del AsistenciaDto recibido. */
+    USUARIO,
+    /** El usuario de la asistencia cuyo ID llega en el parámetro {@code id}. */
+    ASISTENCIA,
+    /** Todos los usuarios de la lista de AsistenciaDto recibida. */
+    LOTE
+}
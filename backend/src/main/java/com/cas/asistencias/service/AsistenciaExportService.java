@@ -0,0 +1,129 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.exception.ReunionNotFoundException;
+import com.cas.asistencias.repository.AsistenciaRepository;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de asistencias en streaming. Las filas se leen con un cursor JDBC de solo avance
+ * dentro de una transacción de solo lectura y se escriben directamente en la respuesta, por lo que
+ * el uso de memoria es constante sin importar la cantidad de filas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AsistenciaExportService {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String CABECERA_CSV = "id,reunionId,nombreReunion,fechaReunion,usuarioId,usernameUsuario," +
+            "fechaRegistro,estadoAsistencia,horaLlegada,horaSalida,observaciones,registradoPor";
+
+    private final AsistenciaRepository asistenciaRepository;
+    private final ReunionRepository reunionRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum Formato {
+        NDJSON,
+        CSV
+    }
+
+    // Las validaciones se hacen antes de empezar a escribir para poder responder 404 con el formato habitual
+    public void verificarReunionExiste(Long reunionId) {
+        if (!reunionRepository.existsById(reunionId)) {
+            throw new ReunionNotFoundException(reunionId);
+        }
+    }
+
+    public void verificarUsuarioExiste(Long usuarioId) {
+        if (!userRepository.existsById(usuarioId)) {
+            throw new RuntimeException("Usuario no encontrado con ID: " + usuarioId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarHistorialUsuario(Long usuarioId, Formato formato, OutputStream salida) throws IOException {
+        log.info("Exportando historial de asistencias del usuario {} en formato {}", usuarioId, formato);
+        try (Stream<AsistenciaDto> filas = asistenciaRepository.streamHistorialDtoByUsuarioId(usuarioId)) {
+            escribir(filas, formato, salida);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarAsistenciasReunion(Long reunionId, Formato formato, OutputStream salida) throws IOException {
+        log.info("Exportando asistencias de la reunión {} en formato {}", reunionId, formato);
+        try (Stream<AsistenciaDto> filas = asistenciaRepository.streamDetalleByReunionId(reunionId)) {
+            escribir(filas, formato, salida);
+        }
+    }
+
+    private void escribir(Stream<AsistenciaDto> filas, Formato formato, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == Formato.CSV) {
+            writer.write(CABECERA_CSV);
+            writer.write('\n');
+        }
+        try {
+            filas.forEach(dto -> {
+                try {
+                    if (formato == Formato.CSV) {
+                        escribirCsv(dto, writer);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(dto));
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Normalmente el cliente cerró la conexión: se corta la lectura del cursor
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void escribirCsv(AsistenciaDto dto, Writer writer) throws IOException {
+        Object[] campos = {
+                dto.getId(), dto.getReunionId(), dto.getNombreReunion(), dto.getFechaReunion(),
+                dto.getUsuarioId(), dto.getUsernameUsuario(), dto.getFechaRegistro(), dto.getEstadoAsistencia(),
+                dto.getHoraLlegada(), dto.getHoraSalida(), dto.getObservaciones(), dto.getRegistradoPor()
+        };
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escaparCsv(campos[i]));
+        }
+    }
+
+    private static String escaparCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
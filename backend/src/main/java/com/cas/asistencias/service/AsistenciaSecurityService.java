@@ -1,6 +1,7 @@
 package com.cas.asistencias.service;
 
 import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.exception.AsistenciasNoAutorizadasException;
 import com.cas.asistencias.model.Asistencia;
 import com.cas.asistencias.repository.AsistenciaRepository;
 import com.cas.login.model.User;
@@ -12,9 +13,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Servicio especializado para validaciones de seguridad en asistencias.
  * Verifica que los dirigentes solo puedan gestionar asistencias de acampantes bajo su supervisión.
+ *
+ * Los métodos supervisa* solo comprueban la supervisión: AsistenciaAuthorizationManager los usa después de
+ * comprobar el rol con la máscara de roles.
  */
 @Service("asistenciaSecurityService")
 @RequiredArgsConstructor
@@ -26,74 +34,71 @@ public class AsistenciaSecurityService {
     private final AsistenciaRepository asistenciaRepository;
 
     /**
-     * Verifica si el usuario autenticado puede gestionar la asistencia de un acampante específico.
-     * 
-     * @param usuarioId ID del acampante cuya asistencia se quiere gestionar
-     * @param authentication Información de autenticación del usuario actual
-     * @return true si puede gestionar la asistencia, false en caso contrario
+     * Verifica que el dirigente autenticado supervise al acampante (no comprueba roles).
      */
-    public boolean puedeGestionarAsistencia(Long usuarioId, Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            log.debug("Usuario no autenticado");
+    public boolean supervisaUsuario(Authentication authentication, Long usuarioId) {
+        Long dirigenteId = obtenerIdUsuarioAutenticado(authentication);
+        if (dirigenteId == null) {
+            log.debug("No se pudo obtener ID del dirigente autenticado");
             return false;
         }
 
-        // Los ADMIN pueden gestionar cualquier asistencia
-        if (authentication.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"))) {
-            log.debug("Usuario ADMIN puede gestionar cualquier asistencia");
-            return true;
-        }
-
-        // Para dirigentes, verificar que supervisen al acampante
-        if (authentication.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_DIRIGENTE"))) {
-            
-            Long dirigenteId = obtenerIdUsuarioAutenticado(authentication);
-            if (dirigenteId == null) {
-                log.debug("No se pudo obtener ID del dirigente autenticado");
-                return false;
-            }
+        boolean puedeSupervisar = userSupervisionService.dirigenteSuperviseAcampante(dirigenteId, usuarioId);
+        log.debug("Dirigente {} {} supervisar acampante {}", 
+                dirigenteId, puedeSupervisar ? "SÍ puede" : "NO puede", usuarioId);
+        return puedeSupervisar;
+    }
 
-            boolean puedeSupervisar = userSupervisionService.dirigenteSuperviseAcampante(dirigenteId, usuarioId);
-            log.debug("Dirigente {} {} supervisar acampante {}", 
-                    dirigenteId, puedeSupervisar ? "SÍ puede" : "NO puede", usuarioId);
-            return puedeSupervisar;
+    /**
+     * Verifica que el dirigente autenticado supervise al usuario de la asistencia indicada (no comprueba roles).
+     */
+    public boolean supervisaUsuarioDeAsistencia(Authentication authentication, Long asistenciaId) {
+        Asistencia asistencia = asistenciaRepository.findById(asistenciaId).orElse(null);
+        if (asistencia == null) {
+            log.debug("Asistencia con ID {} no encontrada", asistenciaId);
+            return false;
         }
-
-        log.debug("Usuario no tiene rol apropiado para gestionar asistencias");
-        return false;
+        return supervisaUsuario(authentication, asistencia.getUsuario().getId());
     }
 
     /**
-     * Verifica si el usuario autenticado puede gestionar una asistencia específica por su ID.
-     * 
-     * @param asistenciaId ID de la asistencia
-     * @param authentication Información de autenticación del usuario actual
-     * @return true si puede gestionar la asistencia, false en caso contrario
+     * Verifica de una vez que el dirigente autenticado supervise a todos los usuarios distintos del lote
+     * (no comprueba roles): una única consulta al índice de supervisión.
+     *
+     * @throws AsistenciasNoAutorizadasException si no supervisa a alguno de los usuarios
      */
-    public boolean puedeGestionarAsistenciaPorId(Long asistenciaId, Authentication authentication) {
-        // Los ADMIN pueden gestionar cualquier asistencia
-        if (authentication.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"))) {
+    public boolean supervisaUsuarios(Authentication authentication, List<AsistenciaDto> asistenciasDtos) {
+        if (asistenciasDtos == null || asistenciasDtos.isEmpty()) {
             return true;
         }
+        Long dirigenteId = obtenerIdUsuarioAutenticado(authentication);
+        if (dirigenteId == null) {
+            log.debug("No se pudo obtener ID del dirigente autenticado");
+            return false;
+        }
 
-        // Para dirigentes, obtener el usuarioId de la asistencia y verificar supervisión
-        if (authentication.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_DIRIGENTE"))) {
-            
-            Asistencia asistencia = asistenciaRepository.findById(asistenciaId).orElse(null);
-            if (asistencia == null) {
-                log.debug("Asistencia con ID {} no encontrada", asistenciaId);
-                return false;
-            }
-
-            Long usuarioId = asistencia.getUsuario().getId();
-            return puedeGestionarAsistencia(usuarioId, authentication);
+        Set<Long> usuarioIds = new LinkedHashSet<>();
+        asistenciasDtos.forEach(dto -> usuarioIds.add(dto.getUsuarioId()));
+        Set<Long> noSupervisados = userSupervisionService.findUnsupervisedAcampantes(dirigenteId, usuarioIds);
+        if (!noSupervisados.isEmpty()) {
+            log.debug("Dirigente {} no supervisa a los usuarios {}", dirigenteId, noSupervisados);
+            throw new AsistenciasNoAutorizadasException(noSupervisados);
         }
+        return true;
+    }
 
-        return false;
+    /**
+     * Máscara de roles del usuario autenticado (bits UserDetailsImpl.ROLE_*). Para UserDetailsImpl viene
+     * precalculada; para otros principals se calcula desde las authorities.
+     */
+    public static int mascaraRoles(Authentication authentication) {
+        if (authentication == null) {
+            return 0;
+        }
+        if (authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return userDetails.getRoleMask();
+        }
+        return UserDetailsImpl.roleMask(authentication.getAuthorities());
     }
 
     /**
@@ -117,27 +122,4 @@ public class AsistenciaSecurityService {
         
         return null;
     }
-
-    /**
-     * Verifica si el usuario autenticado puede gestionar múltiples asistencias.
-     * 
-     * @param asistenciasDtos Lista de DTOs de asistencias a validar
-     * @param authentication Información de autenticación del usuario actual
-     * @return true si puede gestionar todas las asistencias, false en caso contrario
-     */
-    public boolean puedeGestionarMultiplesAsistencias(java.util.List<AsistenciaDto> asistenciasDtos, Authentication authentication) {
-        if (asistenciasDtos == null || asistenciasDtos.isEmpty()) {
-            return true; // Lista vacía, no hay nada que validar
-        }
-
-        // Los ADMIN pueden gestionar cualquier asistencia
-        if (authentication.getAuthorities().stream()
-                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"))) {
-            return true;
-        }
-
-        // Para dirigentes, verificar que supervise a todos los acampantes
-        return asistenciasDtos.stream()
-                .allMatch(dto -> puedeGestionarAsistencia(dto.getUsuarioId(), authentication));
-    }
 }
@@ -1,7 +1,11 @@
 package com.cas.asistencias.service;
 
 import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.EstadisticasAsistenciaDto;
+import com.cas.asistencias.dto.EventoAsistenciaDto;
 import com.cas.asistencias.dto.ReporteAsistenciaDto;
+import com.cas.asistencias.dto.ResultadoRegistroAsistenciaDto;
+import com.cas.asistencias.dto.ResultadoUpsertAsistenciaDto;
 import com.cas.asistencias.exception.AsistenciaDuplicadaException;
 import com.cas.asistencias.exception.AsistenciaNotFoundException;
 import com.cas.asistencias.exception.ReunionNotFoundException;
@@ -9,15 +13,27 @@ import com.cas.asistencias.model.Asistencia;
 import com.cas.asistencias.model.Reunion;
 import com.cas.asistencias.repository.AsistenciaRepository;
 import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.common.pagination.CursorPage;
+import com.cas.common.pagination.KeysetCursor;
 import com.cas.login.model.User;
 import com.cas.login.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,39 +45,170 @@ public class AsistenciaService {
     private final AsistenciaRepository asistenciaRepository;
     private final ReunionRepository reunionRepository;
     private final UserRepository userRepository;
+    private final EstadisticasAsistenciaService estadisticasAsistenciaService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${asistencias.upsert.politica:ULTIMO_GANA}")
+    private PoliticaConflicto politicaPorDefecto;
 
     public AsistenciaDto registrarAsistencia(AsistenciaDto asistenciaDto) {
         log.info("Registrando asistencia para usuario {} en reunión {}", 
                 asistenciaDto.getUsuarioId(), asistenciaDto.getReunionId());
 
-        // Verificar que la reunión existe
-        Reunion reunion = reunionRepository.findById(asistenciaDto.getReunionId())
-                .orElseThrow(() -> new ReunionNotFoundException(asistenciaDto.getReunionId()));
-
-        // Verificar que el usuario existe
-        User usuario = userRepository.findById(asistenciaDto.getUsuarioId())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + asistenciaDto.getUsuarioId()));
+        // Verificar que la reunión y el usuario existen
+        verificarReunionExiste(asistenciaDto.getReunionId());
+        verificarUsuarioExiste(asistenciaDto.getUsuarioId());
 
-        // Verificar que no existe ya una asistencia para este usuario en esta reunión
-        if (asistenciaRepository.existsByReunionAndUsuario(reunion, usuario)) {
+        // El INSERT ... ON CONFLICT DO NOTHING detecta el duplicado de forma atómica, también entre
+        // dos registros concurrentes del mismo usuario
+        if (!insertarSiNoExiste(asistenciaDto)) {
             throw new AsistenciaDuplicadaException(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId());
         }
 
-        Asistencia asistencia = new Asistencia();
-        asistencia.setReunion(reunion);
-        asistencia.setUsuario(usuario);
-        asistencia.setEstadoAsistencia(asistenciaDto.getEstadoAsistencia());
-        asistencia.setObservaciones(asistenciaDto.getObservaciones());
-        asistencia.setRegistradoPor(asistenciaDto.getRegistradoPor());
-        
-        if (asistenciaDto.getHoraLlegada() != null) {
-            asistencia.setHoraLlegada(asistenciaDto.getHoraLlegada());
+        AsistenciaDto asistencia = obtenerRegistrada(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId());
+        estadisticasAsistenciaService.registrarCambio(asistencia.getReunionId(), null, asistencia.getEstadoAsistencia());
+        publicar(EventoAsistenciaDto.Tipo.REGISTRADA, null, asistencia);
+        log.info("Asistencia registrada exitosamente con ID: {}", asistencia.getId());
+
+        return asistencia;
+    }
+
+    /**
+     * Registra la asistencia o, si el usuario ya tiene una en la reunión, la resuelve según la política
+     * indicada. Es seguro ante registros concurrentes del mismo usuario: el alta usa
+     * INSERT ... ON CONFLICT DO NOTHING y la actualización bloquea la fila existente, por lo que
+     * nunca se produce un error de restricción única y los contadores reciben el estado anterior real.
+     *
+     * @param politica política de conflicto; si es null se usa asistencias.upsert.politica
+     */
+    public ResultadoUpsertAsistenciaDto registrarOActualizarAsistencia(AsistenciaDto asistenciaDto,
+                                                                      PoliticaConflicto politica) {
+        PoliticaConflicto politicaEfectiva = politica != null ? politica : politicaPorDefecto;
+        log.info("Registrando o actualizando asistencia para usuario {} en reunión {} (política {})",
+                asistenciaDto.getUsuarioId(), asistenciaDto.getReunionId(), politicaEfectiva);
+
+        verificarReunionExiste(asistenciaDto.getReunionId());
+        verificarUsuarioExiste(asistenciaDto.getUsuarioId());
+
+        if (insertarSiNoExiste(asistenciaDto)) {
+            AsistenciaDto creada = obtenerRegistrada(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId());
+            estadisticasAsistenciaService.registrarCambio(creada.getReunionId(), null, creada.getEstadoAsistencia());
+            publicar(EventoAsistenciaDto.Tipo.REGISTRADA, null, creada);
+            return new ResultadoUpsertAsistenciaDto(ResultadoUpsertAsistenciaDto.Resultado.CREADA, creada);
         }
 
-        Asistencia asistenciaGuardada = asistenciaRepository.save(asistencia);
-        log.info("Asistencia registrada exitosamente con ID: {}", asistenciaGuardada.getId());
+        // La fila ya existía (o la acaba de confirmar otra transacción): se bloquea antes de decidir
+        Asistencia existente = asistenciaRepository
+                .findParaActualizar(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId())
+                .orElseThrow(() -> new AsistenciaNotFoundException(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId()));
+        Asistencia.EstadoAsistencia estadoAnterior = existente.getEstadoAsistencia();
 
-        return convertirADto(asistenciaGuardada);
+        if (!debeReemplazar(existente, asistenciaDto, politicaEfectiva)) {
+            return new ResultadoUpsertAsistenciaDto(ResultadoUpsertAsistenciaDto.Resultado.SIN_CAMBIOS,
+                    obtenerRegistrada(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId()));
+        }
+
+        Asistencia.EstadoAsistencia estadoNuevo = estadoOPorDefecto(asistenciaDto);
+        existente.setEstadoAsistencia(estadoNuevo);
+        existente.setHoraLlegada(horaLlegada(asistenciaDto, estadoNuevo, LocalDateTime.now()));
+        existente.setObservaciones(asistenciaDto.getObservaciones());
+        existente.setRegistradoPor(asistenciaDto.getRegistradoPor());
+        estadisticasAsistenciaService.registrarCambio(asistenciaDto.getReunionId(), estadoAnterior, estadoNuevo);
+
+        // La consulta de proyección vacía antes el UPDATE pendiente de la entidad
+        AsistenciaDto actualizada = obtenerRegistrada(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId());
+        publicar(EventoAsistenciaDto.Tipo.ACTUALIZADA, estadoAnterior, actualizada);
+        log.info("Asistencia {} actualizada por conflicto: {} -> {}", actualizada.getId(), estadoAnterior, estadoNuevo);
+        return new ResultadoUpsertAsistenciaDto(ResultadoUpsertAsistenciaDto.Resultado.ACTUALIZADA, actualizada);
+    }
+
+    /**
+     * Registra un lote de asistencias con un número constante de consultas: una consulta IN para
+     * las reuniones, otra para los usuarios, otra para detectar duplicados y los INSERT agrupados
+     * en lotes JDBC dentro de una única transacción.
+     * Las filas inválidas o duplicadas se informan en el resultado sin abortar el resto del lote.
+     */
+    public List<ResultadoRegistroAsistenciaDto> registrarAsistenciasMultiples(List<AsistenciaDto> asistenciasDto) {
+        log.info("Registrando {} asistencias en lote", asistenciasDto.size());
+
+        Set<Long> reunionIds = asistenciasDto.stream()
+                .map(AsistenciaDto::getReunionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> usuarioIds = asistenciasDto.stream()
+                .map(AsistenciaDto::getUsuarioId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, Reunion> reuniones = reunionIds.isEmpty() ? Map.of() :
+                reunionRepository.findAllById(reunionIds).stream()
+                        .collect(Collectors.toMap(Reunion::getId, Function.identity()));
+
+        Map<Long, String> usernames = new HashMap<>();
+        if (!usuarioIds.isEmpty()) {
+            userRepository.findUsernamesByIdIn(usuarioIds)
+                    .forEach(fila -> usernames.put((Long) fila[0], (String) fila[1]));
+        }
+
+        Set<List<Long>> paresRegistrados = new HashSet<>();
+        if (!reuniones.isEmpty() && !usernames.isEmpty()) {
+            asistenciaRepository.findParesRegistrados(reuniones.keySet(), usernames.keySet())
+                    .forEach(fila -> paresRegistrados.add(List.of((Long) fila[0], (Long) fila[1])));
+        }
+
+        ResultadoRegistroAsistenciaDto[] resultados = new ResultadoRegistroAsistenciaDto[asistenciasDto.size()];
+        List<Asistencia> nuevas = new ArrayList<>();
+        List<Integer> indicesNuevas = new ArrayList<>();
+
+        for (int i = 0; i < asistenciasDto.size(); i++) {
+            AsistenciaDto dto = asistenciasDto.get(i);
+            Long reunionId = dto.getReunionId();
+            Long usuarioId = dto.getUsuarioId();
+
+            Reunion reunion = reunionId != null ? reuniones.get(reunionId) : null;
+            if (reunion == null) {
+                resultados[i] = ResultadoRegistroAsistenciaDto.fallida(i, reunionId, usuarioId,
+                        ResultadoRegistroAsistenciaDto.Resultado.REUNION_NO_ENCONTRADA,
+                        "Reunión no encontrada con ID: " + reunionId);
+                continue;
+            }
+            if (usuarioId == null || !usernames.containsKey(usuarioId)) {
+                resultados[i] = ResultadoRegistroAsistenciaDto.fallida(i, reunionId, usuarioId,
+                        ResultadoRegistroAsistenciaDto.Resultado.USUARIO_NO_ENCONTRADO,
+                        "Usuario no encontrado con ID: " + usuarioId);
+                continue;
+            }
+            // add() devuelve false tanto si ya existía en base como si se repite dentro del mismo lote
+            if (!paresRegistrados.add(List.of(reunionId, usuarioId))) {
+                resultados[i] = ResultadoRegistroAsistenciaDto.fallida(i, reunionId, usuarioId,
+                        ResultadoRegistroAsistenciaDto.Resultado.DUPLICADA,
+                        new AsistenciaDuplicadaException(reunionId, usuarioId).getMessage());
+                continue;
+            }
+
+            // getReferenceById evita un SELECT por usuario: solo se necesita la clave foránea
+            nuevas.add(crearAsistencia(dto, reunion, userRepository.getReferenceById(usuarioId)));
+            indicesNuevas.add(i);
+        }
+
+        asistenciaRepository.saveAll(nuevas);
+
+        Map<Long, EstadisticasAsistenciaDto> deltas = new HashMap<>();
+        nuevas.forEach(a -> deltas.computeIfAbsent(a.getReunion().getId(), id -> new EstadisticasAsistenciaDto())
+                .sumar(a.getEstadoAsistencia(), 1));
+        estadisticasAsistenciaService.registrarCambios(deltas);
+
+        for (int j = 0; j < nuevas.size(); j++) {
+            Asistencia guardada = nuevas.get(j);
+            int indice = indicesNuevas.get(j);
+            AsistenciaDto creada = convertirADto(guardada, usernames.get(guardada.getUsuario().getId()));
+            resultados[indice] = ResultadoRegistroAsistenciaDto.creada(indice, creada);
+            publicar(EventoAsistenciaDto.Tipo.REGISTRADA, null, creada);
+        }
+
+        log.info("Lote de asistencias procesado: {} creadas, {} rechazadas",
+                nuevas.size(), asistenciasDto.size() - nuevas.size());
+        return Arrays.asList(resultados);
     }
 
     public AsistenciaDto actualizarAsistencia(Long id, AsistenciaDto asistenciaDto) {
@@ -69,6 +216,7 @@ public class AsistenciaService {
 
         Asistencia asistencia = asistenciaRepository.findById(id)
                 .orElseThrow(() -> new AsistenciaNotFoundException(id));
+        Asistencia.EstadoAsistencia estadoAnterior = asistencia.getEstadoAsistencia();
 
         asistencia.setEstadoAsistencia(asistenciaDto.getEstadoAsistencia());
         asistencia.setObservaciones(asistenciaDto.getObservaciones());
@@ -76,76 +224,99 @@ public class AsistenciaService {
         asistencia.setHoraSalida(asistenciaDto.getHoraSalida());
 
         Asistencia asistenciaActualizada = asistenciaRepository.save(asistencia);
+        estadisticasAsistenciaService.registrarCambio(asistencia.getReunion().getId(),
+                estadoAnterior, asistenciaActualizada.getEstadoAsistencia());
         log.info("Asistencia actualizada exitosamente");
 
-        return convertirADto(asistenciaActualizada);
+        AsistenciaDto actualizada = convertirADto(asistenciaActualizada);
+        publicar(EventoAsistenciaDto.Tipo.ACTUALIZADA, estadoAnterior, actualizada);
+        return actualizada;
     }
 
     public void eliminarAsistencia(Long id) {
         log.info("Eliminando asistencia con ID: {}", id);
 
-        if (!asistenciaRepository.existsById(id)) {
-            throw new AsistenciaNotFoundException(id);
-        }
+        Asistencia asistencia = asistenciaRepository.findById(id)
+                .orElseThrow(() -> new AsistenciaNotFoundException(id));
 
-        asistenciaRepository.deleteById(id);
+        asistenciaRepository.delete(asistencia);
+        estadisticasAsistenciaService.registrarCambio(asistencia.getReunion().getId(),
+                asistencia.getEstadoAsistencia(), null);
+        // Sin username: para una baja basta con el ID, la reunión y el usuario
+        publicar(EventoAsistenciaDto.Tipo.ELIMINADA, asistencia.getEstadoAsistencia(), convertirADto(asistencia, null));
         log.info("Asistencia eliminada exitosamente");
     }
 
     @Transactional(readOnly = true)
     public List<AsistenciaDto> obtenerAsistenciasPorReunion(Long reunionId) {
-        Reunion reunion = reunionRepository.findById(reunionId)
-                .orElseThrow(() -> new ReunionNotFoundException(reunionId));
-
-        return asistenciaRepository.findByReunion(reunion).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        verificarReunionExiste(reunionId);
+        return asistenciaRepository.findDetalleByReunionId(reunionId);
     }
 
     @Transactional(readOnly = true)
     public List<AsistenciaDto> obtenerAsistenciasPorUsuario(Long usuarioId) {
-        User usuario = userRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+        verificarUsuarioExiste(usuarioId);
+        return asistenciaRepository.findDtoByUsuarioId(usuarioId);
+    }
 
-        return asistenciaRepository.findByUsuario(usuario).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+    /**
+     * Página de asistencias de una reunión ordenadas por ID, a partir del cursor indicado.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AsistenciaDto> obtenerAsistenciasPorReunion(Long reunionId, String after, Integer limit) {
+        verificarReunionExiste(reunionId);
+        int limite = CursorPage.normalizarLimite(limit);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+
+        List<AsistenciaDto> filas = asistenciaRepository.findDetalleByReunionIdDespuesDe(
+                reunionId, cursor != null ? cursor.getId() : 0L, CursorPage.consulta(limite));
+        return CursorPage.of(filas, limite, dto -> KeysetCursor.of(dto.getId()));
     }
 
+    /**
+     * Página del historial de un usuario ordenado por fecha de reunión descendente, a partir del cursor
+     * (fechaReunion, id) indicado. La memoria y la latencia no dependen de la longitud del historial.
+     */
     @Transactional(readOnly = true)
-    public AsistenciaDto obtenerAsistencia(Long reunionId, Long usuarioId) {
-        Reunion reunion = reunionRepository.findById(reunionId)
-                .orElseThrow(() -> new ReunionNotFoundException(reunionId));
+    public CursorPage<AsistenciaDto> obtenerHistorialUsuario(Long usuarioId, String after, Integer limit) {
+        verificarUsuarioExiste(usuarioId);
+        int limite = CursorPage.normalizarLimite(limit);
+        KeysetCursor cursor = KeysetCursor.decodeConFecha(after);
+
+        List<AsistenciaDto> filas = cursor == null
+                ? asistenciaRepository.findHistorialDtoByUsuarioId(usuarioId, CursorPage.consulta(limite))
+                : asistenciaRepository.findHistorialDtoByUsuarioIdDespuesDe(
+                        usuarioId, cursor.getFecha(), cursor.getId(), CursorPage.consulta(limite));
+        return CursorPage.of(filas, limite, dto -> KeysetCursor.of(dto.getFechaReunion(), dto.getId()));
+    }
 
-        User usuario = userRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
+    @Transactional(readOnly = true)
+    public AsistenciaDto obtenerAsistencia(Long reunionId, Long usuarioId) {
+        verificarReunionExiste(reunionId);
+        verificarUsuarioExiste(usuarioId);
 
-        Asistencia asistencia = asistenciaRepository.findByReunionAndUsuario(reunion, usuario)
+        return asistenciaRepository.findDtoByReunionIdAndUsuarioId(reunionId, usuarioId)
                 .orElseThrow(() -> new AsistenciaNotFoundException(reunionId, usuarioId));
-
-        return convertirADto(asistencia);
     }
 
     @Transactional(readOnly = true)
     public ReporteAsistenciaDto generarReporteAsistencia(Long reunionId) {
+        return generarReporteAsistencia(reunionId, true);
+    }
+
+    /**
+     * Genera el reporte de una reunión. Los contadores salen de una única consulta agregada y el
+     * detalle, si se solicita, de una proyección a DTO con JOIN, sin cargar entidades.
+     *
+     * @param reunionId ID de la reunión
+     * @param incluirDetalle si es false solo se devuelve el resumen y no se lee ninguna fila
+     */
+    @Transactional(readOnly = true)
+    public ReporteAsistenciaDto generarReporteAsistencia(Long reunionId, boolean incluirDetalle) {
         Reunion reunion = reunionRepository.findById(reunionId)
                 .orElseThrow(() -> new ReunionNotFoundException(reunionId));
 
-        List<Asistencia> asistencias = asistenciaRepository.findByReunion(reunion);
-        
-        int totalRegistrados = asistencias.size();
-        int presentes = (int) asistencias.stream()
-                .filter(a -> a.getEstadoAsistencia() == Asistencia.EstadoAsistencia.PRESENTE)
-                .count();
-        int ausentes = (int) asistencias.stream()
-                .filter(a -> a.getEstadoAsistencia() == Asistencia.EstadoAsistencia.AUSENTE)
-                .count();
-        int tardanzas = (int) asistencias.stream()
-                .filter(a -> a.getEstadoAsistencia() == Asistencia.EstadoAsistencia.TARDANZA)
-                .count();
-        int justificados = (int) asistencias.stream()
-                .filter(a -> a.getEstadoAsistencia() == Asistencia.EstadoAsistencia.JUSTIFICADO)
-                .count();
+        EstadisticasAsistenciaDto estadisticas = estadisticasAsistenciaService.obtenerEstadisticas(reunionId);
 
         ReporteAsistenciaDto reporte = new ReporteAsistenciaDto();
         reporte.setReunionId(reunion.getId());
@@ -153,29 +324,24 @@ public class AsistenciaService {
         reporte.setFechaReunion(reunion.getFechaReunion());
         reporte.setLugar(reunion.getLugar());
         reporte.setEsObligatoria(reunion.getEsObligatoria());
-        reporte.setTotalRegistrados(totalRegistrados);
-        reporte.setPresentes(presentes);
-        reporte.setAusentes(ausentes);
-        reporte.setTardanzas(tardanzas);
-        reporte.setJustificados(justificados);
+        reporte.setTotalRegistrados((int) estadisticas.getTotal());
+        reporte.setPresentes((int) estadisticas.getPresentes());
+        reporte.setAusentes((int) estadisticas.getAusentes());
+        reporte.setTardanzas((int) estadisticas.getTardanzas());
+        reporte.setJustificados((int) estadisticas.getJustificados());
         reporte.calcularPorcentajeAsistencia();
 
-        List<AsistenciaDto> detalleAsistencias = asistencias.stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
-        reporte.setDetalleAsistencias(detalleAsistencias);
+        if (incluirDetalle) {
+            reporte.setDetalleAsistencias(asistenciaRepository.findDetalleByReunionId(reunionId));
+        }
 
         return reporte;
     }
 
     @Transactional(readOnly = true)
     public List<AsistenciaDto> obtenerHistorialUsuario(Long usuarioId) {
-        User usuario = userRepository.findById(usuarioId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + usuarioId));
-
-        return asistenciaRepository.findHistorialAsistencias(usuario).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        verificarUsuarioExiste(usuarioId);
+        return asistenciaRepository.findHistorialDtoByUsuarioId(usuarioId);
     }
 
     public AsistenciaDto marcarSalida(Long asistenciaId) {
@@ -188,17 +354,92 @@ public class AsistenciaService {
         Asistencia asistenciaActualizada = asistenciaRepository.save(asistencia);
 
         log.info("Salida marcada exitosamente");
-        return convertirADto(asistenciaActualizada);
+        AsistenciaDto actualizada = convertirADto(asistenciaActualizada);
+        publicar(EventoAsistenciaDto.Tipo.SALIDA, asistenciaActualizada.getEstadoAsistencia(), actualizada);
+        return actualizada;
+    }
+
+    private boolean insertarSiNoExiste(AsistenciaDto asistenciaDto) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Asistencia.EstadoAsistencia estado = estadoOPorDefecto(asistenciaDto);
+        return asistenciaRepository.insertarSiNoExiste(asistenciaDto.getReunionId(), asistenciaDto.getUsuarioId(),
+                ahora, estado.name(), horaLlegada(asistenciaDto, estado, ahora),
+                asistenciaDto.getObservaciones(), asistenciaDto.getRegistradoPor()) > 0;
+    }
+
+    private AsistenciaDto obtenerRegistrada(Long reunionId, Long usuarioId) {
+        return asistenciaRepository.findDtoByReunionIdAndUsuarioId(reunionId, usuarioId)
+                .orElseThrow(() -> new AsistenciaNotFoundException(reunionId, usuarioId));
+    }
+
+    private static boolean debeReemplazar(Asistencia existente, AsistenciaDto nueva, PoliticaConflicto politica) {
+        return switch (politica) {
+            case PRIMERO_GANA -> false;
+            case ULTIMO_GANA -> true;
+            case PREFERIR_PRESENTE -> estadoOPorDefecto(nueva) == Asistencia.EstadoAsistencia.PRESENTE
+                    && existente.getEstadoAsistencia() != Asistencia.EstadoAsistencia.PRESENTE;
+        };
+    }
+
+    private static Asistencia.EstadoAsistencia estadoOPorDefecto(AsistenciaDto asistenciaDto) {
+        return asistenciaDto.getEstadoAsistencia() != null
+                ? asistenciaDto.getEstadoAsistencia() : Asistencia.EstadoAsistencia.PRESENTE;
+    }
+
+    // Mismo criterio que Asistencia.onCreate: un PRESENTE sin hora de llegada llega ahora
+    private static LocalDateTime horaLlegada(AsistenciaDto asistenciaDto, Asistencia.EstadoAsistencia estado,
+                                             LocalDateTime ahora) {
+        if (asistenciaDto.getHoraLlegada() != null) {
+            return asistenciaDto.getHoraLlegada();
+        }
+        return estado == Asistencia.EstadoAsistencia.PRESENTE ? ahora : null;
+    }
+
+    // Se transmite a los suscriptores en vivo de la reunión tras el commit (ver AsistenciaStreamService)
+    private void publicar(EventoAsistenciaDto.Tipo tipo, Asistencia.EstadoAsistencia estadoAnterior, AsistenciaDto asistencia) {
+        eventPublisher.publishEvent(new EventoAsistenciaDto(tipo, asistencia.getReunionId(), estadoAnterior, asistencia));
+    }
+
+    // Comprobaciones de existencia sin cargar la entidad (User tiene los roles EAGER)
+    private void verificarReunionExiste(Long reunionId) {
+        if (!reunionRepository.existsById(reunionId)) {
+            throw new ReunionNotFoundException(reunionId);
+        }
+    }
+
+    private void verificarUsuarioExiste(Long usuarioId) {
+        if (!userRepository.existsById(usuarioId)) {
+            throw new RuntimeException("Usuario no encontrado con ID: " + usuarioId);
+        }
+    }
+
+    private Asistencia crearAsistencia(AsistenciaDto asistenciaDto, Reunion reunion, User usuario) {
+        Asistencia asistencia = new Asistencia();
+        asistencia.setReunion(reunion);
+        asistencia.setUsuario(usuario);
+        asistencia.setEstadoAsistencia(asistenciaDto.getEstadoAsistencia());
+        asistencia.setObservaciones(asistenciaDto.getObservaciones());
+        asistencia.setRegistradoPor(asistenciaDto.getRegistradoPor());
+
+        if (asistenciaDto.getHoraLlegada() != null) {
+            asistencia.setHoraLlegada(asistenciaDto.getHoraLlegada());
+        }
+        return asistencia;
     }
 
     private AsistenciaDto convertirADto(Asistencia asistencia) {
+        return convertirADto(asistencia, asistencia.getUsuario().getUsername());
+    }
+
+    // Variante que recibe el username ya conocido para no inicializar el proxy del usuario
+    private AsistenciaDto convertirADto(Asistencia asistencia, String usernameUsuario) {
         AsistenciaDto dto = new AsistenciaDto();
         dto.setId(asistencia.getId());
         dto.setReunionId(asistencia.getReunion().getId());
         dto.setNombreReunion(asistencia.getReunion().getNombre());
         dto.setFechaReunion(asistencia.getReunion().getFechaReunion());
         dto.setUsuarioId(asistencia.getUsuario().getId());
-        dto.setUsernameUsuario(asistencia.getUsuario().getUsername());
+        dto.setUsernameUsuario(usernameUsuario);
         dto.setFechaRegistro(asistencia.getFechaRegistro());
         dto.setEstadoAsistencia(asistencia.getEstadoAsistencia());
         dto.setHoraLlegada(asistencia.getHoraLlegada());
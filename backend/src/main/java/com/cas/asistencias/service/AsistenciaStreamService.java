@@ -0,0 +1,298 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.EventoAsistenciaDto;
+import com.cas.asistencias.dto.ReporteAsistenciaDto;
+import com.cas.asistencias.exception.ReunionNotFoundException;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Stream en vivo (Server-Sent Events) de las asistencias de una reunión EN_CURSO.
+ * Al suscribirse se envía un evento "snapshot" con el reporte completo y después un evento "asistencia"
+ * por cada alta, cambio, salida o baja confirmada. La difusión no bloquea a quien escribe: cada evento
+ * se serializa una vez y se deja en el buffer acotado de cada suscriptor, que vacía un pool de envío.
+ * Un suscriptor cuyo buffer se llena (cliente lento) se desconecta; EventSource reconecta y recibe un
+ * snapshot nuevo. Un envío que supera el plazo de envío (socket atascado) también desconecta a su
+ * suscriptor, y el pool suma un hilo mientras ese envío siga bloqueado, de modo que un cliente atascado
+ * no retiene los hilos compartidos ni deja sin eventos a los demás.
+ */
+@Service
+@Slf4j
+public class AsistenciaStreamService {
+
+    private final AsistenciaService asistenciaService;
+    private final ReunionRepository reunionRepository;
+    private final ObjectMapper objectMapper;
+    private final int capacidadBuffer;
+    private final long timeoutMs;
+    private final long envioTimeoutMs;
+    private final int hilosEnvio;
+
+    private final Map<Long, Set<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor envios;
+    // Hilos añadidos al pool para cubrir envíos atascados; se devuelven cuando el envío termina
+    private int hilosCompensados;
+    private Function<Long, SseEmitter> fabricaEmitters = SseEmitter::new;
+
+    public AsistenciaStreamService(AsistenciaService asistenciaService,
+                                   ReunionRepository reunionRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${asistencias.stream.buffer:256}") int capacidadBuffer,
+                                   @Value("${asistencias.stream.timeout-ms:1800000}") long timeoutMs,
+                                   @Value("${asistencias.stream.hilos-envio:4}") int hilosEnvio,
+                                   @Value("${asistencias.stream.envio-timeout-ms:5000}") long envioTimeoutMs) {
+        this.asistenciaService = asistenciaService;
+        this.reunionRepository = reunionRepository;
+        this.objectMapper = objectMapper;
+        this.capacidadBuffer = capacidadBuffer;
+        this.timeoutMs = timeoutMs;
+        this.envioTimeoutMs = envioTimeoutMs;
+        this.hilosEnvio = hilosEnvio;
+        AtomicInteger contador = new AtomicInteger();
+        this.envios = new ThreadPoolExecutor(hilosEnvio, hilosEnvio, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), tarea -> {
+            Thread hilo = new Thread(tarea, "asistencias-sse-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Suscribe al stream de una reunión EN_CURSO. El snapshot se envía antes de cualquier delta; los
+     * cambios ocurridos mientras se arma pueden llegar también como delta, lo que es inocuo porque cada
+     * evento trae la asistencia completa.
+     */
+    public SseEmitter suscribir(Long reunionId) {
+        Reunion.EstadoReunion estado = reunionRepository.findEstadoById(reunionId)
+                .orElseThrow(() -> new ReunionNotFoundException(reunionId));
+        if (estado != Reunion.EstadoReunion.EN_CURSO) {
+            throw new IllegalArgumentException("La reunión " + reunionId + " no está EN_CURSO (estado: " + estado + ")");
+        }
+
+        SseEmitter emitter = fabricaEmitters.apply(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(reunionId, emitter, new ArrayBlockingQueue<>(capacidadBuffer));
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(error -> quitar(suscriptor));
+        suscriptores.computeIfAbsent(reunionId, id -> ConcurrentHashMap.newKeySet()).add(suscriptor);
+
+        try {
+            ReporteAsistenciaDto snapshot = asistenciaService.generarReporteAsistencia(reunionId, true);
+            emitter.send(SseEmitter.event().name("snapshot").data(objectMapper.writeValueAsString(snapshot)));
+        } catch (IOException | RuntimeException e) {
+            quitar(suscriptor);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        suscriptor.listo = true;
+        programarEnvio(suscriptor);
+        log.info("Nuevo suscriptor al stream de la reunión {} ({} activos)", reunionId, contarSuscriptores(reunionId));
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alConfirmarCambio(EventoAsistenciaDto evento) {
+        Set<Suscriptor> destinatarios = suscriptores.get(evento.getReunionId());
+        if (destinatarios == null || destinatarios.isEmpty()) {
+            return;
+        }
+
+        Set<ResponseBodyEmitter.DataWithMediaType> datos;
+        try {
+            datos = SseEmitter.event().name("asistencia").data(objectMapper.writeValueAsString(evento)).build();
+        } catch (JsonProcessingException e) {
+            log.error("No se pudo serializar el evento de asistencia {}", evento, e);
+            return;
+        }
+        boolean cerrar = evento.getTipo() == EventoAsistenciaDto.Tipo.REUNION_CERRADA;
+        destinatarios.forEach(suscriptor -> encolar(suscriptor, new Envio(datos, cerrar)));
+    }
+
+    // Comentario SSE periódico para detectar conexiones muertas y mantener abiertos los proxies
+    @Scheduled(fixedRateString = "${asistencias.stream.heartbeat-ms:15000}")
+    public void enviarHeartbeat() {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> latido = SseEmitter.event().comment("heartbeat").build();
+        suscriptores.values().forEach(conjunto -> conjunto.forEach(s -> encolar(s, new Envio(latido, false))));
+    }
+
+    /**
+     * Desconecta a los suscriptores cuyo envío en curso supera el plazo. El envío bloqueado no se puede
+     * cancelar desde aquí (el emitter lo protege con su propio cerrojo); termina cuando el contenedor
+     * agota el timeout de escritura del socket, y mientras tanto un hilo adicional atiende a los demás.
+     */
+    @Scheduled(fixedRateString = "${asistencias.stream.vigilancia-ms:1000}")
+    public void vigilarEnvios() {
+        long limite = System.currentTimeMillis() - envioTimeoutMs;
+        suscriptores.values().forEach(conjunto -> conjunto.forEach(suscriptor -> {
+            long desde = suscriptor.envioDesde;
+            if (desde != 0 && desde < limite) {
+                log.warn("Envío atascado más de {} ms: suscriptor desconectado del stream de la reunión {}",
+                        envioTimeoutMs, suscriptor.reunionId);
+                descartar(suscriptor);
+                if (suscriptor.estado.compareAndSet(ACTIVO, COMPENSADO)) {
+                    ajustarHilos(1);
+                }
+            }
+        }));
+    }
+
+    public int contarSuscriptores(Long reunionId) {
+        Set<Suscriptor> conjunto = suscriptores.get(reunionId);
+        return conjunto != null ? conjunto.size() : 0;
+    }
+
+    @PreDestroy
+    void detener() {
+        suscriptores.values().forEach(conjunto -> conjunto.forEach(s -> s.emitter.complete()));
+        envios.shutdownNow();
+    }
+
+    // Completar el emitter aquí podría bloquear a quien difunde (espera al envío en curso): lo hace vaciar
+    private void encolar(Suscriptor suscriptor, Envio envio) {
+        if (!suscriptor.buffer.offer(envio)) {
+            log.warn("Suscriptor lento desconectado del stream de la reunión {}", suscriptor.reunionId);
+            descartar(suscriptor);
+            return;
+        }
+        programarEnvio(suscriptor);
+    }
+
+    private void descartar(Suscriptor suscriptor) {
+        suscriptor.descartado = true;
+        quitar(suscriptor);
+        programarEnvio(suscriptor);
+    }
+
+    // Como mucho una tarea de envío por suscriptor a la vez, para conservar el orden de los eventos
+    private void programarEnvio(Suscriptor suscriptor) {
+        if (suscriptor.listo && suscriptor.enviando.compareAndSet(false, true)) {
+            envios.execute(() -> vaciar(suscriptor));
+        }
+    }
+
+    private void vaciar(Suscriptor suscriptor) {
+        do {
+            Envio envio;
+            while (!suscriptor.descartado && (envio = suscriptor.buffer.poll()) != null) {
+                suscriptor.envioDesde = System.currentTimeMillis();
+                try {
+                    suscriptor.emitter.send(envio.datos());
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado o emitter ya completado
+                    quitar(suscriptor);
+                    terminar(suscriptor, false);
+                    return;
+                } finally {
+                    suscriptor.envioDesde = 0;
+                }
+                if (envio.cerrar()) {
+                    quitar(suscriptor);
+                    terminar(suscriptor, true);
+                    return;
+                }
+            }
+            if (suscriptor.descartado) {
+                terminar(suscriptor, true);
+                return;
+            }
+            suscriptor.enviando.set(false);
+            // Un evento encolado justo después de vaciar el buffer no debe quedar sin enviar
+        } while (!suscriptor.buffer.isEmpty() && suscriptor.enviando.compareAndSet(false, true));
+    }
+
+    // Deja la tarea de envío tomada (enviando sigue en true) para que el suscriptor no vuelva a programarse
+    private void terminar(Suscriptor suscriptor, boolean completar) {
+        if (suscriptor.estado.getAndSet(TERMINADO) == COMPENSADO) {
+            ajustarHilos(-1);
+        }
+        suscriptor.buffer.clear();
+        if (completar) {
+            try {
+                suscriptor.emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("No se pudo completar el stream de la reunión {}", suscriptor.reunionId, e);
+            }
+        }
+    }
+
+    // El máximo crece antes que el núcleo y el núcleo se reduce antes que el máximo (núcleo <= máximo)
+    private synchronized void ajustarHilos(int delta) {
+        hilosCompensados += delta;
+        int hilos = hilosEnvio + Math.max(0, hilosCompensados);
+        if (hilos >= envios.getMaximumPoolSize()) {
+            envios.setMaximumPoolSize(hilos);
+            envios.setCorePoolSize(hilos);
+        } else {
+            envios.setCorePoolSize(hilos);
+            envios.setMaximumPoolSize(hilos);
+        }
+    }
+
+    int contarHilosEnvio() {
+        return envios.getCorePoolSize();
+    }
+
+    // Permite a los tests sustituir el emitter por uno que registra o retiene los envíos
+    void usarFabricaEmitters(Function<Long, SseEmitter> fabrica) {
+        this.fabricaEmitters = fabrica;
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        suscriptores.computeIfPresent(suscriptor.reunionId, (id, conjunto) -> {
+            conjunto.remove(suscriptor);
+            return conjunto.isEmpty() ? null : conjunto;
+        });
+    }
+
+    private static final int ACTIVO = 0;
+    private static final int COMPENSADO = 1;
+    private static final int TERMINADO = 2;
+
+    private static final class Suscriptor {
+        private final Long reunionId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Envio> buffer;
+        private final AtomicBoolean enviando = new AtomicBoolean();
+        // ACTIVO, COMPENSADO (vigilarEnvios sumó un hilo por su envío atascado) o TERMINADO
+        private final AtomicInteger estado = new AtomicInteger(ACTIVO);
+        private volatile boolean listo;
+        private volatile boolean descartado;
+        // Inicio del envío en curso (epoch ms), 0 si no hay ninguno
+        private volatile long envioDesde;
+
+        private Suscriptor(Long reunionId, SseEmitter emitter, BlockingQueue<Envio> buffer) {
+            this.reunionId = reunionId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+
+    private record Envio(Set<ResponseBodyEmitter.DataWithMediaType> datos, boolean cerrar) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.MetricasCheckInDto;
+import com.cas.asistencias.dto.ResultadoRegistroAsistenciaDto;
+import com.cas.asistencias.exception.ColaCheckInLlenaException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingesta de check-ins con confirmación agrupada (group commit). Cada check-in se encola en una cola
+ * acotada y un único hilo escritor los registra en micro-lotes de hasta asistencias.checkin.tamano-lote
+ * filas o asistencias.checkin.espera-ms milisegundos, lo que ocurra primero, con un INSERT por lotes
+ * JDBC y un solo commit por lote (AsistenciaService.registrarAsistenciasMultiples).
+ * El futuro de cada check-in se completa cuando su lote está confirmado en la base de datos.
+ */
+@Service
+@Slf4j
+public class CheckInService {
+
+    private final AsistenciaService asistenciaService;
+    private final BlockingQueue<CheckInPendiente> cola;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long esperaMs;
+
+    private final AtomicLong encolados = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final AtomicLong lotesConfirmados = new AtomicLong();
+    private final AtomicLong filasProcesadas = new AtomicLong();
+    private final AtomicLong filasConfirmadas = new AtomicLong();
+    private final AtomicLong lotesFallidos = new AtomicLong();
+    private final AtomicLong ultimoTamanoLote = new AtomicLong();
+    private final AtomicLong latenciaTotalNanos = new AtomicLong();
+    private final AtomicLong latenciaMaximaNanos = new AtomicLong();
+
+    private volatile boolean activo;
+    private Thread escritor;
+
+    public CheckInService(AsistenciaService asistenciaService,
+                          @Value("${asistencias.checkin.capacidad:10000}") int capacidad,
+                          @Value("${asistencias.checkin.tamano-lote:200}") int tamanoLote,
+                          @Value("${asistencias.checkin.espera-ms:50}") long esperaMs) {
+        this.asistenciaService = asistenciaService;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.esperaMs = esperaMs;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        activo = true;
+        escritor = new Thread(this::escribir, "checkin-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+        log.info("Cola de check-in iniciada: capacidad {}, lotes de {} filas o {} ms", capacidad, tamanoLote, esperaMs);
+    }
+
+    /**
+     * Vacía la cola antes de detener la aplicación para no perder check-ins ya aceptados.
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+        if (!cola.isEmpty()) {
+            log.warn("La cola de check-in se detuvo con {} check-ins pendientes", cola.size());
+        }
+    }
+
+    /**
+     * Encola un check-in sin bloquear.
+     *
+     * @return futuro que se completa con el resultado del registro una vez confirmado su lote
+     * @throws ColaCheckInLlenaException si la cola está llena
+     */
+    public CompletableFuture<ResultadoRegistroAsistenciaDto> encolar(AsistenciaDto asistenciaDto) {
+        CheckInPendiente pendiente = new CheckInPendiente(asistenciaDto, new CompletableFuture<>());
+        if (!activo || !cola.offer(pendiente)) {
+            rechazados.incrementAndGet();
+            throw new ColaCheckInLlenaException(capacidad);
+        }
+        encolados.incrementAndGet();
+        return pendiente.resultado();
+    }
+
+    public MetricasCheckInDto obtenerMetricas() {
+        long lotes = lotesConfirmados.get();
+        return new MetricasCheckInDto(
+                cola.size(),
+                capacidad,
+                encolados.get(),
+                rechazados.get(),
+                lotes,
+                filasProcesadas.get(),
+                filasConfirmadas.get(),
+                lotesFallidos.get(),
+                (int) ultimoTamanoLote.get(),
+                lotes > 0 ? (double) filasProcesadas.get() / lotes : 0,
+                lotes > 0 ? latenciaTotalNanos.get() / 1e6 / lotes : 0,
+                latenciaMaximaNanos.get() / 1e6);
+    }
+
+    private void escribir() {
+        List<CheckInPendiente> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                CheckInPendiente primero = cola.poll(1, TimeUnit.SECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+
+                // Completar el lote hasta tamanoLote filas o hasta que venza la espera desde el primer check-in
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs);
+                while (lote.size() < tamanoLote) {
+                    cola.drainTo(lote, tamanoLote - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= tamanoLote || restante <= 0) {
+                        break;
+                    }
+                    CheckInPendiente siguiente = cola.poll(restante, TimeUnit.NANOSECONDS);
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+
+                confirmar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lote.forEach(p -> p.resultado().completeExceptionally(e));
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void confirmar(List<CheckInPendiente> lote) {
+        List<AsistenciaDto> asistencias = lote.stream().map(CheckInPendiente::asistencia).toList();
+        long inicio = System.nanoTime();
+        try {
+            List<ResultadoRegistroAsistenciaDto> resultados = registrar(asistencias);
+            long latencia = System.nanoTime() - inicio;
+
+            lotesConfirmados.incrementAndGet();
+            filasProcesadas.addAndGet(lote.size());
+            // Las filas DUPLICADA o con reunión/usuario inexistente se procesan pero no se insertan
+            filasConfirmadas.addAndGet(resultados.stream()
+                    .filter(r -> r.getResultado() == ResultadoRegistroAsistenciaDto.Resultado.CREADA)
+                    .count());
+            ultimoTamanoLote.set(lote.size());
+            latenciaTotalNanos.addAndGet(latencia);
+            latenciaMaximaNanos.accumulateAndGet(latencia, Math::max);
+
+            for (int i = 0; i < lote.size(); i++) {
+                ResultadoRegistroAsistenciaDto resultado = resultados.get(i);
+                resultado.setIndice(0);
+                lote.get(i).resultado().complete(resultado);
+            }
+        } catch (RuntimeException e) {
+            lotesFallidos.incrementAndGet();
+            log.error("Error al confirmar un lote de {} check-ins", lote.size(), e);
+            lote.forEach(p -> p.resultado().completeExceptionally(e));
+        }
+    }
+
+    // Un registro individual concurrente puede insertar un par del lote entre la detección de duplicados
+    // y el commit; al reintentar, ese par se informa como DUPLICADA y el resto del lote se confirma
+    private List<ResultadoRegistroAsistenciaDto> registrar(List<AsistenciaDto> asistencias) {
+        try {
+            return asistenciaService.registrarAsistenciasMultiples(asistencias);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Conflicto de unicidad al confirmar un lote de check-ins, reintentando: {}", e.getMessage());
+            return asistenciaService.registrarAsistenciasMultiples(asistencias);
+        }
+    }
+
+    private record CheckInPendiente(AsistenciaDto asistencia, CompletableFuture<ResultadoRegistroAsistenciaDto> resultado) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.EstadisticasAsistenciaDto;
+import com.cas.asistencias.dto.ReconciliacionEstadisticasDto;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.EstadisticasReunion;
+import com.cas.asistencias.repository.AsistenciaRepository;
+import com.cas.asistencias.repository.EstadisticasReunionRepository;
+import com.cas.asistencias.repository.ReunionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Estadísticas de asistencia por reunión.
+ * Los contadores se guardan en reunion_attendance_stats y AsistenciaService los actualiza dentro de
+ * la misma transacción en cada alta, cambio de estado o baja, por lo que leerlos cuesta una búsqueda
+ * por clave primaria. La reconciliación los reconstruye desde la tabla de asistencias.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class EstadisticasAsistenciaService {
+
+    private final AsistenciaRepository asistenciaRepository;
+    private final ReunionRepository reunionRepository;
+    private final EstadisticasReunionRepository estadisticasReunionRepository;
+
+    /**
+     * Obtiene las estadísticas de cada reunión indicada. Las reuniones sin asistencias
+     * registradas aparecen con todos los contadores en cero.
+     *
+     * @param reunionIds IDs de las reuniones
+     * @return mapa reunionId → estadísticas
+     */
+    public Map<Long, EstadisticasAsistenciaDto> obtenerEstadisticas(Collection<Long> reunionIds) {
+        Map<Long, EstadisticasAsistenciaDto> estadisticas = new HashMap<>();
+        if (reunionIds == null || reunionIds.isEmpty()) {
+            return estadisticas;
+        }
+        reunionIds.forEach(id -> estadisticas.put(id, new EstadisticasAsistenciaDto()));
+
+        estadisticasReunionRepository.findAllById(reunionIds)
+                .forEach(contadores -> estadisticas.put(contadores.getReunionId(), convertirADto(contadores)));
+        return estadisticas;
+    }
+
+    public EstadisticasAsistenciaDto obtenerEstadisticas(Long reunionId) {
+        return estadisticasReunionRepository.findById(reunionId)
+                .map(this::convertirADto)
+                .orElseGet(EstadisticasAsistenciaDto::new);
+    }
+
+    /**
+     * Ajusta los contadores de una reunión cuando una asistencia cambia de estado.
+     * Un estado anterior null representa un alta y un estado nuevo null una baja.
+     */
+    @Transactional
+    public void registrarCambio(Long reunionId, Asistencia.EstadoAsistencia estadoAnterior,
+                                Asistencia.EstadoAsistencia estadoNuevo) {
+        if (estadoAnterior == estadoNuevo) {
+            return;
+        }
+        EstadisticasAsistenciaDto delta = new EstadisticasAsistenciaDto();
+        delta.sumar(estadoAnterior, -1);
+        delta.sumar(estadoNuevo, 1);
+        aplicar(reunionId, delta);
+    }
+
+    /**
+     * Ajusta los contadores de varias reuniones con una sentencia por reunión (usado en operaciones masivas).
+     *
+     * @param deltas mapa reunionId → variación de cada contador
+     */
+    @Transactional
+    public void registrarCambios(Map<Long, EstadisticasAsistenciaDto> deltas) {
+        deltas.forEach(this::aplicar);
+    }
+
+    /**
+     * Reconstruye los contadores desde la tabla de asistencias y corrige las reuniones cuyo valor
+     * guardado difiera del real. Cada desviación encontrada se registra en el log y en el resultado.
+     * El recorrido global solo elige candidatas: cada una se vuelve a contar con su fila de contadores
+     * bloqueada, así que un registro en curso termina antes del recuento y uno posterior espera a que
+     * la corrección se confirme, y ninguno de sus deltas queda pisado por el valor absoluto.
+     */
+    @Transactional
+    public ReconciliacionEstadisticasDto reconciliar() {
+        Map<Long, EstadisticasAsistenciaDto> reales = new HashMap<>();
+        reunionRepository.findAllIds().forEach(id -> reales.put(id, new EstadisticasAsistenciaDto()));
+        for (Object[] fila : asistenciaRepository.contarTodasPorReunionYEstado()) {
+            reales.computeIfAbsent((Long) fila[0], id -> new EstadisticasAsistenciaDto())
+                    .sumar((Asistencia.EstadoAsistencia) fila[1], ((Number) fila[2]).longValue());
+        }
+
+        Map<Long, EstadisticasReunion> guardadas = estadisticasReunionRepository.findAll().stream()
+                .collect(Collectors.toMap(EstadisticasReunion::getReunionId, Function.identity()));
+
+        ReconciliacionEstadisticasDto resultado = new ReconciliacionEstadisticasDto();
+        resultado.setFechaEjecucion(LocalDateTime.now());
+        resultado.setReunionesRevisadas(reales.size());
+
+        reales.forEach((reunionId, real) -> {
+            EstadisticasReunion contadores = guardadas.get(reunionId);
+            EstadisticasAsistenciaDto registradas = contadores != null ? convertirADto(contadores) : new EstadisticasAsistenciaDto();
+            if (!registradas.equals(real)) {
+                corregir(reunionId, resultado);
+            }
+        });
+
+        log.info("Reconciliación de estadísticas completada: {} reuniones revisadas, {} corregidas",
+                resultado.getReunionesRevisadas(), resultado.getDesviaciones().size());
+        return resultado;
+    }
+
+    /**
+     * Bloquea la fila de contadores de la reunión, vuelve a contar sus asistencias y solo entonces
+     * sobrescribe los contadores si siguen difiriendo (la diferencia vista sin bloqueo puede ser un
+     * registro que ya se confirmó).
+     */
+    private void corregir(Long reunionId, ReconciliacionEstadisticasDto resultado) {
+        estadisticasReunionRepository.crearSiNoExiste(reunionId);
+        Optional<EstadisticasReunionRepository.Contadores> bloqueadas = estadisticasReunionRepository.bloquear(reunionId);
+        if (bloqueadas.isEmpty()) {
+            return; // La reunión se eliminó después del recorrido
+        }
+        EstadisticasReunionRepository.Contadores contadores = bloqueadas.get();
+        EstadisticasAsistenciaDto registradas = new EstadisticasAsistenciaDto(contadores.getPresentes(),
+                contadores.getAusentes(), contadores.getTardanzas(), contadores.getJustificados());
+
+        EstadisticasAsistenciaDto real = new EstadisticasAsistenciaDto();
+        for (Object[] fila : asistenciaRepository.contarPorEstado(reunionId)) {
+            real.sumar((Asistencia.EstadoAsistencia) fila[0], ((Number) fila[1]).longValue());
+        }
+        if (registradas.equals(real)) {
+            return;
+        }
+
+        log.warn("Desviación en estadísticas de la reunión {}: registradas={}, reales={}", reunionId, registradas, real);
+        resultado.getDesviaciones().add(new ReconciliacionEstadisticasDto.Desviacion(reunionId, registradas, real));
+        estadisticasReunionRepository.establecer(reunionId, real.getPresentes(), real.getAusentes(),
+                real.getTardanzas(), real.getJustificados());
+    }
+
+    private void aplicar(Long reunionId, EstadisticasAsistenciaDto delta) {
+        estadisticasReunionRepository.sumar(reunionId, delta.getPresentes(), delta.getAusentes(),
+                delta.getTardanzas(), delta.getJustificados());
+    }
+
+    private EstadisticasAsistenciaDto convertirADto(EstadisticasReunion contadores) {
+        return new EstadisticasAsistenciaDto(contadores.getPresentes(), contadores.getAusentes(),
+                contadores.getTardanzas(), contadores.getJustificados());
+    }
+}
@@ -0,0 +1,124 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.exception.ClaveIdempotenciaReutilizadaException;
+import com.cas.asistencias.model.ClaveIdempotencia;
+import com.cas.asistencias.repository.ClaveIdempotenciaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Soporte de la cabecera Idempotency-Key: la primera petición con una clave se ejecuta y su respuesta
+ * queda registrada en la misma transacción; los reintentos con la misma clave reciben esa respuesta
+ * sin repetir la operación. Las claves se asocian al usuario autenticado y caducan tras un TTL.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotenciaService {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${asistencias.idempotencia.ttl-horas:24}")
+    private long ttlHoras;
+
+    /**
+     * Ejecuta la operación una sola vez por (usuario, clave).
+     *
+     * @param usuario   usuario autenticado que envía la petición
+     * @param clave     valor de la cabecera Idempotency-Key; si es null la operación se ejecuta sin más
+     * @param operacion nombre de la operación, para que la misma clave no sirva en dos endpoints distintos
+     * @param peticion  cuerpo y parámetros de la petición, para detectar una clave reutilizada con otros datos
+     * @param tipo      tipo del cuerpo de la respuesta, para reconstruirla en los reintentos
+     * @param accion    operación a ejecutar; se une a esta transacción
+     */
+    @Transactional
+    public <T> ResponseEntity<T> ejecutar(String usuario, String clave, String operacion, Object peticion,
+                                          Class<T> tipo, Supplier<ResponseEntity<T>> accion) {
+        if (clave == null) {
+            return accion.get();
+        }
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La cabecera " + CABECERA + " debe tener entre 1 y "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres");
+        }
+
+        String huella = huella(operacion, peticion);
+        // Una clave más antigua que el TTL no se repite aunque la limpieza periódica aún no la haya borrado
+        LocalDateTime ahora = LocalDateTime.now();
+        if (claveIdempotenciaRepository.reservar(usuario, clave, huella, ahora, ahora.minusHours(ttlHoras)) == 0) {
+            return repetir(usuario, clave, huella, tipo);
+        }
+
+        ResponseEntity<T> respuesta = accion.get();
+        ClaveIdempotencia registro = claveIdempotenciaRepository.findByUsuarioAndClave(usuario, clave)
+                .orElseThrow(() -> new IllegalStateException("Clave de idempotencia no encontrada tras reservarla"));
+        registro.setEstadoHttp(respuesta.getStatusCode().value());
+        registro.setRespuesta(serializar(respuesta.getBody()));
+        return respuesta;
+    }
+
+    @Scheduled(cron = "${asistencias.idempotencia.limpieza.cron:0 15 * * * *}")
+    @Transactional
+    public void eliminarClavesCaducadas() {
+        int eliminadas = claveIdempotenciaRepository.deleteByFechaCreacionBefore(LocalDateTime.now().minusHours(ttlHoras));
+        if (eliminadas > 0) {
+            log.info("Eliminadas {} claves de idempotencia caducadas", eliminadas);
+        }
+    }
+
+    private <T> ResponseEntity<T> repetir(String usuario, String clave, String huella, Class<T> tipo) {
+        ClaveIdempotencia registro = claveIdempotenciaRepository.findByUsuarioAndClave(usuario, clave)
+                .orElseThrow(() -> new IllegalStateException("Clave de idempotencia no encontrada: " + clave));
+        if (!registro.getHuella().equals(huella)) {
+            throw new ClaveIdempotenciaReutilizadaException(clave);
+        }
+        log.info("Repitiendo respuesta registrada para la clave de idempotencia {} del usuario {}", clave, usuario);
+        try {
+            T cuerpo = registro.getRespuesta() != null ? objectMapper.readValue(registro.getRespuesta(), tipo) : null;
+            return ResponseEntity.status(registro.getEstadoHttp())
+                    .header(CABECERA_REPETIDA, "true")
+                    .body(cuerpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo leer la respuesta registrada para la clave " + clave, e);
+        }
+    }
+
+    private String huella(String operacion, Object peticion) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(operacion.getBytes(StandardCharsets.UTF_8));
+            sha256.update(objectMapper.writeValueAsBytes(peticion));
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la petición", e);
+        }
+    }
+
+    private String serializar(Object cuerpo) {
+        try {
+            return cuerpo != null ? objectMapper.writeValueAsString(cuerpo) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo registrar la respuesta de la petición", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cas.asistencias.service;
+
+/**
+ * Qué hacer cuando se registra una asistencia para un (reunión, usuario) que ya tiene una.
+ */
+public enum PoliticaConflicto {
+    // Se conserva el primer registro y se ignora el nuevo
+    PRIMERO_GANA,
+    // El nuevo registro reemplaza estado, horario y observaciones del existente
+    ULTIMO_GANA,
+    // El nuevo registro solo reemplaza al existente si lo marca como PRESENTE
+    PREFERIR_PRESENTE
+}
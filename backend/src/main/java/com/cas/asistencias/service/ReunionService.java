@@ -1,19 +1,26 @@
 package com.cas.asistencias.service;
 
+import com.cas.asistencias.dto.EstadisticasAsistenciaDto;
+import com.cas.asistencias.dto.EventoAsistenciaDto;
 import com.cas.asistencias.dto.ReunionDto;
 import com.cas.asistencias.exception.ReunionNotFoundException;
 import com.cas.asistencias.model.Reunion;
-import com.cas.asistencias.repository.AsistenciaRepository;
 import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.common.pagination.CursorPage;
+import com.cas.common.pagination.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,17 +30,33 @@ import java.util.stream.Collectors;
 public class ReunionService {
 
     private final ReunionRepository reunionRepository;
-    private final AsistenciaRepository asistenciaRepository;
+    private final EstadisticasAsistenciaService estadisticasAsistenciaService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Transactional(readOnly = true)
     public List<ReunionDto> obtenerTodasLasReuniones() {
-        return reunionRepository.findAll().stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return convertirADtos(reunionRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public Page<ReunionDto> obtenerReuniones(Pageable pageable) {
-        return reunionRepository.findAll(pageable)
-                .map(this::convertirADto);
+        return convertirADtos(reunionRepository.findAll(pageable));
+    }
+
+    /**
+     * Página de reuniones ordenadas por fecha descendente a partir del cursor (fechaReunion, id).
+     * A diferencia de la paginación por OFFSET, el coste no crece con la profundidad de la página.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReunionDto> obtenerReuniones(String after, Integer limit) {
+        int limite = CursorPage.normalizarLimite(limit);
+        KeysetCursor cursor = KeysetCursor.decodeConFecha(after);
+
+        List<Reunion> filas = cursor == null
+                ? reunionRepository.findPrimeraPagina(CursorPage.consulta(limite))
+                : reunionRepository.findPaginaDespuesDe(cursor.getFecha(), cursor.getId(), CursorPage.consulta(limite));
+        CursorPage<Reunion> pagina = CursorPage.of(filas, limite, r -> KeysetCursor.of(r.getFechaReunion(), r.getId()));
+        return new CursorPage<>(convertirADtos(pagina.getItems()), pagina.getNextCursor());
     }
 
     public ReunionDto obtenerReunionPorId(Long id) {
@@ -71,9 +94,11 @@ public class ReunionService {
         reunion.setLugar(reunionDto.getLugar());
         reunion.setEsObligatoria(reunionDto.getEsObligatoria());
         
+        Reunion.EstadoReunion estadoAnterior = reunion.getEstado();
         if (reunionDto.getEstado() != null) {
             reunion.setEstado(reunionDto.getEstado());
         }
+        publicarSiDejaDeEstarEnCurso(id, estadoAnterior, reunion.getEstado());
 
         Reunion reunionActualizada = reunionRepository.save(reunion);
         log.info("Reunión actualizada exitosamente");
@@ -89,35 +114,39 @@ public class ReunionService {
         }
         
         reunionRepository.deleteById(id);
+        eventPublisher.publishEvent(EventoAsistenciaDto.reunionCerrada(id));
         log.info("Reunión eliminada exitosamente");
     }
 
     @Transactional(readOnly = true)
     public List<ReunionDto> obtenerReunionePorEstado(Reunion.EstadoReunion estado) {
-        return reunionRepository.findByEstado(estado).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return convertirADtos(reunionRepository.findByEstado(estado));
     }
 
     @Transactional(readOnly = true)
     public List<ReunionDto> obtenerProximasReuniones() {
-        return reunionRepository.findProximasReuniones(LocalDateTime.now(), Reunion.EstadoReunion.PROGRAMADA)
-                .stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return convertirADtos(
+                reunionRepository.findProximasReuniones(LocalDateTime.now(), Reunion.EstadoReunion.PROGRAMADA));
     }
 
     @Transactional(readOnly = true)
     public List<ReunionDto> obtenerReunionesDelMes(int year, int month) {
-        return reunionRepository.findByMes(year, month).stream()
-                .map(this::convertirADto)
-                .collect(Collectors.toList());
+        return convertirADtos(reunionRepository.findByMes(year, month));
     }
 
+    /**
+     * Busca reuniones cuyo nombre, lugar o descripción contengan el texto o se le parezcan
+     * (tolerando errores de tipeo), ordenadas por relevancia. El orden del Pageable se ignora.
+     */
     @Transactional(readOnly = true)
-    public Page<ReunionDto> buscarReuniones(String nombre, Pageable pageable) {
-        return reunionRepository.findByNombreContainingIgnoreCase(nombre, pageable)
-                .map(this::convertirADto);
+    public Page<ReunionDto> buscarReuniones(String texto, Pageable pageable) {
+        String normalizado = texto != null ? texto.trim().toLowerCase(Locale.ROOT) : "";
+        if (normalizado.isEmpty()) {
+            throw new IllegalArgumentException("El texto de búsqueda no puede estar vacío");
+        }
+        String patron = "%" + escaparComodines(normalizado) + "%";
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return convertirADtos(reunionRepository.buscarPorTexto(normalizado, patron, pagina));
     }
 
     public ReunionDto cambiarEstadoReunion(Long id, Reunion.EstadoReunion nuevoEstado) {
@@ -126,14 +155,47 @@ public class ReunionService {
         Reunion reunion = reunionRepository.findById(id)
                 .orElseThrow(() -> new ReunionNotFoundException(id));
         
+        Reunion.EstadoReunion estadoAnterior = reunion.getEstado();
         reunion.setEstado(nuevoEstado);
         Reunion reunionActualizada = reunionRepository.save(reunion);
+        publicarSiDejaDeEstarEnCurso(id, estadoAnterior, nuevoEstado);
         
         log.info("Estado de reunión cambiado exitosamente");
         return convertirADto(reunionActualizada);
     }
 
+    // Cierra el stream en vivo de la reunión cuando sale de EN_CURSO
+    private void publicarSiDejaDeEstarEnCurso(Long id, Reunion.EstadoReunion anterior, Reunion.EstadoReunion nuevo) {
+        if (anterior == Reunion.EstadoReunion.EN_CURSO && nuevo != Reunion.EstadoReunion.EN_CURSO) {
+            eventPublisher.publishEvent(EventoAsistenciaDto.reunionCerrada(id));
+        }
+    }
+
+    // Las estadísticas de todas las reuniones se cargan con una única consulta agrupada
+    private List<ReunionDto> convertirADtos(List<Reunion> reuniones) {
+        Map<Long, EstadisticasAsistenciaDto> estadisticas = estadisticasAsistenciaService.obtenerEstadisticas(
+                reuniones.stream().map(Reunion::getId).collect(Collectors.toSet()));
+        return reuniones.stream()
+                .map(reunion -> convertirADto(reunion, estadisticas.get(reunion.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private Page<ReunionDto> convertirADtos(Page<Reunion> reuniones) {
+        Map<Long, EstadisticasAsistenciaDto> estadisticas = estadisticasAsistenciaService.obtenerEstadisticas(
+                reuniones.getContent().stream().map(Reunion::getId).collect(Collectors.toSet()));
+        return reuniones.map(reunion -> convertirADto(reunion, estadisticas.get(reunion.getId())));
+    }
+
+    // Escapa los comodines de LIKE para que el texto del usuario se busque literalmente
+    private static String escaparComodines(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private ReunionDto convertirADto(Reunion reunion) {
+        return convertirADto(reunion, estadisticasAsistenciaService.obtenerEstadisticas(reunion.getId()));
+    }
+
+    private ReunionDto convertirADto(Reunion reunion, EstadisticasAsistenciaDto estadisticas) {
         ReunionDto dto = new ReunionDto();
         dto.setId(reunion.getId());
         dto.setNombre(reunion.getNombre());
@@ -145,13 +207,12 @@ public class ReunionService {
         dto.setFechaCreacion(reunion.getFechaCreacion());
         dto.setFechaActualizacion(reunion.getFechaActualizacion());
 
-        // Calcular estadísticas de asistencia
-        long presentes = asistenciaRepository.countPresentesByReunion(reunion);
-        long ausentes = asistenciaRepository.countAusentesByReunion(reunion);
-        
-        dto.setPresentes((int) presentes);
-        dto.setAusentes((int) ausentes);
-        dto.setTotalAsistentes((int) (presentes + ausentes));
+        // Estadísticas de asistencia
+        dto.setPresentes((int) estadisticas.getPresentes());
+        dto.setAusentes((int) estadisticas.getAusentes());
+        dto.setTardanzas((int) estadisticas.getTardanzas());
+        dto.setJustificados((int) estadisticas.getJustificados());
+        dto.setTotalAsistentes((int) estadisticas.getTotal());
 
         return dto;
     }
@@ -0,0 +1,63 @@
+package com.cas.common.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Página de resultados de una paginación por cursor (keyset).
+ * nextCursor es null cuando no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private List<T> items;
+    private String nextCursor;
+
+    /**
+     * Acota el tamaño de página solicitado por el cliente.
+     */
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Pageable para la consulta: pide una fila más que el límite para saber si existe página siguiente.
+     */
+    public static Pageable consulta(int limite) {
+        return PageRequest.ofSize(limite + 1);
+    }
+
+    /**
+     * Construye la página a partir de las filas leídas con {@link #consulta(int)}.
+     *
+     * @param filas filas leídas (como máximo limite + 1)
+     * @param limite tamaño de página
+     * @param cursorDe obtiene la posición de una fila para generar el siguiente cursor
+     */
+    public static <T> CursorPage<T> of(List<T> filas, int limite, Function<T, KeysetCursor> cursorDe) {
+        if (filas.size() <= limite) {
+            return new CursorPage<>(filas, null);
+        }
+        List<T> pagina = filas.subList(0, limite);
+        return new CursorPage<>(List.copyOf(pagina), cursorDe.apply(pagina.get(limite - 1)).encode());
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> conversor) {
+        return new CursorPage<>(items.stream().map(conversor).collect(Collectors.toList()), nextCursor);
+    }
+}
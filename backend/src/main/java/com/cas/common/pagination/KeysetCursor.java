@@ -0,0 +1,87 @@
+package com.cas.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de la última fila devuelta en una paginación por cursor (keyset).
+ * Se compone de una fecha opcional (para listados ordenados por fecha) y el ID como desempate.
+ * Se expone al cliente como un token opaco en base64url.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARADOR = "|";
+
+    private final LocalDateTime fecha;
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime fecha, Long id) {
+        this.fecha = fecha;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(Long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public static KeysetCursor of(LocalDateTime fecha, Long id) {
+        return new KeysetCursor(fecha, id);
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param token cursor opaco, o null/vacío para la primera página
+     * @return el cursor, o null si se pide la primera página
+     * @throws IllegalArgumentException si el token no es un cursor válido
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + token);
+            }
+            String fecha = valor.substring(0, separador);
+            Long id = Long.valueOf(valor.substring(separador + 1));
+            return new KeysetCursor(fecha.isEmpty() ? null : LocalDateTime.parse(fecha), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // NumberFormatException y errores de base64 son IllegalArgumentException
+            throw new IllegalArgumentException("Cursor inválido: " + token, e);
+        }
+    }
+
+    /**
+     * Decodifica un cursor de un listado ordenado por fecha: un cursor sin fecha (solo ID) no indica
+     * una posición en ese orden.
+     *
+     * @param token cursor opaco, o null/vacío para la primera página
+     * @return el cursor, o null si se pide la primera página
+     * @throws IllegalArgumentException si el token no es un cursor válido o no incluye la fecha
+     */
+    public static KeysetCursor decodeConFecha(String token) {
+        KeysetCursor cursor = decode(token);
+        if (cursor != null && cursor.fecha == null) {
+            throw new IllegalArgumentException("Cursor inválido: falta la fecha en " + token);
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String valor = (fecha != null ? fecha.toString() : "") + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,94 @@
+package com.cas.login.config;
+
+import com.cas.login.service.SupervisionIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Mantiene el índice de supervisión consistente entre nodos: escucha (LISTEN) el canal
+ * {@link SupervisionIndex#CHANNEL} con una conexión dedicada y aplica los cambios notificados por
+ * cualquier nodo. Si la conexión se pierde, al reconectar recarga el índice completo, ya que las
+ * notificaciones emitidas mientras tanto no se reciben.
+ */
+@Component
+@ConditionalOnProperty(name = "seguridad.supervision.listen.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SupervisionIndexListener {
+
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final DataSource dataSource;
+    private final SupervisionIndex supervisionIndex;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public SupervisionIndexListener(DataSource dataSource, SupervisionIndex supervisionIndex) {
+        this.dataSource = dataSource;
+        this.supervisionIndex = supervisionIndex;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "supervision-index-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        listenerThread.interrupt();
+        listenerThread.join(POLL_TIMEOUT_MS);
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + SupervisionIndex.CHANNEL);
+                }
+                if (reconnecting) {
+                    supervisionIndex.reload();
+                }
+                log.info("Escuchando cambios de supervisión en el canal {}", SupervisionIndex.CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            supervisionIndex.applyNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Conexión de escucha del índice de supervisión perdida, reintentando: {}", e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.cas.login.config;
 
+import com.cas.login.security.AccessTokenService;
+import com.cas.login.security.AuthenticationCache;
+import com.cas.login.security.CachingAuthenticationProvider;
 import com.cas.login.service.UserDetailsServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,6 +17,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.http.HttpStatus;
 import org.springframework.core.annotation.Order;
 
@@ -35,6 +40,8 @@ import org.springframework.core.annotation.Order;
 public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final AccessTokenService accessTokenService;
     private final ObjectMapper objectMapper = new ObjectMapper();
     private SecurityHandlers securityHandlers;
 
@@ -55,7 +62,13 @@ public class SecurityConfig {
         http
             .securityMatcher("/api/**") // Apply this filter chain only to /api/** paths
             .authorizeHttpRequests(SecurityEndpoints::configureApiEndpoints)
+            // Tokens firmados emitidos en /perform_login: se validan sin sesión ni base de datos
+            .addFilterBefore(new AccessTokenFilter(accessTokenService), BasicAuthenticationFilter.class)
             .httpBasic(customizer -> {}) // Enable HTTP Basic for APIs
+            // Basic re-envía las credenciales en cada llamada: se cachean las verificaciones correctas (sin parent,
+            // para que una contraseña errónea no se verifique dos veces)
+            .authenticationManager(new ProviderManager(
+                new CachingAuthenticationProvider(authenticationProvider(), authenticationCache)))
             .csrf(csrf -> csrf.disable()) // Disable CSRF for stateless APIs
             .exceptionHandling(eh -> eh
                 .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)) // Return 401 for unauthenticated
@@ -67,7 +80,7 @@ public class SecurityConfig {
     public SecurityFilterChain formLoginFilterChain(HttpSecurity http) throws Exception {
         // Initialize security handlers
         if (securityHandlers == null) {
-            securityHandlers = new SecurityHandlers(objectMapper);
+            securityHandlers = new SecurityHandlers(objectMapper, accessTokenService);
         }
         
         http
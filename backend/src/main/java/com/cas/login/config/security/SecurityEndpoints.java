@@ -42,6 +42,7 @@ public class SecurityEndpoints {
             
             // Endpoints de usuario autenticado
             .requestMatchers("/api/user/me").authenticated()
+            .requestMatchers("/api/token/refresh").authenticated()
             .requestMatchers("/api/logout").authenticated()
             
             // Cualquier otra petición a la API requiere autenticación
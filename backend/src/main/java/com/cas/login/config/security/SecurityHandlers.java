@@ -1,5 +1,7 @@
 package com.cas.login.config;
 
+import com.cas.login.security.AccessTokenService;
+import com.cas.login.security.UserDetailsImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -23,10 +25,12 @@ import java.util.stream.Collectors;
 public class SecurityHandlers {
     
     private final ObjectMapper objectMapper;
+    private final AccessTokenService accessTokenService;
     
     /**
      * Crea un manejador para autenticación exitosa.
-     * Devuelve información del usuario y sus roles en formato JSON.
+     * Devuelve información del usuario y sus roles en formato JSON, junto con un token de acceso firmado
+     * que la API acepta en "Authorization: Bearer" sin depender de la sesión.
      * 
      * @return AuthenticationSuccessHandler configurado
      */
@@ -45,6 +49,11 @@ public class SecurityHandlers {
             data.put("roles", roleNames);
             data.put("success", true);
             data.put("message", "Authentication successful");
+            if (userDetails instanceof UserDetailsImpl user) {
+                data.put("accessToken", accessTokenService.issue(user));
+                data.put("tokenType", AccessTokenService.TOKEN_TYPE);
+                data.put("expiresIn", accessTokenService.getTtlSeconds());
+            }
 
             response.getWriter().write(objectMapper.writeValueAsString(data));
             response.getWriter().flush();
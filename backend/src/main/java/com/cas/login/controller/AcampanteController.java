@@ -1,5 +1,6 @@
 package com.cas.login.controller;
 
+import com.cas.common.pagination.CursorPage;
 import com.cas.login.model.Acampante;
 import com.cas.login.service.AcampanteService;
 import lombok.AllArgsConstructor;
@@ -55,6 +56,13 @@ public class AcampanteController {
         return ResponseEntity.ok(acampantes);
     }
 
+    @GetMapping(params = "limit")
+    @PreAuthorize("hasAnyRole('DIRIGENTE', 'ADMIN')")
+    public ResponseEntity<CursorPage<Acampante>> getAcampantesPage(@RequestParam(required = false) String after,
+                                                                  @RequestParam Integer limit) {
+        return ResponseEntity.ok(acampanteService.getAcampantes(after, limit));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('DIRIGENTE', 'ADMIN')")
     public ResponseEntity<Acampante> getAcampanteById(@PathVariable Long id) {
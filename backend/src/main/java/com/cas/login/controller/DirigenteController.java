@@ -1,5 +1,6 @@
 package com.cas.login.controller;
 
+import com.cas.common.pagination.CursorPage;
 import com.cas.login.model.Dirigente;
 import com.cas.login.model.User; // For User in DTO
 import com.cas.login.service.DirigenteService;
@@ -91,6 +92,13 @@ public class DirigenteController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping(params = "limit")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DIRIGENTE')")
+    public ResponseEntity<CursorPage<DirigenteResponse>> getDirigentesPage(@RequestParam(required = false) String after,
+                                                                          @RequestParam Integer limit) {
+        return ResponseEntity.ok(dirigenteService.getDirigentes(after, limit).map(DirigenteResponse::fromEntity));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'DIRIGENTE')")
     public ResponseEntity<DirigenteResponse> getDirigenteById(@PathVariable Long id) {
@@ -1,5 +1,11 @@
 package com.cas.login.controller;
 
+import com.cas.login.repository.UserRepository;
+import com.cas.login.security.AccessToken;
+import com.cas.login.security.AccessTokenService;
+import com.cas.login.security.UserDetailsImpl;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -7,12 +13,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@RequiredArgsConstructor
 public class LoginController {
 
+    private final AccessTokenService accessTokenService;
+    private final UserRepository userRepository;
+
     @GetMapping("/")
     public ResponseEntity<Map<String, Object>> home() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -32,6 +43,43 @@ public class LoginController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Renueva el token de acceso. Acepta un token vigente o cualquier otra autenticación válida (Basic, sesión).
+     * Vuelve a leer los roles del usuario, así que los cambios de roles se aplican en la renovación; el momento
+     * del login original se conserva y pasada la vida máxima hay que volver a iniciar sesión.
+     */
+    @PostMapping("/api/token/refresh")
+    public ResponseEntity<Map<String, Object>> refreshToken(Authentication authentication) {
+        Map<String, Object> response = new HashMap<>();
+        if (!(authentication.getPrincipal() instanceof UserDetailsImpl current)) {
+            response.put("success", false);
+            response.put("message", "Unsupported authentication for token refresh");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        Instant authTime = authentication.getDetails() instanceof AccessToken token ? token.authTime() : Instant.now();
+        String accessToken;
+        try {
+            accessToken = userRepository.findById(current.getId())
+                    .map(user -> accessTokenService.issue(UserDetailsImpl.build(user), authTime))
+                    .orElse(null);
+        } catch (IllegalStateException e) {
+            accessToken = null;
+            response.put("message", e.getMessage());
+        }
+        if (accessToken == null) {
+            response.put("success", false);
+            response.putIfAbsent("message", "User no longer exists");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        response.put("success", true);
+        response.put("accessToken", accessToken);
+        response.put("tokenType", AccessTokenService.TOKEN_TYPE);
+        response.put("expiresIn", accessTokenService.getTtlSeconds());
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/api/logout")
     public ResponseEntity<Map<String, String>> logout() {
         Map<String, String> response = new HashMap<>();
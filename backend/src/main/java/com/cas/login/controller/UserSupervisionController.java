@@ -3,7 +3,12 @@ package com.cas.login.controller;
 import com.cas.login.model.User;
 import com.cas.login.service.UserSupervisionService;
 import com.cas.login.dto.UserDto; // Asumiendo que tienes un DTO para User o lo crearemos
+import com.cas.login.dto.SupervisionAssignmentDto;
+import com.cas.login.dto.SupervisionUserDto;
+import com.cas.login.dto.UserSummaryDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -75,6 +80,48 @@ public class UserSupervisionController {
         }
     }
 
+    // Asignación masiva solo con IDs: el cuerpo es la lista de IDs de acampantes
+    @PostMapping("/dirigente/{dirigenteId}/assign")
+    @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#dirigenteId, authentication) or hasRole('DIRIGENTE')")
+    public ResponseEntity<?> assignAcampantesToDirigente(@PathVariable Long dirigenteId, @RequestBody List<Long> acampanteIds) {
+        try {
+            return ResponseEntity.ok(userSupervisionService.assignAcampantesToDirigente(dirigenteId, acampanteIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/dirigente/{dirigenteId}/remove")
+    @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#dirigenteId, authentication) or hasRole('DIRIGENTE')")
+    public ResponseEntity<?> removeAcampantesFromDirigente(@PathVariable Long dirigenteId, @RequestBody List<Long> acampanteIds) {
+        try {
+            return ResponseEntity.ok(userSupervisionService.removeAcampantesFromDirigente(dirigenteId, acampanteIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Mapeo completo [{dirigenteId, acampanteIds}, ...], aplicado en una sola transacción
+    @PostMapping("/bulk/assign")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DIRIGENTE')")
+    public ResponseEntity<?> assignAll(@RequestBody List<SupervisionAssignmentDto> assignments) {
+        try {
+            return ResponseEntity.ok(userSupervisionService.assignAll(assignments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/bulk/remove")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DIRIGENTE')")
+    public ResponseEntity<?> removeAll(@RequestBody List<SupervisionAssignmentDto> assignments) {
+        try {
+            return ResponseEntity.ok(userSupervisionService.removeAll(assignments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/dirigente/{dirigenteId}/campers")
     @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#dirigenteId, authentication) or hasRole('DIRIGENTE')")
     public ResponseEntity<?> getSupervisedCampers(@PathVariable Long dirigenteId) {
@@ -86,6 +133,19 @@ public class UserSupervisionController {
         }
     }
 
+    // Con ?page= devuelve una página de (id, username, nombre) en una consulta, sin entidades ni roles
+    @GetMapping(value = "/dirigente/{dirigenteId}/campers", params = "page")
+    @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#dirigenteId, authentication) or hasRole('DIRIGENTE')")
+    public ResponseEntity<Page<SupervisionUserDto>> getSupervisedCampersPage(@PathVariable Long dirigenteId, Pageable pageable) {
+        return ResponseEntity.ok(userSupervisionService.findSupervisedCampers(dirigenteId, pageable));
+    }
+
+    @GetMapping("/dirigente/{dirigenteId}/campers/count")
+    @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#dirigenteId, authentication) or hasRole('DIRIGENTE')")
+    public ResponseEntity<Map<String, Long>> countSupervisedCampers(@PathVariable Long dirigenteId) {
+        return ResponseEntity.ok(Map.of("count", userSupervisionService.countSupervisedCampers(dirigenteId)));
+    }
+
     @GetMapping("/acampante/{acampanteId}/supervisors")
     @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#acampanteId, authentication) or hasRole('ACAMPANTE')")
     public ResponseEntity<?> getSupervisorsForAcampante(@PathVariable Long acampanteId) {
@@ -97,6 +157,18 @@ public class UserSupervisionController {
         }
     }
 
+    @GetMapping(value = "/acampante/{acampanteId}/supervisors", params = "page")
+    @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#acampanteId, authentication) or hasRole('ACAMPANTE')")
+    public ResponseEntity<Page<SupervisionUserDto>> getSupervisorsPage(@PathVariable Long acampanteId, Pageable pageable) {
+        return ResponseEntity.ok(userSupervisionService.findSupervisors(acampanteId, pageable));
+    }
+
+    @GetMapping("/acampante/{acampanteId}/supervisors/count")
+    @PreAuthorize("hasRole('ADMIN') or @userSecurityService.isSelf(#acampanteId, authentication) or hasRole('ACAMPANTE')")
+    public ResponseEntity<Map<String, Long>> countSupervisors(@PathVariable Long acampanteId) {
+        return ResponseEntity.ok(Map.of("count", userSupervisionService.countSupervisors(acampanteId)));
+    }
+
     @GetMapping("/dirigentes")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('DIRIGENTE')")
     public ResponseEntity<List<UserDto>> getAllDirigentes() {
@@ -104,10 +176,23 @@ public class UserSupervisionController {
         return ResponseEntity.ok(convertToDtoList(dirigentes));
     }
 
+    // Con ?page= devuelve una página de (id, username) filtrada por rol en la base de datos; sort admite id o username
+    @GetMapping(value = "/dirigentes", params = "page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('DIRIGENTE')")
+    public ResponseEntity<Page<UserSummaryDto>> getDirigentesPage(Pageable pageable) {
+        return ResponseEntity.ok(userSupervisionService.findDirigentes(pageable));
+    }
+
     @GetMapping("/acampantes")
     @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('DIRIGENTE')") // Dirigentes pueden necesitar ver lista de todos los acampantes para asignar
     public ResponseEntity<List<UserDto>> getAllAcampantes() {
         List<User> acampantes = userSupervisionService.findAllAcampantes();
         return ResponseEntity.ok(convertToDtoList(acampantes));
     }
+
+    @GetMapping(value = "/acampantes", params = "page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('STAFF') or hasRole('DIRIGENTE')")
+    public ResponseEntity<Page<UserSummaryDto>> getAcampantesPage(Pageable pageable) {
+        return ResponseEntity.ok(userSupervisionService.findAcampantes(pageable));
+    }
 }
@@ -0,0 +1,18 @@
+package com.cas.login.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Un dirigente y los IDs de los acampantes a asignarle o quitarle, para las operaciones masivas de supervisión.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupervisionAssignmentDto {
+    private Long dirigenteId;
+    private List<Long> acampanteIds;
+}
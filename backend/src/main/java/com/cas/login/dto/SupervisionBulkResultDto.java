@@ -0,0 +1,17 @@
+package com.cas.login.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una operación masiva de supervisión: pares pedidos (sin repetidos) y filas realmente
+ * insertadas o borradas (los pares que ya existían, o que no existían al quitar, no cuentan).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupervisionBulkResultDto {
+    private int requested;
+    private int changed;
+}
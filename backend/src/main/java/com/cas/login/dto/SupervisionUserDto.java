@@ -0,0 +1,23 @@
+package com.cas.login.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección de un usuario en los listados de supervisión. nombre es el nombreCompleto del Dirigente
+ * vinculado a la cuenta, o null si no tiene (los Acampante no están vinculados a usuarios).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SupervisionUserDto {
+    private Long id;
+    private String username;
+    private String nombre;
+
+    // Acampantes: sin Dirigente vinculado, no hay nombre que proyectar
+    public SupervisionUserDto(Long id, String username) {
+        this(id, username, null);
+    }
+}
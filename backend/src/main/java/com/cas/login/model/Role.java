@@ -1,6 +1,7 @@
 package com.cas.login.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -10,8 +11,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import com.cas.login.service.RoleChangeListener;
+
 @Entity
 @Table(name = "roles")
+@EntityListeners(RoleChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,6 +1,8 @@
 package com.cas.login.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,12 +11,15 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode; // Importar para excluir campos
 import lombok.NoArgsConstructor;
 import lombok.ToString; // Importar para excluir campos
+import org.hibernate.annotations.OptimisticLock;
 
+import com.cas.login.security.UserCredentialsListener;
 import com.cas.packinglist.model.PackingList; // Added import
 import jakarta.persistence.CascadeType; // Added import
 import jakarta.persistence.OneToOne; // Added import
@@ -27,6 +32,7 @@ import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCredentialsListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +45,13 @@ public class User {
     private String username;
     private String password;
 
+    // Sube también cuando solo cambian los roles: así UserCredentialsListener recibe @PostUpdate.
+    // Las colecciones que no afectan a las credenciales se excluyen con @OptimisticLock
+    @Version
+    @Column(nullable = false)
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
@@ -51,6 +64,7 @@ public class User {
     private PackingList packingList;
 
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OptimisticLock(excluded = true)
     private Set<com.cas.asistencias.model.Asistencia> asistencias = new HashSet<>();
 
     // Relación para Dirigentes: Acampantes que supervisa un Dirigente
@@ -60,6 +74,7 @@ public class User {
         joinColumns = @JoinColumn(name = "dirigente_id"), // El User que es Dirigente
         inverseJoinColumns = @JoinColumn(name = "acampante_id") // El User que es Acampante supervisado
     )
+    @OptimisticLock(excluded = true)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private Set<User> supervisedCampers = new HashSet<>();
@@ -67,6 +82,7 @@ public class User {
     // Relación para Acampantes: Dirigentes que supervisan a un Acampante
     // 'mappedBy' indica que la tabla de unión es gestionada por la otra entidad (supervisedCampers)
     @ManyToMany(mappedBy = "supervisedCampers", fetch = FetchType.LAZY)
+    @OptimisticLock(excluded = true)
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private Set<User> supervisors = new HashSet<>();
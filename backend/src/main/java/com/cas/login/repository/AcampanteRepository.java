@@ -1,9 +1,17 @@
 package com.cas.login.repository;
 
 import com.cas.login.model.Acampante;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-// import java.util.List;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface AcampanteRepository extends JpaRepository<Acampante, Long> {
     // Example: List<Acampante> findByEdadGreaterThan(int edad);
+
+    // Paginación por cursor: acampantes con ID mayor al último devuelto
+    @Query("SELECT a FROM Acampante a WHERE a.id > :despuesDeId ORDER BY a.id")
+    List<Acampante> findPaginaDespuesDe(@Param("despuesDeId") Long despuesDeId, Pageable pageable);
 }
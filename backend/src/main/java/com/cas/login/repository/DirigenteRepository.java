@@ -1,9 +1,18 @@
 package com.cas.login.repository;
 
 import com.cas.login.model.Dirigente;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface DirigenteRepository extends JpaRepository<Dirigente, Long> {
     Optional<Dirigente> findByUserAccount_Username(String username);
+
+    // Paginación por cursor: dirigentes con ID mayor al último devuelto, con su cuenta de usuario en el mismo JOIN
+    @Query("SELECT d FROM Dirigente d LEFT JOIN FETCH d.userAccount WHERE d.id > :despuesDeId ORDER BY d.id")
+    List<Dirigente> findPaginaDespuesDe(@Param("despuesDeId") Long despuesDeId, Pageable pageable);
 }
@@ -1,9 +1,84 @@
 package com.cas.login.repository;
 
+import com.cas.login.dto.SupervisionUserDto;
+import com.cas.login.dto.UserSummaryDto;
 import com.cas.login.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // Devuelve pares [id, username] sin cargar la entidad ni sus roles
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id IN :ids")
+    List<Object[]> findUsernamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Pares [dirigenteId, acampanteId] de user_supervision con los roles correctos (carga del índice de supervisión)
+    @Query("SELECT d.id, a.id FROM User d JOIN d.supervisedCampers a JOIN d.roles dr JOIN a.roles ar " +
+           "WHERE dr.name = 'ROLE_DIRIGENTE' AND ar.name = 'ROLE_ACAMPANTE'")
+    List<Object[]> findSupervisionPairs();
+
+    // Página de usuarios con un rol, como proyección (id, username); filtra por user_roles.role_id en la base de datos
+    @Query(value = "SELECT new com.cas.login.dto.UserSummaryDto(u.id, u.username) FROM User u JOIN u.roles r " +
+                   "WHERE r.id = :roleId",
+           countQuery = "SELECT count(u) FROM User u JOIN u.roles r WHERE r.id = :roleId")
+    Page<UserSummaryDto> findSummariesByRoleId(@Param("roleId") Integer roleId, Pageable pageable);
+
+    // Usuarios con un rol junto con todos sus roles, en una sola consulta
+    @Query("SELECT DISTINCT u FROM User u JOIN FETCH u.roles " +
+           "WHERE u.id IN (SELECT ur.id FROM User ur JOIN ur.roles r WHERE r.id = :roleId) ORDER BY u.id")
+    List<User> findAllByRoleIdWithRoles(@Param("roleId") Integer roleId);
+
+    // Pares [userId, roleId] de los usuarios indicados, limitados a los roles indicados (validación masiva de roles)
+    @Query("SELECT u.id, r.id FROM User u JOIN u.roles r WHERE u.id IN :userIds AND r.id IN :roleIds")
+    List<Object[]> findRoleIdsByUserIdIn(@Param("userIds") Collection<Long> userIds,
+                                         @Param("roleIds") Collection<Integer> roleIds);
+
+    // Inserta los pares (dirigente, acampante) que falten sin cargar entidades; devuelve las filas insertadas
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_supervision (dirigente_id, acampante_id) " +
+                   "SELECT :dirigenteId, a.id FROM users a WHERE a.id IN (:acampanteIds) " +
+                   "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertSupervisionPairs(@Param("dirigenteId") Long dirigenteId,
+                               @Param("acampanteIds") Collection<Long> acampanteIds);
+
+    // Borra los pares (dirigente, acampante) indicados; devuelve las filas borradas
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_supervision WHERE dirigente_id = :dirigenteId AND acampante_id IN (:acampanteIds)",
+           nativeQuery = true)
+    int deleteSupervisionPairs(@Param("dirigenteId") Long dirigenteId,
+                               @Param("acampanteIds") Collection<Long> acampanteIds);
+
+    // Acampantes de un dirigente (si tiene el rol indicado) como proyección (id, username), sin cargar entidades;
+    // un acampante no tiene fila Dirigente, así que el nombre queda null sin unir esa tabla
+    @Query(value = "SELECT new com.cas.login.dto.SupervisionUserDto(a.id, a.username) " +
+                   "FROM User a JOIN a.supervisors d JOIN d.roles dr " +
+                   "WHERE d.id = :dirigenteId AND dr.id = :roleId",
+           countQuery = "SELECT count(a) FROM User a JOIN a.supervisors d JOIN d.roles dr " +
+                        "WHERE d.id = :dirigenteId AND dr.id = :roleId")
+    Page<SupervisionUserDto> findSupervisedCamperSummaries(@Param("dirigenteId") Long dirigenteId,
+                                                           @Param("roleId") Integer roleId, Pageable pageable);
+
+    @Query("SELECT count(a) FROM User a JOIN a.supervisors d JOIN d.roles dr WHERE d.id = :dirigenteId AND dr.id = :roleId")
+    long countSupervisedCampers(@Param("dirigenteId") Long dirigenteId, @Param("roleId") Integer roleId);
+
+    // Dirigentes de un acampante (si tiene el rol indicado) como proyección (id, username, nombre)
+    @Query(value = "SELECT new com.cas.login.dto.SupervisionUserDto(d.id, d.username, dg.nombreCompleto) " +
+                   "FROM User d JOIN d.supervisedCampers a JOIN a.roles ar LEFT JOIN Dirigente dg ON dg.userAccount = d " +
+                   "WHERE a.id = :acampanteId AND ar.id = :roleId",
+           countQuery = "SELECT count(d) FROM User d JOIN d.supervisedCampers a JOIN a.roles ar " +
+                        "WHERE a.id = :acampanteId AND ar.id = :roleId")
+    Page<SupervisionUserDto> findSupervisorSummaries(@Param("acampanteId") Long acampanteId,
+                                                     @Param("roleId") Integer roleId, Pageable pageable);
+
+    @Query("SELECT count(d) FROM User d JOIN d.supervisedCampers a JOIN a.roles ar WHERE a.id = :acampanteId AND ar.id = :roleId")
+    long countSupervisors(@Param("acampanteId") Long acampanteId, @Param("roleId") Integer roleId);
 }
@@ -0,0 +1,13 @@
+package com.cas.login.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Contenido de un token de acceso ya validado.
+ *
+ * @param authTime momento del login con credenciales; las renovaciones lo conservan para acotar la vida total
+ */
+public record AccessToken(Long userId, String username, List<String> roles,
+                          Instant issuedAt, Instant expiresAt, Instant authTime) {
+}
@@ -0,0 +1,176 @@
+package com.cas.login.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Emite y valida tokens de acceso firmados (formato JWT, HS256) con el ID, el nombre y los roles del usuario.
+ * La validación solo usa la clave compartida, sin sesión ni base de datos, así que cualquier nodo con la
+ * misma {@code seguridad.token.secreto} acepta los tokens de los demás.
+ *
+ * Los tokens duran {@code seguridad.token.ttl-segundos}; se renuevan con POST /api/token/refresh hasta
+ * {@code seguridad.token.vida-maxima-segundos} después del login. No hay revocación: un cambio de roles se
+ * aplica en la siguiente renovación.
+ */
+@Component
+@Slf4j
+public class AccessTokenService {
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec secret;
+    private final Duration ttl;
+    private final Duration maxLifetime;
+    private final Clock clock = Clock.systemUTC();
+    private final ThreadLocal<Mac> macs;
+
+    public AccessTokenService(ObjectMapper objectMapper,
+                              @Value("${seguridad.token.secreto:}") String secret,
+                              @Value("${seguridad.token.ttl-segundos:900}") long ttlSeconds,
+                              @Value("${seguridad.token.vida-maxima-segundos:43200}") long maxLifetimeSeconds) {
+        this.objectMapper = objectMapper;
+        this.secret = new SecretKeySpec(secretBytes(secret), ALGORITHM);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxLifetime = Duration.ofSeconds(maxLifetimeSeconds);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public long getTtlSeconds() {
+        return ttl.toSeconds();
+    }
+
+    /**
+     * Emite un token para un usuario que acaba de autenticarse con credenciales.
+     */
+    public String issue(UserDetailsImpl user) {
+        return issue(user, clock.instant());
+    }
+
+    /**
+     * Emite un token nuevo conservando el momento del login original.
+     *
+     * @throws IllegalStateException si ya se superó la vida máxima desde el login
+     */
+    public String issue(UserDetailsImpl user, Instant authTime) {
+        Instant now = clock.instant();
+        if (now.isAfter(authTime.plus(maxLifetime))) {
+            throw new IllegalStateException("La sesión superó su vida máxima; inicie sesión de nuevo");
+        }
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(user.getId()));
+        claims.put("name", user.getUsername());
+        claims.put("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(ttl).getEpochSecond());
+        claims.put("auth_time", authTime.getEpochSecond());
+        try {
+            String content = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return content + "." + ENCODER.encodeToString(sign(content));
+        } catch (Exception e) {
+            throw new IllegalStateException("No se pudo emitir el token de acceso", e);
+        }
+    }
+
+    /**
+     * Valida firma y caducidad. Devuelve vacío si el token está mal formado, alterado o caducado.
+     */
+    public Optional<AccessToken> parse(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot || !token.substring(0, firstDot).equals(HEADER)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, lastDot)))) {
+                return Optional.empty();
+            }
+            Map<String, Object> claims = objectMapper.readValue(DECODER.decode(token.substring(firstDot + 1, lastDot)),
+                    new TypeReference<Map<String, Object>>() { });
+            Instant expiresAt = Instant.ofEpochSecond(((Number) claims.get("exp")).longValue());
+            if (!clock.instant().isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+            @SuppressWarnings("unchecked")
+            List<String> roles = (List<String>) claims.get("roles");
+            return Optional.of(new AccessToken(
+                    Long.valueOf((String) claims.get("sub")),
+                    (String) claims.get("name"),
+                    roles,
+                    Instant.ofEpochSecond(((Number) claims.get("iat")).longValue()),
+                    expiresAt,
+                    Instant.ofEpochSecond(((Number) claims.get("auth_time")).longValue())));
+        } catch (Exception e) {
+            log.debug("Token de acceso inválido: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Usuario representado por el token (sin contraseña), para el SecurityContext.
+     */
+    public static UserDetailsImpl toUserDetails(AccessToken token) {
+        Set<GrantedAuthority> authorities = token.roles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toSet());
+        return new UserDetailsImpl(token.userId(), token.username(), null, authorities);
+    }
+
+    private byte[] sign(String content) {
+        return macs.get().doFinal(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+
+    // Sin secreto configurado se genera uno aleatorio: los tokens solo sirven en este nodo y hasta reiniciarlo
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank()) {
+            log.warn("seguridad.token.secreto no está configurado: se usa una clave aleatoria válida solo en este nodo");
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] bytes = Base64.getDecoder().decode(secret.trim());
+        if (bytes.length < 32) {
+            throw new IllegalStateException("seguridad.token.secreto debe tener al menos 256 bits (32 bytes en Base64)");
+        }
+        return bytes;
+    }
+}
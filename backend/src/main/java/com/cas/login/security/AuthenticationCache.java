@@ -0,0 +1,152 @@
+package com.cas.login.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché acotada (LRU) de verificaciones de credenciales correctas para HTTP Basic, para no repetir en cada
+ * petición la carga del usuario y la verificación BCrypt.
+ *
+ * La clave es un HMAC-SHA256 de usuario+contraseña con una clave aleatoria generada al arrancar, así que la
+ * contraseña no se guarda y un volcado de memoria no permite comprobar contraseñas candidatas fuera del
+ * proceso. Las entradas caducan a los {@code seguridad.auth-cache.ttl-segundos} y se invalidan al cambiar la
+ * contraseña o los roles del usuario (ver UserCredentialsListener). En otros nodos el cambio se nota como
+ * mucho tras el TTL.
+ */
+@Component
+@Slf4j
+public class AuthenticationCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final SecretKeySpec secret;
+    private final ThreadLocal<Mac> macs;
+
+    // Orden de acceso: al superar maxEntries se descarta la entrada usada hace más tiempo
+    private final Map<String, Entry> entries;
+
+    public AuthenticationCache(@Value("${seguridad.auth-cache.ttl-segundos:60}") long ttlSeconds,
+                               @Value("${seguridad.auth-cache.max-entradas:10000}") int maxEntries) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > AuthenticationCache.this.maxEntries;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return ttlNanos > 0 && maxEntries > 0;
+    }
+
+    /**
+     * Devuelve el usuario verificado previamente con estas credenciales, o null si no hay entrada vigente.
+     */
+    public UserDetailsImpl get(String username, String password) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String key = key(username, password);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.createdAt() > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.user();
+        }
+    }
+
+    public void put(String username, String password, UserDetailsImpl user) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = key(username, password);
+        synchronized (entries) {
+            entries.put(key, new Entry(user, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Invalida las entradas del usuario cuando confirma la transacción actual (o ya, si no hay ninguna).
+     */
+    public void evictAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userId);
+            }
+        });
+    }
+
+    // Por ID, para cubrir también un cambio de nombre de usuario
+    public void evict(Long userId) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.user().getId().equals(userId));
+        }
+        log.debug("Caché de autenticación invalidada para el usuario {}", userId);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    // Longitud del usuario como prefijo para que ("ab", "c") y ("a", "bc") no compartan clave
+    private String key(String username, String password) {
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        Mac mac = macs.get();
+        mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(user.length).array());
+        mac.update(user);
+        mac.update(password.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(mac.doFinal());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+
+    private record Entry(UserDetailsImpl user, long createdAt) {
+    }
+}
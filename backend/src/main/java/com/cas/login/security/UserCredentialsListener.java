@@ -0,0 +1,29 @@
+package com.cas.login.security;
+
+import com.cas.login.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de User: cualquier cambio en la cuenta (contraseña, roles) o su borrado invalida las
+ * credenciales cacheadas del usuario al confirmar la transacción. Un cambio solo de roles llega como
+ * @PostUpdate porque incrementa User.version.
+ */
+@Component
+public class UserCredentialsListener {
+
+    private final AuthenticationCache authenticationCache;
+
+    public UserCredentialsListener(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        if (user.getId() != null) {
+            authenticationCache.evictAfterCommit(user.getId());
+        }
+    }
+}
@@ -15,6 +15,11 @@ import java.util.stream.Collectors;
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
+    // Bits de la máscara de roles, para comprobar roles sin recorrer las authorities
+    public static final int ROLE_ADMIN = 1;
+    public static final int ROLE_DIRIGENTE = 1 << 1;
+    public static final int ROLE_ACAMPANTE = 1 << 2;
+
     private Long id;
     private String username;
 
@@ -23,12 +28,31 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private int roleMask;
+
     public UserDetailsImpl(Long id, String username, String password,
                            Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.username = username;
         this.password = password;
         this.authorities = authorities;
+        this.roleMask = roleMask(authorities);
+    }
+
+    /**
+     * Calcula la máscara de roles de un conjunto de authorities (para principals que no son UserDetailsImpl).
+     */
+    public static int roleMask(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            switch (String.valueOf(authority.getAuthority())) {
+                case "ROLE_ADMIN" -> mask |= ROLE_ADMIN;
+                case "ROLE_DIRIGENTE" -> mask |= ROLE_DIRIGENTE;
+                case "ROLE_ACAMPANTE" -> mask |= ROLE_ACAMPANTE;
+                default -> { }
+            }
+        }
+        return mask;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -47,6 +71,10 @@ public class UserDetailsImpl implements UserDetails {
         return id;
     }
 
+    public int getRoleMask() {
+        return roleMask;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
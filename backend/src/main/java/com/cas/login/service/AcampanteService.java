@@ -1,5 +1,7 @@
 package com.cas.login.service;
 
+import com.cas.common.pagination.CursorPage;
+import com.cas.common.pagination.KeysetCursor;
 import com.cas.login.model.Acampante;
 import com.cas.login.repository.AcampanteRepository;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +32,15 @@ public class AcampanteService {
         return acampanteRepository.findAll();
     }
 
+    // Keyset pagination by id: cost stays flat regardless of how deep the page is
+    public CursorPage<Acampante> getAcampantes(String after, Integer limit) {
+        int limite = CursorPage.normalizarLimite(limit);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<Acampante> filas = acampanteRepository.findPaginaDespuesDe(
+                cursor != null ? cursor.getId() : 0L, CursorPage.consulta(limite));
+        return CursorPage.of(filas, limite, acampante -> KeysetCursor.of(acampante.getId()));
+    }
+
     public Optional<Acampante> getAcampanteById(Long id) {
         return acampanteRepository.findById(id);
     }
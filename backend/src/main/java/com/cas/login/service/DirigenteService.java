@@ -1,10 +1,11 @@
 package com.cas.login.service;
 
+import com.cas.common.pagination.CursorPage;
+import com.cas.common.pagination.KeysetCursor;
 import com.cas.login.model.Dirigente;
 import com.cas.login.model.Role;
 import com.cas.login.model.User;
 import com.cas.login.repository.DirigenteRepository;
-import com.cas.login.repository.RoleRepository;
 import com.cas.login.repository.UserRepository; // Needed for user creation
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,8 +24,9 @@ public class DirigenteService {
 
     private final DirigenteRepository dirigenteRepository;
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
     private final PasswordEncoder passwordEncoder;
+    private final SupervisionIndex supervisionIndex;
 
     @Transactional
     public Dirigente createDirigente(Dirigente dirigente, String rawPassword, Set<String> roleNames) {
@@ -38,14 +40,15 @@ public class DirigenteService {
         User user = dirigente.getUserAccount();
         user.setPassword(passwordEncoder.encode(rawPassword));
 
-        // Assuming RoleRepository has findAllByNameIn method.
-        // If not, this would require a loop and multiple findByName calls.
-        Set<Role> roles = roleRepository.findAllByNameIn(roleNames);
+        // Roles resolved from the in-memory registry (no query)
+        Set<Role> roles = roleRegistry.rolesByName(roleNames);
         if (roles.size() != roleNames.size()) {
            // Identify which roles were not found for a more specific error message.
            Set<String> foundRoleNames = roles.stream().map(Role::getName).collect(Collectors.toSet());
-           roleNames.removeAll(foundRoleNames);
-           throw new RuntimeException("One or more roles not found: " + roleNames);
+           Set<String> missingRoleNames = roleNames.stream()
+                   .filter(name -> !foundRoleNames.contains(name))
+                   .collect(Collectors.toSet());
+           throw new RuntimeException("One or more roles not found: " + missingRoleNames);
         }
         user.setRoles(roles);
 
@@ -58,6 +61,16 @@ public class DirigenteService {
         return dirigenteRepository.findAll();
     }
 
+    // Keyset pagination by id; the user account is fetched in the same query
+    @Transactional(readOnly = true)
+    public CursorPage<Dirigente> getDirigentes(String after, Integer limit) {
+        int limite = CursorPage.normalizarLimite(limit);
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        List<Dirigente> filas = dirigenteRepository.findPaginaDespuesDe(
+                cursor != null ? cursor.getId() : 0L, CursorPage.consulta(limite));
+        return CursorPage.of(filas, limite, dirigente -> KeysetCursor.of(dirigente.getId()));
+    }
+
     public Optional<Dirigente> getDirigenteById(Long id) {
         return dirigenteRepository.findById(id);
     }
@@ -84,5 +97,7 @@ public class DirigenteService {
             throw new RuntimeException("Dirigente not found with id: " + id);
         }
         dirigenteRepository.deleteById(id); // User account should be deleted due to CascadeType.ALL and orphanRemoval=true on Dirigente.userAccount
+        // Sus filas de user_supervision desaparecen con la cuenta: recargar el índice en todos los nodos
+        supervisionIndex.recordBulkChange();
     }
 }
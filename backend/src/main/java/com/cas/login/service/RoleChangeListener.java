@@ -0,0 +1,34 @@
+package com.cas.login.service;
+
+import com.cas.login.model.Role;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de Role: mantiene RoleRegistry al día con las altas, cambios y bajas de roles.
+ * El registro se resuelve en cada llamada porque Hibernate crea el listener junto con el EntityManagerFactory,
+ * del que depende el propio registro a través de RoleRepository.
+ */
+@Component
+public class RoleChangeListener {
+
+    private final ObjectProvider<RoleRegistry> roleRegistry;
+
+    public RoleChangeListener(ObjectProvider<RoleRegistry> roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onRoleSaved(Role role) {
+        roleRegistry.getObject().roleSaved(role);
+    }
+
+    @PostRemove
+    void onRoleRemoved(Role role) {
+        roleRegistry.getObject().roleRemoved(role);
+    }
+}
@@ -0,0 +1,168 @@
+package com.cas.login.service;
+
+import com.cas.login.model.Role;
+import com.cas.login.model.User;
+import com.cas.login.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Registro en memoria de los roles (ID ↔ nombre), para no consultar la tabla roles en cada comprobación.
+ * Cada versión es un par de mapas inmutables que se reemplaza entero.
+ *
+ * RoleChangeListener aplica al momento las altas, cambios y bajas de Role hechas en este nodo y, al terminar
+ * la transacción (commit o rollback), marca el registro para recargarlo desde la base de datos en el
+ * siguiente acceso.
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    public static final String ROLE_ADMIN = "ROLE_ADMIN";
+    public static final String ROLE_DIRIGENTE = "ROLE_DIRIGENTE";
+    public static final String ROLE_ACAMPANTE = "ROLE_ACAMPANTE";
+
+    private final RoleRepository roleRepository;
+
+    // null: hay que recargar desde la base de datos
+    private volatile Snapshot snapshot;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    public Optional<Integer> findId(String name) {
+        return Optional.ofNullable(current().idsByName().get(name));
+    }
+
+    public Integer getId(String name) {
+        return findId(name).orElseThrow(() ->
+                new IllegalStateException(name + " not found. Please ensure roles are loaded."));
+    }
+
+    public Optional<String> findName(Integer id) {
+        return Optional.ofNullable(current().namesById().get(id));
+    }
+
+    /**
+     * Indica si el usuario tiene el rol, comparando IDs (no carga ni compara entidades Role).
+     */
+    public boolean hasRole(User user, String roleName) {
+        Integer roleId = current().idsByName().get(roleName);
+        if (roleId == null) {
+            return false;
+        }
+        for (Role role : user.getRoles()) {
+            if (roleId.equals(role.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Referencias a los roles indicados para asignarlas a un usuario (instancias nuevas con ID y nombre;
+     * no hace consultas). Los nombres desconocidos se omiten: compárese el tamaño del resultado.
+     */
+    public Set<Role> rolesByName(Collection<String> names) {
+        Map<String, Integer> idsByName = current().idsByName();
+        Set<Role> roles = new LinkedHashSet<>();
+        for (String name : names) {
+            Integer id = idsByName.get(name);
+            if (id != null) {
+                roles.add(new Role(id, name));
+            }
+        }
+        return roles;
+    }
+
+    public synchronized void reload() {
+        Map<Integer, String> namesById = new HashMap<>();
+        Map<String, Integer> idsByName = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            namesById.put(role.getId(), role.getName());
+            idsByName.put(role.getName(), role.getId());
+        }
+        snapshot = new Snapshot(Map.copyOf(namesById), Map.copyOf(idsByName));
+        log.debug("Registro de roles cargado: {}", idsByName);
+    }
+
+    // Llamados por RoleChangeListener durante el flush
+
+    synchronized void roleSaved(Role role) {
+        Snapshot base = snapshot;
+        if (base == null) {
+            // Sin versión cargada no se consulta aquí (estamos dentro del flush): se recargará al acceder
+            reloadAfterTransaction();
+            return;
+        }
+        Map<Integer, String> namesById = new HashMap<>(base.namesById());
+        Map<String, Integer> idsByName = new HashMap<>(base.idsByName());
+        String previousName = namesById.put(role.getId(), role.getName());
+        if (previousName != null && role.getId().equals(idsByName.get(previousName))) {
+            idsByName.remove(previousName);
+        }
+        idsByName.put(role.getName(), role.getId());
+        snapshot = new Snapshot(Map.copyOf(namesById), Map.copyOf(idsByName));
+        reloadAfterTransaction();
+    }
+
+    synchronized void roleRemoved(Role role) {
+        Snapshot base = snapshot;
+        if (base == null) {
+            // Sin versión cargada no se consulta aquí (estamos dentro del flush): se recargará al acceder
+            reloadAfterTransaction();
+            return;
+        }
+        Map<Integer, String> namesById = new HashMap<>(base.namesById());
+        Map<String, Integer> idsByName = new HashMap<>(base.idsByName());
+        String name = namesById.remove(role.getId());
+        // Solo si el nombre no se reasignó ya a otro rol en esta misma transacción
+        if (name != null && role.getId().equals(idsByName.get(name))) {
+            idsByName.remove(name);
+        }
+        snapshot = new Snapshot(Map.copyOf(namesById), Map.copyOf(idsByName));
+        reloadAfterTransaction();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // Tras commit o rollback la base de datos manda: se recarga en el siguiente acceso
+    private void reloadAfterTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshot = null;
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                snapshot = null;
+            }
+        });
+    }
+
+    private record Snapshot(Map<Integer, String> namesById, Map<String, Integer> idsByName) {
+    }
+}
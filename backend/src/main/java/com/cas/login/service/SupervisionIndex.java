@@ -0,0 +1,270 @@
+package com.cas.login.service;
+
+import com.cas.login.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice en memoria de user_supervision: dirigenteId → IDs de los acampantes que supervisa, guardados
+ * como long[] ordenado e inmutable. Solo contiene pares cuyo dirigente tiene ROLE_DIRIGENTE y cuyo
+ * acampante tiene ROLE_ACAMPANTE, igual que la comprobación que reemplaza, así que las consultas de
+ * autorización no tocan la base de datos.
+ *
+ * Las escrituras se aplican al confirmar la transacción que las hizo y se anuncian al resto de nodos con
+ * NOTIFY en el canal {@value #CHANNEL} (ver SupervisionIndexListener). Una recarga completa periódica
+ * cubre cualquier notificación perdida.
+ */
+@Component
+@Slf4j
+public class SupervisionIndex {
+
+    public static final String CHANNEL = "user_supervision";
+
+    private static final long[] EMPTY = new long[0];
+
+    // IDs por notificación en los cambios masivos: mantiene el payload bajo el límite de 8000 bytes de NOTIFY
+    private static final int IDS_PER_NOTIFICATION = 300;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Lecturas sin bloqueo; las escrituras se serializan con el monitor del índice
+    private volatile Map<Long, long[]> index = new ConcurrentHashMap<>();
+
+    public SupervisionIndex(UserRepository userRepository, JdbcTemplate jdbcTemplate) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    public boolean supervises(Long dirigenteId, Long acampanteId) {
+        if (dirigenteId == null || acampanteId == null) {
+            return false;
+        }
+        long[] acampantes = index.get(dirigenteId);
+        return acampantes != null && Arrays.binarySearch(acampantes, acampanteId) >= 0;
+    }
+
+    /**
+     * Devuelve los IDs que el dirigente no supervisa, en el orden recibido y sin repetidos
+     * (los IDs nulos se informan como no supervisados).
+     */
+    public Set<Long> findUnsupervised(Long dirigenteId, Collection<Long> acampanteIds) {
+        long[] acampantes = dirigenteId != null ? index.getOrDefault(dirigenteId, EMPTY) : EMPTY;
+        Set<Long> unsupervised = new LinkedHashSet<>();
+        for (Long acampanteId : acampanteIds) {
+            if (acampanteId == null || Arrays.binarySearch(acampantes, acampanteId) < 0) {
+                unsupervised.add(acampanteId);
+            }
+        }
+        return unsupervised;
+    }
+
+    /**
+     * Registra una asignación hecha en la transacción actual: se aplica localmente tras el commit y se
+     * notifica a los demás nodos (NOTIFY solo se entrega si la transacción confirma).
+     */
+    public void recordAssignment(Long dirigenteId, Long acampanteId) {
+        notifyNodes("+" + dirigenteId + ":" + acampanteId);
+        afterCommit(() -> add(dirigenteId, acampanteId));
+    }
+
+    public void recordRemoval(Long dirigenteId, Long acampanteId) {
+        notifyNodes("-" + dirigenteId + ":" + acampanteId);
+        afterCommit(() -> remove(dirigenteId, acampanteId));
+    }
+
+    /**
+     * Variante masiva de recordAssignment: un NOTIFY por cada {@value #IDS_PER_NOTIFICATION} acampantes
+     * ("+dirigenteId:id1,id2,...") y una sola actualización local del dirigente tras el commit.
+     */
+    public void recordAssignments(Long dirigenteId, Collection<Long> acampanteIds) {
+        if (acampanteIds.isEmpty()) {
+            return;
+        }
+        long[] ids = toSortedArray(acampanteIds);
+        notifyNodes('+', dirigenteId, ids);
+        afterCommit(() -> addAll(dirigenteId, ids));
+    }
+
+    public void recordRemovals(Long dirigenteId, Collection<Long> acampanteIds) {
+        if (acampanteIds.isEmpty()) {
+            return;
+        }
+        long[] ids = toSortedArray(acampanteIds);
+        notifyNodes('-', dirigenteId, ids);
+        afterCommit(() -> removeAll(dirigenteId, ids));
+    }
+
+    /**
+     * Hook para cambios que el índice no puede deducir (roles modificados, usuarios borrados):
+     * recarga el índice completo en todos los nodos tras el commit.
+     */
+    public void recordBulkChange() {
+        notifyNodes("*");
+        afterCommit(this::reload);
+    }
+
+    /**
+     * Aplica una notificación recibida de otro nodo (o del propio; aplicar dos veces es inocuo).
+     */
+    public void applyNotification(String payload) {
+        if (payload == null || payload.isEmpty()) {
+            return;
+        }
+        if (payload.equals("*")) {
+            reload();
+            return;
+        }
+        try {
+            char operation = payload.charAt(0);
+            int separator = payload.indexOf(':');
+            long dirigenteId = Long.parseLong(payload.substring(1, separator));
+            long[] acampanteIds = Arrays.stream(payload.substring(separator + 1).split(","))
+                    .mapToLong(Long::parseLong)
+                    .sorted()
+                    .toArray();
+            if (operation == '+') {
+                addAll(dirigenteId, acampanteIds);
+            } else if (operation == '-') {
+                removeAll(dirigenteId, acampanteIds);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Notificación de supervisión inválida '{}', recargando el índice", payload);
+            reload();
+        }
+    }
+
+    /**
+     * Reconstruye el índice desde user_supervision. Las escrituras incrementales esperan a que termine,
+     * de modo que ninguna confirmada después de la lectura se pierde al reemplazar el mapa.
+     */
+    @Scheduled(fixedDelayString = "${seguridad.supervision.recarga-ms:600000}",
+               initialDelayString = "${seguridad.supervision.recarga-ms:600000}")
+    public synchronized void reload() {
+        Map<Long, List<Long>> pairs = new HashMap<>();
+        for (Object[] row : userRepository.findSupervisionPairs()) {
+            pairs.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+        Map<Long, long[]> rebuilt = new ConcurrentHashMap<>();
+        pairs.forEach((dirigenteId, acampanteIds) -> rebuilt.put(dirigenteId, toSortedArray(acampanteIds)));
+        index = rebuilt;
+        log.debug("Índice de supervisión cargado: {} dirigentes, {} asignaciones",
+                rebuilt.size(), rebuilt.values().stream().mapToInt(a -> a.length).sum());
+    }
+
+    private synchronized void add(long dirigenteId, long acampanteId) {
+        long[] current = index.getOrDefault(dirigenteId, EMPTY);
+        int position = Arrays.binarySearch(current, acampanteId);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = acampanteId;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        index.put(dirigenteId, updated);
+    }
+
+    private synchronized void remove(long dirigenteId, long acampanteId) {
+        long[] current = index.get(dirigenteId);
+        int position = current != null ? Arrays.binarySearch(current, acampanteId) : -1;
+        if (position < 0) {
+            return;
+        }
+        if (current.length == 1) {
+            index.remove(dirigenteId);
+            return;
+        }
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, position);
+        System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+        index.put(dirigenteId, updated);
+    }
+
+    // Une el array ordenado actual con los IDs ordenados recibidos, sin repetidos
+    private synchronized void addAll(long dirigenteId, long[] acampanteIds) {
+        long[] current = index.getOrDefault(dirigenteId, EMPTY);
+        long[] merged = new long[current.length + acampanteIds.length];
+        int i = 0, j = 0, size = 0;
+        while (i < current.length || j < acampanteIds.length) {
+            long next = j >= acampanteIds.length || (i < current.length && current[i] <= acampanteIds[j])
+                    ? current[i++] : acampanteIds[j++];
+            if (size == 0 || merged[size - 1] != next) {
+                merged[size++] = next;
+            }
+        }
+        index.put(dirigenteId, size == merged.length ? merged : Arrays.copyOf(merged, size));
+    }
+
+    private synchronized void removeAll(long dirigenteId, long[] acampanteIds) {
+        long[] current = index.get(dirigenteId);
+        if (current == null) {
+            return;
+        }
+        long[] kept = Arrays.stream(current).filter(id -> Arrays.binarySearch(acampanteIds, id) < 0).toArray();
+        if (kept.length == 0) {
+            index.remove(dirigenteId);
+        } else if (kept.length < current.length) {
+            index.put(dirigenteId, kept);
+        }
+    }
+
+    private void notifyNodes(char operation, Long dirigenteId, long[] acampanteIds) {
+        for (int from = 0; from < acampanteIds.length; from += IDS_PER_NOTIFICATION) {
+            int to = Math.min(from + IDS_PER_NOTIFICATION, acampanteIds.length);
+            StringBuilder payload = new StringBuilder().append(operation).append(dirigenteId).append(':');
+            for (int k = from; k < to; k++) {
+                if (k > from) {
+                    payload.append(',');
+                }
+                payload.append(acampanteIds[k]);
+            }
+            notifyNodes(payload.toString());
+        }
+    }
+
+    private void notifyNodes(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, CHANNEL, payload);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long[] toSortedArray(Collection<Long> ids) {
+        long[] array = ids.stream().mapToLong(Long::longValue).distinct().toArray();
+        Arrays.sort(array);
+        return array;
+    }
+}
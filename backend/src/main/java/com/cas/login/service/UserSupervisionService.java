@@ -1,43 +1,57 @@
 package com.cas.login.service;
 
+import com.cas.login.dto.SupervisionAssignmentDto;
+import com.cas.login.dto.SupervisionBulkResultDto;
+import com.cas.login.dto.SupervisionUserDto;
+import com.cas.login.dto.UserSummaryDto;
 import com.cas.login.model.User;
-import com.cas.login.model.Role;
 import com.cas.login.repository.UserRepository;
-import com.cas.login.repository.RoleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class UserSupervisionService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final SupervisionIndex supervisionIndex;
 
-    // Nombres de los roles (podrían venir de constantes)
-    private static final String ROLE_DIRIGENTE_NAME = "ROLE_DIRIGENTE";
-    private static final String ROLE_ACAMPANTE_NAME = "ROLE_ACAMPANTE";
+    private static final Set<String> SUMMARY_SORT_PROPERTIES = Set.of("id", "username");
+
+    // IDs por sentencia en las operaciones masivas (listas IN de tamaño acotado)
+    private static final int BULK_BATCH_SIZE = 1000;
 
     @Autowired
-    public UserSupervisionService(UserRepository userRepository, RoleRepository roleRepository) {
+    public UserSupervisionService(UserRepository userRepository, RoleRegistry roleRegistry,
+                                  SupervisionIndex supervisionIndex) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.supervisionIndex = supervisionIndex;
     }
 
-    private Role getDirigenteRole() {
-        return roleRepository.findByName(ROLE_DIRIGENTE_NAME)
-                .orElseThrow(() -> new IllegalStateException(ROLE_DIRIGENTE_NAME + " not found. Please ensure roles are loaded."));
+    // Comparan IDs de rol contra el registro en memoria, sin consultar la tabla roles
+    private boolean isDirigente(User user) {
+        return roleRegistry.hasRole(user, RoleRegistry.ROLE_DIRIGENTE);
     }
 
-    private Role getAcampanteRole() {
-        return roleRepository.findByName(ROLE_ACAMPANTE_NAME)
-                .orElseThrow(() -> new IllegalStateException(ROLE_ACAMPANTE_NAME + " not found. Please ensure roles are loaded."));
+    private boolean isAcampante(User user) {
+        return roleRegistry.hasRole(user, RoleRegistry.ROLE_ACAMPANTE);
     }
 
     @Transactional
@@ -48,10 +62,10 @@ public class UserSupervisionService {
                 .orElseThrow(() -> new IllegalArgumentException("Acampante not found with ID: " + acampanteId));
 
         // Validar roles (opcional pero recomendado)
-        if (!dirigente.getRoles().contains(getDirigenteRole())) {
+        if (!isDirigente(dirigente)) {
             throw new IllegalArgumentException("User " + dirigenteId + " is not a DIRIGENTE.");
         }
-        if (!acampante.getRoles().contains(getAcampanteRole())) {
+        if (!isAcampante(acampante)) {
             throw new IllegalArgumentException("User " + acampanteId + " is not an ACAMPANTE.");
         }
 
@@ -67,6 +81,11 @@ public class UserSupervisionService {
         // podemos guardar también acampante si es necesario, aunque la tabla de unión la gestiona el lado propietario.
         // userRepository.save(acampante); // Usualmente no es necesario si la relación está bien configurada.
 
+        // El índice de supervisión se actualiza al confirmar la transacción (y en los demás nodos vía NOTIFY)
+        if (addedToDirigente) {
+            supervisionIndex.recordAssignment(dirigenteId, acampanteId);
+        }
+
         return addedToDirigente || addedToAcampante; // Retorna true si se hizo algún cambio
     }
 
@@ -83,15 +102,139 @@ public class UserSupervisionService {
         userRepository.save(dirigente);
         // userRepository.save(acampante); // Similar al de assign
 
+        if (removedFromDirigente) {
+            supervisionIndex.recordRemoval(dirigenteId, acampanteId);
+        }
+
         return removedFromDirigente || removedFromAcampante;
     }
 
+    /**
+     * Asigna varios acampantes a un dirigente trabajando solo con IDs: valida los roles con una consulta y
+     * escribe user_supervision con INSERT ... ON CONFLICT DO NOTHING, sin cargar entidades ni colecciones.
+     */
+    @Transactional
+    public SupervisionBulkResultDto assignAcampantesToDirigente(Long dirigenteId, Collection<Long> acampanteIds) {
+        return assignAll(List.of(new SupervisionAssignmentDto(dirigenteId, new ArrayList<>(acampanteIds))));
+    }
+
+    @Transactional
+    public SupervisionBulkResultDto removeAcampantesFromDirigente(Long dirigenteId, Collection<Long> acampanteIds) {
+        return removeAll(List.of(new SupervisionAssignmentDto(dirigenteId, new ArrayList<>(acampanteIds))));
+    }
+
+    /**
+     * Asigna un mapeo completo dirigente → acampantes en una transacción. Si algún usuario no tiene el rol
+     * esperado (o no existe) no se escribe nada y se lanza IllegalArgumentException con sus IDs.
+     */
+    @Transactional
+    public SupervisionBulkResultDto assignAll(Collection<SupervisionAssignmentDto> assignments) {
+        Map<Long, Set<Long>> mapping = toMapping(assignments);
+        validateRoles(mapping);
+
+        int requested = 0;
+        int inserted = 0;
+        for (Map.Entry<Long, Set<Long>> entry : mapping.entrySet()) {
+            for (List<Long> batch : batches(entry.getValue())) {
+                inserted += userRepository.insertSupervisionPairs(entry.getKey(), batch);
+            }
+            requested += entry.getValue().size();
+            // Añadir un par que ya existía es inocuo para el índice
+            supervisionIndex.recordAssignments(entry.getKey(), entry.getValue());
+        }
+        return new SupervisionBulkResultDto(requested, inserted);
+    }
+
+    /**
+     * Quita los pares indicados con DELETE ... WHERE IN. No valida roles: quitar un par inexistente no hace nada.
+     */
+    @Transactional
+    public SupervisionBulkResultDto removeAll(Collection<SupervisionAssignmentDto> assignments) {
+        Map<Long, Set<Long>> mapping = toMapping(assignments);
+
+        int requested = 0;
+        int deleted = 0;
+        for (Map.Entry<Long, Set<Long>> entry : mapping.entrySet()) {
+            for (List<Long> batch : batches(entry.getValue())) {
+                deleted += userRepository.deleteSupervisionPairs(entry.getKey(), batch);
+            }
+            requested += entry.getValue().size();
+            supervisionIndex.recordRemovals(entry.getKey(), entry.getValue());
+        }
+        return new SupervisionBulkResultDto(requested, deleted);
+    }
+
+    // Agrupa por dirigente y elimina repetidos, conservando el orden recibido
+    private Map<Long, Set<Long>> toMapping(Collection<SupervisionAssignmentDto> assignments) {
+        if (assignments == null || assignments.isEmpty()) {
+            throw new IllegalArgumentException("At least one assignment is required.");
+        }
+        Map<Long, Set<Long>> mapping = new LinkedHashMap<>();
+        for (SupervisionAssignmentDto assignment : assignments) {
+            if (assignment == null || assignment.getDirigenteId() == null) {
+                throw new IllegalArgumentException("dirigenteId is required.");
+            }
+            if (assignment.getAcampanteIds() == null || assignment.getAcampanteIds().contains(null)) {
+                throw new IllegalArgumentException("acampanteIds must be a list of IDs for dirigente "
+                        + assignment.getDirigenteId() + ".");
+            }
+            mapping.computeIfAbsent(assignment.getDirigenteId(), id -> new LinkedHashSet<>())
+                    .addAll(assignment.getAcampanteIds());
+        }
+        return mapping;
+    }
+
+    // Una consulta sobre user_roles para todos los usuarios del mapeo (una por lote si hay más de BULK_BATCH_SIZE)
+    private void validateRoles(Map<Long, Set<Long>> mapping) {
+        Integer dirigenteRoleId = roleRegistry.findId(RoleRegistry.ROLE_DIRIGENTE).orElse(null);
+        Integer acampanteRoleId = roleRegistry.findId(RoleRegistry.ROLE_ACAMPANTE).orElse(null);
+        List<Integer> roleIds = new ArrayList<>();
+        Optional.ofNullable(dirigenteRoleId).ifPresent(roleIds::add);
+        Optional.ofNullable(acampanteRoleId).ifPresent(roleIds::add);
+
+        Set<Long> userIds = new LinkedHashSet<>(mapping.keySet());
+        mapping.values().forEach(userIds::addAll);
+
+        Set<Long> dirigentes = new HashSet<>();
+        Set<Long> acampantes = new HashSet<>();
+        if (!roleIds.isEmpty()) {
+            for (List<Long> batch : batches(userIds)) {
+                for (Object[] row : userRepository.findRoleIdsByUserIdIn(batch, roleIds)) {
+                    if (row[1].equals(dirigenteRoleId)) {
+                        dirigentes.add((Long) row[0]);
+                    } else if (row[1].equals(acampanteRoleId)) {
+                        acampantes.add((Long) row[0]);
+                    }
+                }
+            }
+        }
+
+        List<Long> notDirigentes = mapping.keySet().stream().filter(id -> !dirigentes.contains(id)).toList();
+        if (!notDirigentes.isEmpty()) {
+            throw new IllegalArgumentException("Users " + notDirigentes + " are not DIRIGENTE or do not exist.");
+        }
+        Set<Long> notAcampantes = new LinkedHashSet<>();
+        mapping.values().forEach(ids -> ids.stream().filter(id -> !acampantes.contains(id)).forEach(notAcampantes::add));
+        if (!notAcampantes.isEmpty()) {
+            throw new IllegalArgumentException("Users " + notAcampantes + " are not ACAMPANTE or do not exist.");
+        }
+    }
+
+    private static List<List<Long>> batches(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += BULK_BATCH_SIZE) {
+            batches.add(all.subList(from, Math.min(from + BULK_BATCH_SIZE, all.size())));
+        }
+        return batches;
+    }
+
     @Transactional(readOnly = true)
     public Set<User> getSupervisedCampers(Long dirigenteId) {
         User dirigente = userRepository.findById(dirigenteId)
                 .orElseThrow(() -> new IllegalArgumentException("Dirigente not found with ID: " + dirigenteId));
 
-        if (!dirigente.getRoles().contains(getDirigenteRole())) {
+        if (!isDirigente(dirigente)) {
             // Opcional: lanzar error o devolver vacío si el usuario no es dirigente
             // throw new IllegalArgumentException("User " + dirigenteId + " is not a DIRIGENTE.");
              return Collections.emptySet();
@@ -106,7 +249,7 @@ public class UserSupervisionService {
         User acampante = userRepository.findById(acampanteId)
                 .orElseThrow(() -> new IllegalArgumentException("Acampante not found with ID: " + acampanteId));
 
-        if (!acampante.getRoles().contains(getAcampanteRole())) {
+        if (!isAcampante(acampante)) {
             // Opcional: lanzar error o devolver vacío
             // throw new IllegalArgumentException("User " + acampanteId + " is not an ACAMPANTE.");
             return Collections.emptySet();
@@ -117,43 +260,106 @@ public class UserSupervisionService {
 
     @Transactional(readOnly = true)
     public List<User> findAllDirigentes() {
-        Role dirigenteRole = getDirigenteRole();
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRoles().contains(dirigenteRole))
-                .collect(Collectors.toList());
+        return findAllWithRole(RoleRegistry.ROLE_DIRIGENTE);
     }
 
     @Transactional(readOnly = true)
     public List<User> findAllAcampantes() {
-        Role acampanteRole = getAcampanteRole();
-        return userRepository.findAll().stream()
-                .filter(user -> user.getRoles().contains(acampanteRole))
-                .collect(Collectors.toList());
+        return findAllWithRole(RoleRegistry.ROLE_ACAMPANTE);
+    }
+
+    /**
+     * Página de dirigentes como proyección (id, username). Solo admite ordenar por id o username.
+     */
+    @Transactional(readOnly = true)
+    public Page<UserSummaryDto> findDirigentes(Pageable pageable) {
+        return findSummariesWithRole(RoleRegistry.ROLE_DIRIGENTE, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<UserSummaryDto> findAcampantes(Pageable pageable) {
+        return findSummariesWithRole(RoleRegistry.ROLE_ACAMPANTE, pageable);
+    }
+
+    // El filtro por rol se resuelve en la base de datos sobre user_roles.role_id
+    private List<User> findAllWithRole(String roleName) {
+        return roleRegistry.findId(roleName)
+                .map(userRepository::findAllByRoleIdWithRoles)
+                .orElse(Collections.emptyList());
+    }
+
+    private Page<UserSummaryDto> findSummariesWithRole(String roleName, Pageable pageable) {
+        Pageable sorted = summaryPageable(pageable);
+        return roleRegistry.findId(roleName)
+                .map(roleId -> userRepository.findSummariesByRoleId(roleId, sorted))
+                .orElseGet(() -> Page.empty(pageable));
+    }
+
+    /**
+     * Página de los acampantes de un dirigente como proyección (id, username, nombre): una sola consulta,
+     * más el conteo solo si la página viene llena. Vacía si el usuario no es dirigente o no existe.
+     */
+    @Transactional(readOnly = true)
+    public Page<SupervisionUserDto> findSupervisedCampers(Long dirigenteId, Pageable pageable) {
+        Pageable sorted = summaryPageable(pageable);
+        return roleRegistry.findId(RoleRegistry.ROLE_DIRIGENTE)
+                .map(roleId -> userRepository.findSupervisedCamperSummaries(dirigenteId, roleId, sorted))
+                .orElseGet(() -> Page.empty(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public long countSupervisedCampers(Long dirigenteId) {
+        return roleRegistry.findId(RoleRegistry.ROLE_DIRIGENTE)
+                .map(roleId -> userRepository.countSupervisedCampers(dirigenteId, roleId))
+                .orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<SupervisionUserDto> findSupervisors(Long acampanteId, Pageable pageable) {
+        Pageable sorted = summaryPageable(pageable);
+        return roleRegistry.findId(RoleRegistry.ROLE_ACAMPANTE)
+                .map(roleId -> userRepository.findSupervisorSummaries(acampanteId, roleId, sorted))
+                .orElseGet(() -> Page.empty(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public long countSupervisors(Long acampanteId) {
+        return roleRegistry.findId(RoleRegistry.ROLE_ACAMPANTE)
+                .map(roleId -> userRepository.countSupervisors(acampanteId, roleId))
+                .orElse(0L);
+    }
+
+    // Solo se admite ordenar por id o username; sin orden explícito se ordena por id
+    private Pageable summaryPageable(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SUMMARY_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort users by '" + order.getProperty()
+                        + "'. Allowed: " + SUMMARY_SORT_PROPERTIES);
+            }
+        }
+        // Orden estable por id cuando no se pide otro, para que las páginas no se solapen
+        return pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
     }
 
     /**
-     * Verifica si un dirigente específico supervisa a un acampante específico
+     * Verifica si un dirigente específico supervisa a un acampante específico.
+     * Se resuelve contra el índice en memoria, sin consultas (el índice solo contiene pares con
+     * ROLE_DIRIGENTE y ROLE_ACAMPANTE).
      * 
      * @param dirigenteId ID del dirigente
      * @param acampanteId ID del acampante
      * @return true si el dirigente supervisa al acampante, false en caso contrario
      */
-    @Transactional(readOnly = true)
     public boolean dirigenteSuperviseAcampante(Long dirigenteId, Long acampanteId) {
-        if (dirigenteId == null || acampanteId == null) {
-            return false;
-        }
-
-        User dirigente = userRepository.findById(dirigenteId).orElse(null);
-        if (dirigente == null || !dirigente.getRoles().contains(getDirigenteRole())) {
-            return false;
-        }
-
-        User acampante = userRepository.findById(acampanteId).orElse(null);
-        if (acampante == null || !acampante.getRoles().contains(getAcampanteRole())) {
-            return false;
-        }
+        return supervisionIndex.supervises(dirigenteId, acampanteId);
+    }
 
-        return dirigente.getSupervisedCampers().contains(acampante);
+    /**
+     * Devuelve, de los acampantes indicados, los que el dirigente no supervisa (vacío si los supervisa a todos).
+     * Una sola consulta al índice en memoria para todo el conjunto.
+     */
+    public Set<Long> findUnsupervisedAcampantes(Long dirigenteId, Collection<Long> acampanteIds) {
+        return supervisionIndex.findUnsupervised(dirigenteId, acampanteIds);
     }
 }
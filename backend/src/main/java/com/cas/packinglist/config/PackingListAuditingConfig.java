@@ -0,0 +1,13 @@
+package com.cas.packinglist.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Enables the AuditingEntityListener used by the packing list entities, so createdAt/updatedAt
+ * (NOT NULL columns) are filled on insert and refreshed on every update.
+ */
+@Configuration
+@EnableJpaAuditing
+public class PackingListAuditingConfig {
+}
@@ -1,9 +1,17 @@
 package com.cas.packinglist.controller;
 
 import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemCreateDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import com.cas.packinglist.dto.PackingListItemPatchDto;
+import com.cas.packinglist.exception.PackingListVersionMismatchException;
+import com.cas.packinglist.exception.PreconditionRequiredException;
 import com.cas.packinglist.exception.ResourceNotFoundException;
 import com.cas.packinglist.service.PackingListService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -15,11 +23,22 @@ import org.springframework.web.bind.annotation.*;
 // Import the UserDetailsImpl from the specified path if it exists and is used.
 import com.cas.login.security.UserDetailsImpl; // Adjusted path based on typical project structure
 
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The list's version is its strong ETag. GET answers 304 when If-None-Match still matches, and every write
+ * must send the ETag it is based on in If-Match (428 without it, 412 if the list has changed since); the
+ * response carries the new ETag. A first list is created with If-None-Match: * instead.
+ */
 @RestController
 @RequestMapping("/api/packing-list")
 @RequiredArgsConstructor
 public class PackingListController {
 
+    // Clients may keep the list but must revalidate it (cheap with If-None-Match) before using it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final PackingListService packingListService;
 
     /**
@@ -39,6 +58,11 @@ public class PackingListController {
 
         Object principal = authentication.getPrincipal();
 
+        // Session, HTTP Basic and Bearer token logins all carry a UserDetailsImpl with the user's ID
+        if (principal instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+
         if (principal instanceof UserDetails) {
             // Attempt to cast to a known UserDetails implementation that has an ID
             // This is an example, replace UserDetailsImpl with your actual class
@@ -87,11 +111,24 @@ public class PackingListController {
     }
 
     @GetMapping
-    public ResponseEntity<PackingListDto> getPackingList() {
+    public ResponseEntity<PackingListDto> getPackingList(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Long userId = getCurrentUserId();
+            // Polling clients send back their ETag: answering 304 only needs the version, not the list
+            if (ifNoneMatch != null) {
+                Optional<Long> version = packingListService.findVersionForUser(userId);
+                if (version.isPresent() && matchesAny(ifNoneMatch, version.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(eTag(version.get())).cacheControl(REVALIDATE).build();
+                }
+            }
             PackingListDto packingListDto = packingListService.getPackingListForUser(userId);
-            return ResponseEntity.ok(packingListDto);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(REVALIDATE);
+            if (packingListDto.getVersion() != null) { // No ETag for a list that doesn't exist yet
+                response.eTag(eTag(packingListDto.getVersion()));
+            }
+            return response.body(packingListDto);
         } catch (ResourceNotFoundException e) {
             // This case might not be hit if getPackingListForUser returns an empty DTO instead of throwing
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // Or an error DTO
@@ -102,11 +139,17 @@ public class PackingListController {
     }
 
     @PostMapping
-    public ResponseEntity<PackingListDto> savePackingList(@RequestBody PackingListDto packingListDto) {
+    public ResponseEntity<PackingListDto> savePackingList(
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestBody PackingListDto packingListDto) {
         try {
             Long userId = getCurrentUserId();
-            PackingListDto savedPackingListDto = packingListService.savePackingListForUser(userId, packingListDto);
-            return ResponseEntity.ok(savedPackingListDto);
+            // null: create only, for clients that got no ETag because the user had no list
+            Long expectedVersion = ifMatch == null && ifNoneMatch != null && ifNoneMatch.trim().equals("*")
+                    ? null : expectedVersion(ifMatch);
+            PackingListDto savedPackingListDto = packingListService.savePackingListForUser(userId, packingListDto, expectedVersion);
+            return ResponseEntity.ok().eTag(eTag(savedPackingListDto.getVersion())).body(savedPackingListDto);
         } catch (ResourceNotFoundException e) {
             // This exception is thrown by the service if the User entity itself is not found
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // Or an error DTO with e.getMessage()
@@ -116,6 +159,96 @@ public class PackingListController {
         }
     }
 
+    // --- Item-level endpoints: request and DB work scale with the change, not with the list ---
+
+    // Each one moves the list to version expectedVersion + 1, which is returned as the new ETag
+
+    // Check/uncheck and/or rename one item: {"checked": true} or {"text": "..."}
+    @PatchMapping("/items/{itemId}")
+    public ResponseEntity<Void> updateItem(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @PathVariable Long itemId, @RequestBody PackingListItemPatchDto patch) {
+        long expectedVersion = expectedVersion(ifMatch);
+        packingListService.updateItem(getCurrentUserId(), expectedVersion, itemId, patch);
+        return ResponseEntity.noContent().eTag(eTag(expectedVersion + 1)).build();
+    }
+
+    @PostMapping("/categories/{categoryId}/items")
+    public ResponseEntity<PackingListItemDto> addItem(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                      @PathVariable Long categoryId, @RequestBody PackingListItemCreateDto item) {
+        long expectedVersion = expectedVersion(ifMatch);
+        PackingListItemDto added = packingListService.addItem(getCurrentUserId(), expectedVersion, categoryId, item);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(expectedVersion + 1)).body(added);
+    }
+
+    @DeleteMapping("/items/{itemId}")
+    public ResponseEntity<Void> removeItem(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @PathVariable Long itemId) {
+        long expectedVersion = expectedVersion(ifMatch);
+        packingListService.removeItem(getCurrentUserId(), expectedVersion, itemId);
+        return ResponseEntity.noContent().eTag(eTag(expectedVersion + 1)).build();
+    }
+
+    // Body: the category's item ids in their new order
+    @PutMapping("/categories/{categoryId}/items/order")
+    public ResponseEntity<Void> reorderItems(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @PathVariable Long categoryId, @RequestBody List<Long> itemIds) {
+        long expectedVersion = expectedVersion(ifMatch);
+        packingListService.reorderItems(getCurrentUserId(), expectedVersion, categoryId, itemIds);
+        return ResponseEntity.noContent().eTag(eTag(expectedVersion + 1)).build();
+    }
+
+    // Template items (templateItemId in the GET response) are shared: these only write the camper's override
+
+    @PatchMapping("/template-items/{templateItemId}")
+    public ResponseEntity<Void> updateTemplateItem(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @PathVariable Long templateItemId, @RequestBody PackingListItemPatchDto patch) {
+        long expectedVersion = expectedVersion(ifMatch);
+        packingListService.updateTemplateItem(getCurrentUserId(), expectedVersion, templateItemId, patch);
+        return ResponseEntity.noContent().eTag(eTag(expectedVersion + 1)).build();
+    }
+
+    @DeleteMapping("/template-items/{templateItemId}")
+    public ResponseEntity<Void> removeTemplateItem(@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @PathVariable Long templateItemId) {
+        long expectedVersion = expectedVersion(ifMatch);
+        packingListService.removeTemplateItem(getCurrentUserId(), expectedVersion, templateItemId);
+        return ResponseEntity.noContent().eTag(eTag(expectedVersion + 1)).build();
+    }
+
+    // --- ETag helpers ---
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match uses weak comparison, so W/"3" also matches version 3
+    private static boolean matchesAny(String ifNoneMatch, long version) {
+        String eTag = eTag(version);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(eTag) || value.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Version a write is based on; If-Match uses strong comparison, so anything but one of our ETags fails
+    private static long expectedVersion(String ifMatch) {
+        if (ifMatch == null) {
+            throw new PreconditionRequiredException("Send the packing list's ETag in the If-Match header");
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Long.parseLong(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not an ETag of ours: falls through to the mismatch below
+            }
+        }
+        throw new PackingListVersionMismatchException("If-Match " + value + " does not match the packing list");
+    }
+
     // Optional: Exception handler for ResourceNotFoundException from the service
     // This can be defined here or in a @ControllerAdvice class
     @ExceptionHandler(ResourceNotFoundException.class)
@@ -123,6 +256,23 @@ public class PackingListController {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(PackingListVersionMismatchException.class)
+    public ResponseEntity<String> handleVersionMismatch(PackingListVersionMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    // Two saves passed the version check at the same time; the one that flushed second lost
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                .body("The packing list was changed concurrently; reload it and retry");
+    }
+
+    @ExceptionHandler(PreconditionRequiredException.class)
+    public ResponseEntity<String> handlePreconditionRequired(PreconditionRequiredException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).body(ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<String> handleIllegalState(IllegalStateException ex) {
         // Specific to issues within getCurrentUserId or auth problems
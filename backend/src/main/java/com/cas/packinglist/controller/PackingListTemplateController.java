@@ -0,0 +1,37 @@
+package com.cas.packinglist.controller;
+
+import com.cas.packinglist.dto.PackingListTemplateAssignResultDto;
+import com.cas.packinglist.dto.PackingListTemplateDto;
+import com.cas.packinglist.exception.ResourceNotFoundException;
+import com.cas.packinglist.service.PackingListTemplateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/packing-list/templates")
+@RequiredArgsConstructor
+public class PackingListTemplateController {
+
+    private final PackingListTemplateService packingListTemplateService;
+
+    @PostMapping
+    public ResponseEntity<PackingListTemplateDto> createTemplate(@RequestBody PackingListTemplateDto templateDto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(packingListTemplateService.createTemplate(templateDto));
+    }
+
+    // Body: ids of the campers who get a list based on this template
+    @PostMapping("/{templateId}/assign")
+    public ResponseEntity<PackingListTemplateAssignResultDto> assignTemplate(@PathVariable Long templateId,
+                                                                             @RequestBody List<Long> userIds) {
+        return ResponseEntity.ok(packingListTemplateService.assignTemplate(templateId, userIds));
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<String> handleResourceNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+}
@@ -14,5 +14,7 @@ public class PackingListCategoryDto {
     private Long id;
     private String title;
     private int displayOrder;
+    // Set for template categories; id is then the camper's own category for added items (null if none yet)
+    private Long templateCategoryId;
     private List<PackingListItemDto> items = new ArrayList<>();
 }
@@ -13,7 +13,11 @@ import java.util.ArrayList;
 @AllArgsConstructor
 public class PackingListDto {
     private Long id;
+    // Template the list is based on (null for a fully private list); read-only
+    private Long templateId;
     private List<PackingListCategoryDto> categories = new ArrayList<>();
     private Instant createdAt;
     private Instant updatedAt;
+    // Same value as the ETag header; read-only (send it back in If-Match)
+    private Long version;
 }
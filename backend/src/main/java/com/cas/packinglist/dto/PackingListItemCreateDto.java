@@ -0,0 +1,16 @@
+package com.cas.packinglist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * New item for an existing category. Without displayOrder the item is appended at the end.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListItemCreateDto {
+    private String text;
+    private Integer displayOrder;
+}
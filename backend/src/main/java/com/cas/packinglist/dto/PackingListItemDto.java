@@ -12,4 +12,10 @@ public class PackingListItemDto {
     private String text;
     private boolean isChecked;
     private int displayOrder;
+    // Set (and id null) for items that come from the list's template
+    private Long templateItemId;
+
+    public PackingListItemDto(Long id, String text, boolean isChecked, int displayOrder) {
+        this(id, text, isChecked, displayOrder, null);
+    }
 }
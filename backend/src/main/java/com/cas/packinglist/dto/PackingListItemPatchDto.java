@@ -0,0 +1,16 @@
+package com.cas.packinglist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of a single item: null fields are left unchanged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListItemPatchDto {
+    private Boolean checked;
+    private String text;
+}
@@ -0,0 +1,16 @@
+package com.cas.packinglist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of assigning a template: campers who already had a list keep it and are not counted in created.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListTemplateAssignResultDto {
+    private int requested;
+    private int created;
+}
@@ -0,0 +1,20 @@
+package com.cas.packinglist.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared packing list template. Item checked states are ignored: every camper starts unchecked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListTemplateDto {
+    private Long id;
+    private String name;
+    private List<PackingListCategoryDto> categories = new ArrayList<>();
+}
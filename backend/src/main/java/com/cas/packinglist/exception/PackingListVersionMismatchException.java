@@ -0,0 +1,18 @@
+package com.cas.packinglist.exception;
+
+/**
+ * Exception thrown when a write was based on a version of the packing list that is no longer current
+ * (answered with 412 Precondition Failed).
+ */
+public class PackingListVersionMismatchException extends RuntimeException {
+
+    public PackingListVersionMismatchException(String message) {
+        super(message);
+    }
+
+    public PackingListVersionMismatchException(Long userId, Long currentVersion) {
+        super(currentVersion != null
+                ? "Packing list of user " + userId + " has changed; current version is " + currentVersion
+                : "User " + userId + " has no packing list yet");
+    }
+}
@@ -0,0 +1,12 @@
+package com.cas.packinglist.exception;
+
+/**
+ * Exception thrown when a write to the packing list comes without the version it is based on
+ * (answered with 428 Precondition Required).
+ */
+public class PreconditionRequiredException extends RuntimeException {
+
+    public PreconditionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -29,6 +29,11 @@ public class PackingList {
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
+    // Shared template this list is based on (null for a fully private list)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "template_id")
+    private PackingListTemplate template;
+
     @OneToMany(mappedBy = "packingList", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("displayOrder ASC") // Assuming categories should be ordered
     private List<PackingListCategory> categories = new ArrayList<>();
@@ -41,6 +46,11 @@ public class PackingList {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // Incremented by every save or item-level write that changes the list; exposed as the ETag
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Helper methods for bidirectional relationship
     public void addCategory(PackingListCategory category) {
         categories.add(category);
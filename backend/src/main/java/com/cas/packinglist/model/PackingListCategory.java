@@ -28,6 +28,10 @@ public class PackingListCategory {
     @JoinColumn(name = "packing_list_id", nullable = false)
     private PackingList packingList;
 
+    // Set when this category holds the camper's own items added to a template category
+    @Column(name = "template_category_id")
+    private Long templateCategoryId;
+
     @Column(nullable = false)
     private String title;
 
@@ -0,0 +1,40 @@
+package com.cas.packinglist.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A camper's difference from one template item: checked, or removed from their list.
+ * A template item without an override is shown unchecked.
+ */
+@Entity
+@Table(name = "packing_list_item_overrides",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"packing_list_id", "template_item_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListItemOverride {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "packing_list_id", nullable = false)
+    private Long packingListId;
+
+    @Column(name = "template_item_id", nullable = false)
+    private Long templateItemId;
+
+    @Column(name = "is_checked", nullable = false)
+    private boolean isChecked = false;
+
+    @Column(nullable = false)
+    private boolean removed = false;
+
+    public PackingListItemOverride(Long packingListId, Long templateItemId) {
+        this.packingListId = packingListId;
+        this.templateItemId = templateItemId;
+    }
+}
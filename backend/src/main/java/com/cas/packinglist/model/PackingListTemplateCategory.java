@@ -0,0 +1,46 @@
+package com.cas.packinglist.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "packing_list_template_categories")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListTemplateCategory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "template_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PackingListTemplate template;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "\"order\"", nullable = false) // Quoting "order" as it's a reserved keyword
+    private Integer displayOrder;
+
+    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OrderBy("displayOrder ASC")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private List<PackingListTemplateItem> items = new ArrayList<>();
+
+    public void addItem(PackingListTemplateItem item) {
+        items.add(item);
+        item.setCategory(this);
+    }
+}
@@ -0,0 +1,32 @@
+package com.cas.packinglist.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Entity
+@Table(name = "packing_list_template_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackingListTemplateItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PackingListTemplateCategory category;
+
+    @Column(nullable = false)
+    private String text;
+
+    @Column(name = "\"order\"", nullable = false) // Quoting "order" as it's a reserved keyword
+    private Integer displayOrder;
+}
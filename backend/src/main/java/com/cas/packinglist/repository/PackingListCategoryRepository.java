@@ -2,9 +2,16 @@ package com.cas.packinglist.repository;
 
 import com.cas.packinglist.model.PackingListCategory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PackingListCategoryRepository extends JpaRepository<PackingListCategory, Long> {
-    // You can add custom query methods here if needed in the future
+
+    // Initializes the items of every category of a list at once, instead of one lazy load per category
+    @Query("SELECT c FROM PackingListCategory c LEFT JOIN FETCH c.items WHERE c.packingList.id = :packingListId")
+    List<PackingListCategory> fetchItems(@Param("packingListId") Long packingListId);
 }
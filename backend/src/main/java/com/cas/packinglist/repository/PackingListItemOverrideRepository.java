@@ -0,0 +1,43 @@
+package com.cas.packinglist.repository;
+
+import com.cas.packinglist.model.PackingListItemOverride;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Overrides of template items. The single-item writes are upserts whose SELECT only finds the template
+ * item through the user's own list, so an item of another template matches no rows.
+ */
+@Repository
+public interface PackingListItemOverrideRepository extends JpaRepository<PackingListItemOverride, Long> {
+
+    List<PackingListItemOverride> findByPackingListId(Long packingListId);
+
+    // Sets the checked state of a template item in the user's list; returns 0 if the item is not in its template
+    @Modifying
+    @Query(value = "INSERT INTO packing_list_item_overrides (packing_list_id, template_item_id, is_checked, removed) " +
+                   "SELECT l.id, ti.id, :checked, false FROM packing_lists l " +
+                   "JOIN packing_list_template_categories tc ON tc.template_id = l.template_id " +
+                   "JOIN packing_list_template_items ti ON ti.category_id = tc.id " +
+                   "WHERE l.user_id = :userId AND ti.id = :templateItemId " +
+                   "ON CONFLICT (packing_list_id, template_item_id) DO UPDATE SET is_checked = EXCLUDED.is_checked",
+           nativeQuery = true)
+    int upsertCheckedForUser(@Param("userId") Long userId, @Param("templateItemId") Long templateItemId,
+                             @Param("checked") boolean checked);
+
+    // Removes a template item from the user's list (the template itself is untouched)
+    @Modifying
+    @Query(value = "INSERT INTO packing_list_item_overrides (packing_list_id, template_item_id, is_checked, removed) " +
+                   "SELECT l.id, ti.id, false, true FROM packing_lists l " +
+                   "JOIN packing_list_template_categories tc ON tc.template_id = l.template_id " +
+                   "JOIN packing_list_template_items ti ON ti.category_id = tc.id " +
+                   "WHERE l.user_id = :userId AND ti.id = :templateItemId " +
+                   "ON CONFLICT (packing_list_id, template_item_id) DO UPDATE SET removed = true",
+           nativeQuery = true)
+    int upsertRemovedForUser(@Param("userId") Long userId, @Param("templateItemId") Long templateItemId);
+}
@@ -2,9 +2,62 @@ package com.cas.packinglist.repository;
 
 import com.cas.packinglist.model.PackingListItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Item-level writes. Each one is a single statement whose WHERE clause also checks that the item (or
+ * category) belongs to the given user's packing list, so a foreign id simply matches no rows.
+ */
 @Repository
 public interface PackingListItemRepository extends JpaRepository<PackingListItem, Long> {
-    // You can add custom query methods here if needed in the future
+
+    // Updates checked state and/or text (null keeps the current value); returns 0 if the item is not the user's
+    @Modifying
+    @Query("UPDATE PackingListItem i SET i.isChecked = COALESCE(:checked, i.isChecked), " +
+           "i.text = COALESCE(:text, i.text), i.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE i.id = :itemId AND i.category.id IN " +
+           "(SELECT c.id FROM PackingListCategory c WHERE c.packingList.user.id = :userId)")
+    int updateItemForUser(@Param("userId") Long userId, @Param("itemId") Long itemId,
+                          @Param("checked") Boolean checked, @Param("text") String text);
+
+    // Appends an item to one of the user's categories (at the end unless displayOrder is given); returns id and order
+    @Query(value = "INSERT INTO packing_list_items (category_id, text, is_checked, \"order\", created_at, updated_at) " +
+                   "SELECT c.id, :text, false, " +
+                   "COALESCE(CAST(:displayOrder AS integer), " +
+                   "(SELECT MAX(i.\"order\") + 1 FROM packing_list_items i WHERE i.category_id = c.id), 0), now(), now() " +
+                   "FROM packing_list_categories c JOIN packing_lists l ON l.id = c.packing_list_id " +
+                   "WHERE c.id = :categoryId AND l.user_id = :userId " +
+                   "RETURNING id, \"order\" AS \"displayOrder\"",
+           nativeQuery = true)
+    Optional<InsertedItem> insertItemForUser(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+                                     @Param("text") String text, @Param("displayOrder") Integer displayOrder);
+
+    // Deletes an item of the user's packing list; returns 0 if it is not the user's
+    @Modifying
+    @Query("DELETE FROM PackingListItem i WHERE i.id = :itemId AND i.category.id IN " +
+           "(SELECT c.id FROM PackingListCategory c WHERE c.packingList.user.id = :userId)")
+    int deleteItemForUser(@Param("userId") Long userId, @Param("itemId") Long itemId);
+
+    // Sets displayOrder to each item's position in itemIds (0-based), for items of the user's category only
+    @Modifying
+    @Query(value = "UPDATE packing_list_items i SET \"order\" = array_position(ARRAY[:itemIds], i.id) - 1, " +
+                   "updated_at = now() " +
+                   "FROM packing_list_categories c JOIN packing_lists l ON l.id = c.packing_list_id " +
+                   "WHERE i.category_id = c.id AND c.id = :categoryId AND l.user_id = :userId " +
+                   "AND i.id IN (:itemIds)",
+           nativeQuery = true)
+    int reorderItemsForUser(@Param("userId") Long userId, @Param("categoryId") Long categoryId,
+                            @Param("itemIds") List<Long> itemIds);
+
+    interface InsertedItem {
+        Long getId();
+
+        Integer getDisplayOrder();
+    }
 }
@@ -2,12 +2,78 @@ package com.cas.packinglist.repository;
 
 import com.cas.packinglist.model.PackingList;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PackingListRepository extends JpaRepository<PackingList, Long> {
 
     Optional<PackingList> findByUserId(Long userId);
+
+    // The list with its categories for a save; PackingListCategoryRepository.fetchItems loads their items in one more query
+    @Query("SELECT l FROM PackingList l LEFT JOIN FETCH l.categories WHERE l.user.id = :userId")
+    Optional<PackingList> findWithCategoriesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Whole list as flat rows, materializing the template view in the same statement: a header row, then one
+     * row per template item (minus removed ones, with the camper's checked state) and one per own item
+     * (or per empty category), ordered by category and item displayOrder. Columns:
+     * [listId, createdAt, updatedAt, templateId, categoryId, templateCategoryId, title, categoryOrder,
+     *  itemId, templateItemId, text, isChecked, itemOrder, version]
+     */
+    @Query(value = "SELECT l.id AS list_id, l.created_at, l.updated_at, l.template_id, " +
+                   "CAST(NULL AS bigint) AS category_id, CAST(NULL AS bigint) AS template_category_id, " +
+                   "CAST(NULL AS varchar) AS title, CAST(NULL AS integer) AS category_order, " +
+                   "CAST(NULL AS bigint) AS item_id, CAST(NULL AS bigint) AS template_item_id, " +
+                   "CAST(NULL AS varchar) AS text, CAST(NULL AS boolean) AS is_checked, CAST(NULL AS integer) AS item_order, " +
+                   "l.version " +
+                   "FROM packing_lists l WHERE l.user_id = :userId " +
+                   "UNION ALL " +
+                   "SELECT l.id, l.created_at, l.updated_at, l.template_id, sc.id, tc.id, tc.title, tc.\"order\", " +
+                   "NULL, ti.id, ti.text, COALESCE(o.is_checked, false), ti.\"order\", l.version " +
+                   "FROM packing_lists l " +
+                   "JOIN packing_list_template_categories tc ON tc.template_id = l.template_id " +
+                   "LEFT JOIN packing_list_categories sc ON sc.packing_list_id = l.id AND sc.template_category_id = tc.id " +
+                   "LEFT JOIN packing_list_template_items ti ON ti.category_id = tc.id AND NOT EXISTS " +
+                   "(SELECT 1 FROM packing_list_item_overrides r " +
+                   "WHERE r.packing_list_id = l.id AND r.template_item_id = ti.id AND r.removed) " +
+                   "LEFT JOIN packing_list_item_overrides o ON o.packing_list_id = l.id AND o.template_item_id = ti.id " +
+                   "WHERE l.user_id = :userId " +
+                   "UNION ALL " +
+                   "SELECT l.id, l.created_at, l.updated_at, l.template_id, c.id, c.template_category_id, " +
+                   "COALESCE(tc.title, c.title), COALESCE(tc.\"order\", c.\"order\"), " +
+                   "i.id, NULL, i.text, i.is_checked, i.\"order\", l.version " +
+                   "FROM packing_lists l " +
+                   "JOIN packing_list_categories c ON c.packing_list_id = l.id " +
+                   "LEFT JOIN packing_list_template_categories tc ON tc.id = c.template_category_id AND tc.template_id = l.template_id " +
+                   "LEFT JOIN packing_list_items i ON i.category_id = c.id " +
+                   "WHERE l.user_id = :userId " +
+                   "ORDER BY category_order NULLS FIRST, template_category_id NULLS LAST, category_id, " +
+                   "item_order, template_item_id, item_id",
+           nativeQuery = true)
+    List<Object[]> findFlatRowsByUserId(@Param("userId") Long userId);
+
+    // Current version of the user's list, without loading it (conditional GETs, failed preconditions)
+    @Query("SELECT l.version FROM PackingList l WHERE l.user.id = :userId")
+    Optional<Long> findVersionByUserId(@Param("userId") Long userId);
+
+    // Moves the user's list to the next version if it is still at expectedVersion; returns 0 otherwise
+    @Modifying
+    @Query("UPDATE PackingList l SET l.version = l.version + 1, l.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE l.user.id = :userId AND l.version = :expectedVersion")
+    int incrementVersion(@Param("userId") Long userId, @Param("expectedVersion") long expectedVersion);
+
+    // One tiny row per camper pointing at the template; campers who already have a list are skipped
+    @Modifying
+    @Query(value = "INSERT INTO packing_lists (user_id, template_id, version, created_at, updated_at) " +
+                   "SELECT u.id, :templateId, 0, now(), now() FROM users u WHERE u.id IN (:userIds) " +
+                   "ON CONFLICT (user_id) DO NOTHING",
+           nativeQuery = true)
+    int createListsFromTemplate(@Param("templateId") Long templateId, @Param("userIds") Collection<Long> userIds);
 }
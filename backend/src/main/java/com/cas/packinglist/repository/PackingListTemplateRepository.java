@@ -0,0 +1,18 @@
+package com.cas.packinglist.repository;
+
+import com.cas.packinglist.model.PackingListTemplate;
+import com.cas.packinglist.model.PackingListTemplateCategory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PackingListTemplateRepository extends JpaRepository<PackingListTemplate, Long> {
+
+    // Categories of a template with their items, in one query (used when merging a camper's save)
+    @Query("SELECT c FROM PackingListTemplateCategory c LEFT JOIN FETCH c.items WHERE c.template.id = :templateId")
+    List<PackingListTemplateCategory> findCategoriesWithItems(@Param("templateId") Long templateId);
+}
@@ -4,35 +4,59 @@ import com.cas.login.model.User;
 import com.cas.login.repository.UserRepository;
 import com.cas.packinglist.dto.PackingListCategoryDto;
 import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemCreateDto;
 import com.cas.packinglist.dto.PackingListItemDto;
+import com.cas.packinglist.dto.PackingListItemPatchDto;
+import com.cas.packinglist.exception.PackingListVersionMismatchException;
 import com.cas.packinglist.exception.ResourceNotFoundException;
 import com.cas.packinglist.model.PackingList;
 import com.cas.packinglist.model.PackingListCategory;
 import com.cas.packinglist.model.PackingListItem;
+import com.cas.packinglist.model.PackingListItemOverride;
+import com.cas.packinglist.model.PackingListTemplateCategory;
+import com.cas.packinglist.model.PackingListTemplateItem;
+import com.cas.packinglist.repository.PackingListCategoryRepository;
+import com.cas.packinglist.repository.PackingListItemOverrideRepository;
+import com.cas.packinglist.repository.PackingListItemRepository;
 import com.cas.packinglist.repository.PackingListRepository;
-import jakarta.transaction.Transactional;
+import com.cas.packinglist.repository.PackingListTemplateRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor // For constructor injection
 public class PackingListService {
 
     private final PackingListRepository packingListRepository;
+    private final PackingListCategoryRepository packingListCategoryRepository;
     private final UserRepository userRepository; // Assuming this exists
+    private final PackingListItemRepository packingListItemRepository;
+    private final PackingListTemplateRepository packingListTemplateRepository;
+    private final PackingListItemOverrideRepository packingListItemOverrideRepository;
 
-    @Transactional
+    /**
+     * Reads the list, its categories and their items with a single query (flat rows assembled in memory,
+     * in displayOrder), instead of navigating the lazy collections one category at a time.
+     */
+    @Transactional(readOnly = true)
     public PackingListDto getPackingListForUser(Long userId) {
-        Optional<PackingList> packingListOpt = packingListRepository.findByUserId(userId);
-        if (packingListOpt.isPresent()) {
-            return mapToDto(packingListOpt.get());
-        } else {
+        List<Object[]> rows = packingListRepository.findFlatRowsByUserId(userId);
+        if (rows.isEmpty()) {
             // Return a new, empty DTO if no list exists for the user.
             // This represents a transient list that hasn't been saved yet.
             // The user entity itself is not part of this DTO directly.
@@ -44,107 +68,426 @@ public class PackingListService {
             // newDto.setUpdatedAt(Instant.now());
             return newDto;
         }
+        return assembleDto(rows);
+    }
+
+    // Version of the user's list (empty if they have none), for conditional GETs that skip the full read
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionForUser(Long userId) {
+        return packingListRepository.findVersionByUserId(userId);
     }
 
+    /**
+     * Saves the list only if it is still at expectedVersion (null: only if the user has no list yet), so a
+     * save based on an outdated copy fails instead of overwriting changes made elsewhere. The version moves
+     * only when something was actually written.
+     */
     @Transactional
-    public PackingListDto savePackingListForUser(Long userId, PackingListDto packingListDto) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    public PackingListDto savePackingListForUser(Long userId, PackingListDto packingListDto, Long expectedVersion) {
+        Optional<PackingList> existing = packingListRepository.findWithCategoriesByUserId(userId);
+        Long currentVersion = existing.map(PackingList::getVersion).orElse(null);
+        if (!Objects.equals(currentVersion, expectedVersion)) {
+            throw new PackingListVersionMismatchException(userId, currentVersion);
+        }
+        if (existing.isPresent()) {
+            // Managed entity: dirty checking writes only what mergeIntoEntity actually changed
+            PackingList packingList = existing.get();
+            if (!packingList.getCategories().isEmpty()) {
+                packingListCategoryRepository.fetchItems(packingList.getId());
+            }
+            if (mergeIntoEntity(packingListDto, packingList)) {
+                // Child rows don't dirty the list itself: touching it bumps @Version, and the UPDATE's version
+                // check on flush catches a concurrent save that passed the check above too
+                packingList.setUpdatedAt(Instant.now());
+            }
+        } else {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+            PackingList packingList = new PackingList();
+            packingList.setUser(user);
+            mergeIntoEntity(packingListDto, packingList);
+            packingListRepository.save(packingList);
+        }
+        // Flush so the read below (and the new ids) reflect this save; for template-based lists only the
+        // materialized view has the template items
+        packingListRepository.flush();
+        return getPackingListForUser(userId);
+    }
 
-        PackingList packingList = packingListRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    PackingList newPackingList = new PackingList();
-                    newPackingList.setUser(user);
-                    return newPackingList;
-                });
+    // --- Item-level operations: the version bump plus one statement each, ownership checked in their WHERE clauses ---
 
-        mapToEntity(packingListDto, user, packingList);
-        PackingList savedPackingList = packingListRepository.save(packingList);
-        return mapToDto(savedPackingList);
+    @Transactional
+    public void updateItem(Long userId, long expectedVersion, Long itemId, PackingListItemPatchDto patch) {
+        if (patch.getChecked() == null && patch.getText() == null) {
+            throw new IllegalArgumentException("Nothing to update: send 'checked' and/or 'text'");
+        }
+        if (patch.getText() != null && patch.getText().isBlank()) {
+            throw new IllegalArgumentException("Item text must not be blank");
+        }
+        incrementVersion(userId, expectedVersion);
+        if (packingListItemRepository.updateItemForUser(userId, itemId, patch.getChecked(), patch.getText()) == 0) {
+            throw new ResourceNotFoundException("Packing list item not found with id: " + itemId);
+        }
     }
 
-    // --- Mapper Methods ---
+    @Transactional
+    public PackingListItemDto addItem(Long userId, long expectedVersion, Long categoryId, PackingListItemCreateDto item) {
+        if (item.getText() == null || item.getText().isBlank()) {
+            throw new IllegalArgumentException("Item text must not be blank");
+        }
+        incrementVersion(userId, expectedVersion);
+        PackingListItemRepository.InsertedItem inserted = packingListItemRepository
+                .insertItemForUser(userId, categoryId, item.getText(), item.getDisplayOrder())
+                .orElseThrow(() -> new ResourceNotFoundException("Packing list category not found with id: " + categoryId));
+        return new PackingListItemDto(inserted.getId(), item.getText(), false, inserted.getDisplayOrder());
+    }
 
-    private PackingListDto mapToDto(PackingList packingList) {
-        if (packingList == null) {
-            return null;
+    @Transactional
+    public void removeItem(Long userId, long expectedVersion, Long itemId) {
+        incrementVersion(userId, expectedVersion);
+        if (packingListItemRepository.deleteItemForUser(userId, itemId) == 0) {
+            throw new ResourceNotFoundException("Packing list item not found with id: " + itemId);
         }
-        PackingListDto dto = new PackingListDto();
-        dto.setId(packingList.getId());
-        if (packingList.getCategories() != null) {
-            dto.setCategories(packingList.getCategories().stream()
-                    .map(this::mapToDto)
-                    .collect(Collectors.toList()));
-        } else {
-            dto.setCategories(new ArrayList<>());
+    }
+
+    /**
+     * Sets the order of a category's items to their position in itemIds. Ids of other categories or users
+     * are ignored by the UPDATE, so a mismatch in the number of rows updated is reported as not found.
+     */
+    @Transactional
+    public void reorderItems(Long userId, long expectedVersion, Long categoryId, List<Long> itemIds) {
+        if (itemIds == null || itemIds.isEmpty() || itemIds.contains(null)
+                || new HashSet<>(itemIds).size() != itemIds.size()) {
+            throw new IllegalArgumentException("itemIds must be a non-empty list of distinct ids");
+        }
+        incrementVersion(userId, expectedVersion);
+        if (packingListItemRepository.reorderItemsForUser(userId, categoryId, itemIds) != itemIds.size()) {
+            throw new ResourceNotFoundException("Some items do not belong to packing list category " + categoryId);
+        }
+    }
+
+    // Template items are shared, so checking or removing one only writes the camper's override row
+
+    @Transactional
+    public void updateTemplateItem(Long userId, long expectedVersion, Long templateItemId, PackingListItemPatchDto patch) {
+        if (patch.getText() != null) {
+            throw new IllegalArgumentException("Template items cannot be renamed individually; "
+                    + "save the list with the new text to replace it with an own item");
+        }
+        if (patch.getChecked() == null) {
+            throw new IllegalArgumentException("Nothing to update: send 'checked'");
+        }
+        incrementVersion(userId, expectedVersion);
+        if (packingListItemOverrideRepository.upsertCheckedForUser(userId, templateItemId, patch.getChecked()) == 0) {
+            throw new ResourceNotFoundException("Template item not found in the user's packing list: " + templateItemId);
         }
-        dto.setCreatedAt(packingList.getCreatedAt());
-        dto.setUpdatedAt(packingList.getUpdatedAt());
-        return dto;
     }
 
-    private PackingListCategoryDto mapToDto(PackingListCategory category) {
-        if (category == null) {
-            return null;
+    @Transactional
+    public void removeTemplateItem(Long userId, long expectedVersion, Long templateItemId) {
+        incrementVersion(userId, expectedVersion);
+        if (packingListItemOverrideRepository.upsertRemovedForUser(userId, templateItemId) == 0) {
+            throw new ResourceNotFoundException("Template item not found in the user's packing list: " + templateItemId);
         }
-        PackingListCategoryDto dto = new PackingListCategoryDto();
-        dto.setId(category.getId());
-        dto.setTitle(category.getTitle());
-        dto.setDisplayOrder(category.getDisplayOrder());
-        if (category.getItems() != null) {
-            dto.setItems(category.getItems().stream()
-                    .map(this::mapToDto)
-                    .collect(Collectors.toList()));
-        } else {
-            dto.setItems(new ArrayList<>());
+    }
+
+    /**
+     * Moves the user's list from expectedVersion to the next version before an item-level write. The UPDATE
+     * locks the list row until commit, so concurrent writers queue up and all but one see a changed version;
+     * if the write that follows fails, the bump is rolled back with it.
+     */
+    private void incrementVersion(Long userId, long expectedVersion) {
+        if (packingListRepository.incrementVersion(userId, expectedVersion) == 0) {
+            Long currentVersion = packingListRepository.findVersionByUserId(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Packing list not found for user: " + userId));
+            throw new PackingListVersionMismatchException(userId, currentVersion);
         }
-        return dto;
     }
 
-    private PackingListItemDto mapToDto(PackingListItem item) {
-        if (item == null) {
-            return null;
+    // --- Mapper Methods ---
+
+    // Rows come ordered by category and item order, so categories and items are appended as they appear.
+    // A template category and the camper's own category for it (same templateCategoryId) form one category.
+    private PackingListDto assembleDto(List<Object[]> rows) {
+        Object[] header = rows.get(0);
+        PackingListDto dto = new PackingListDto();
+        dto.setId((Long) header[0]);
+        dto.setCreatedAt(toInstant(header[1]));
+        dto.setUpdatedAt(toInstant(header[2]));
+        dto.setTemplateId((Long) header[3]);
+        dto.setVersion((Long) header[13]);
+
+        PackingListCategoryDto category = null;
+        for (Object[] row : rows) {
+            Long categoryId = (Long) row[4];
+            Long templateCategoryId = (Long) row[5];
+            if (categoryId == null && templateCategoryId == null) {
+                continue; // Header row
+            }
+            boolean sameCategory = category != null && (templateCategoryId != null
+                    ? templateCategoryId.equals(category.getTemplateCategoryId())
+                    : category.getTemplateCategoryId() == null && categoryId.equals(category.getId()));
+            if (!sameCategory) {
+                category = new PackingListCategoryDto();
+                category.setTemplateCategoryId(templateCategoryId);
+                category.setTitle((String) row[6]);
+                category.setDisplayOrder((Integer) row[7]);
+                dto.getCategories().add(category);
+            }
+            if (category.getId() == null) {
+                category.setId(categoryId);
+            }
+            if (row[8] != null || row[9] != null) {
+                category.getItems().add(new PackingListItemDto((Long) row[8], (String) row[10], (Boolean) row[11],
+                        (Integer) row[12], (Long) row[9]));
+            }
         }
-        PackingListItemDto dto = new PackingListItemDto();
-        dto.setId(item.getId());
-        dto.setText(item.getText());
-        dto.setChecked(item.isChecked());
-        dto.setDisplayOrder(item.getDisplayOrder());
         return dto;
     }
 
-    // Maps DTO to an existing or new PackingList entity
-    private void mapToEntity(PackingListDto dto, User user, PackingList packingListEntity) {
-        // We don't map id, createdAt, updatedAt from DTO for the main list
-        // User is already set for new lists or should be correct for existing.
-        packingListEntity.setUser(user); // Ensure user is set
+    // Timestamp columns of a native query may come back as any of these depending on the driver and column type
+    private static Instant toInstant(Object value) {
+        if (value == null || value instanceof Instant) {
+            return (Instant) value;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return Timestamp.valueOf(localDateTime).toInstant();
+        }
+        throw new IllegalStateException("Unexpected timestamp type: " + value.getClass().getName());
+    }
 
-        // Clear and repopulate categories
-        // This also handles orphanRemoval if configured on the entity
-        packingListEntity.getCategories().clear();
+    /**
+     * Merges the DTO into an existing or new PackingList entity instead of rebuilding it.
+     * Categories and items are matched by id: matched rows are updated in place (and only if a field
+     * changed), DTOs without a known id become new rows, and rows missing from the DTO are deleted through
+     * orphanRemoval. Items are matched within their own category, so an item moved to another category is
+     * deleted and re-inserted. Ids that do not belong to this list are treated as new rows, never as updates.
+     *
+     * For template-based lists, categories with a templateCategoryId are merged by mergeTemplateCategory.
+     *
+     * @return whether anything was written, i.e. whether the list's version has to move
+     */
+    private boolean mergeIntoEntity(PackingListDto dto, PackingList packingListEntity) {
+        List<PackingListCategoryDto> categoryDtos = dto.getCategories() != null ? dto.getCategories() : List.of();
 
-        if (dto.getCategories() != null) {
-            for (PackingListCategoryDto categoryDto : dto.getCategories()) {
-                PackingListCategory categoryEntity = new PackingListCategory();
-                // categoryEntity.setId(categoryDto.getId()); // Let JPA handle ID for new entities
-                categoryEntity.setTitle(categoryDto.getTitle());
-                categoryEntity.setDisplayOrder(categoryDto.getDisplayOrder());
-                // categoryEntity.setPackingList(packingListEntity); // Set by helper method
-
-                // Clear and repopulate items for this category
-                // categoryEntity.getItems().clear(); // Not needed for new Category entity
-                if (categoryDto.getItems() != null) {
-                    for (PackingListItemDto itemDto : categoryDto.getItems()) {
-                        PackingListItem itemEntity = new PackingListItem();
-                        // itemEntity.setId(itemDto.getId()); // Let JPA handle ID
-                        itemEntity.setText(itemDto.getText());
-                        itemEntity.setChecked(itemDto.isChecked());
-                        itemEntity.setDisplayOrder(itemDto.getDisplayOrder());
-                        // itemEntity.setCategory(categoryEntity); // Set by helper method
-                        categoryEntity.addItem(itemEntity); // Uses helper to set bidirectional link
-                    }
+        Map<Long, PackingListCategory> existingCategories = new HashMap<>();
+        Map<Long, PackingListCategory> ownCategoriesByTemplateCategory = new HashMap<>();
+        for (PackingListCategory category : packingListEntity.getCategories()) {
+            existingCategories.put(category.getId(), category);
+            if (category.getTemplateCategoryId() != null) {
+                ownCategoriesByTemplateCategory.put(category.getTemplateCategoryId(), category);
+            }
+        }
+
+        TemplateState template = packingListEntity.getTemplate() != null
+                ? loadTemplateState(packingListEntity) : null;
+
+        boolean changed = false;
+        for (PackingListCategoryDto categoryDto : categoryDtos) {
+            PackingListTemplateCategory templateCategory = template != null && categoryDto.getTemplateCategoryId() != null
+                    ? template.categories().get(categoryDto.getTemplateCategoryId()) : null;
+            if (templateCategory != null) {
+                if (!template.seenCategories().add(templateCategory.getId())) {
+                    throw new IllegalArgumentException("Template category " + templateCategory.getId() + " appears twice");
+                }
+                PackingListCategory ownCategory = ownCategoriesByTemplateCategory.get(templateCategory.getId());
+                if (ownCategory != null) {
+                    existingCategories.remove(ownCategory.getId());
                 }
+                changed |= mergeTemplateCategory(categoryDto, templateCategory, ownCategory, template, packingListEntity);
+                continue;
+            }
+
+            PackingListCategory categoryEntity = categoryDto.getId() != null
+                    ? existingCategories.get(categoryDto.getId()) : null;
+            if (categoryEntity != null && categoryEntity.getTemplateCategoryId() != null) {
+                categoryEntity = null; // Own items of a template category are only merged through that category
+            }
+            if (categoryEntity == null) {
+                categoryEntity = new PackingListCategory();
                 packingListEntity.addCategory(categoryEntity); // Uses helper to set bidirectional link
+                changed = true;
+            } else {
+                existingCategories.remove(categoryEntity.getId());
+            }
+            if (!Objects.equals(categoryEntity.getTitle(), categoryDto.getTitle())) {
+                categoryEntity.setTitle(categoryDto.getTitle());
+                changed = true;
+            }
+            if (!Objects.equals(categoryEntity.getDisplayOrder(), categoryDto.getDisplayOrder())) {
+                categoryEntity.setDisplayOrder(categoryDto.getDisplayOrder());
+                changed = true;
+            }
+            changed |= mergeItems(categoryDto.getItems() != null ? categoryDto.getItems() : List.of(), categoryEntity);
+        }
+
+        // Template categories always stay on the camper's list (only their items can be removed), so leaving
+        // one out of the DTO is rejected instead of being read back as an empty category
+        if (template != null) {
+            List<Long> missing = template.categories().keySet().stream()
+                    .filter(id -> !template.seenCategories().contains(id))
+                    .sorted()
+                    .toList();
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Template categories " + missing
+                        + " cannot be removed from a template-based list; remove their items instead");
+            }
+        }
+
+        // Whatever was not matched has been removed by the client (orphanRemoval issues the DELETEs)
+        changed |= !existingCategories.isEmpty();
+        existingCategories.values().forEach(packingListEntity::removeCategory);
+        sortIfNeeded(packingListEntity.getCategories(), Comparator.comparing(PackingListCategory::getDisplayOrder));
+        return changed;
+    }
+
+    /**
+     * Copy-on-write merge of one template category: the template rows are never written. Checked and
+     * removed template items become override rows; items without a templateItemId, and template items
+     * whose text was edited (the template item is then hidden), go to the camper's own category for it,
+     * created only when needed. Template titles and orders cannot be changed from a camper's list.
+     */
+    private boolean mergeTemplateCategory(PackingListCategoryDto categoryDto, PackingListTemplateCategory templateCategory,
+                                       PackingListCategory ownCategory, TemplateState template,
+                                       PackingList packingListEntity) {
+        Map<Long, PackingListTemplateItem> templateItems = new HashMap<>();
+        templateCategory.getItems().forEach(item -> templateItems.put(item.getId(), item));
+
+        boolean changed = false;
+        List<PackingListItemDto> ownItems = new ArrayList<>();
+        Set<Long> keptTemplateItems = new HashSet<>();
+        for (PackingListItemDto itemDto : categoryDto.getItems() != null ? categoryDto.getItems() : List.<PackingListItemDto>of()) {
+            PackingListTemplateItem templateItem = itemDto.getTemplateItemId() != null
+                    ? templateItems.get(itemDto.getTemplateItemId()) : null;
+            if (templateItem == null || !keptTemplateItems.add(templateItem.getId())) {
+                ownItems.add(itemDto);
+            } else if (!templateItem.getText().equals(itemDto.getText())) {
+                changed |= setOverride(template, templateItem.getId(), false, true);
+                ownItems.add(new PackingListItemDto(null, itemDto.getText(), itemDto.isChecked(), itemDto.getDisplayOrder()));
+            } else {
+                changed |= setOverride(template, templateItem.getId(), itemDto.isChecked(), false);
+            }
+        }
+        for (Long templateItemId : templateItems.keySet()) {
+            if (!keptTemplateItems.contains(templateItemId)) {
+                changed |= setOverride(template, templateItemId, false, true);
+            }
+        }
+
+        if (ownItems.isEmpty()) {
+            if (ownCategory != null) {
+                packingListEntity.removeCategory(ownCategory);
+                changed = true;
+            }
+            return changed;
+        }
+        if (ownCategory == null) {
+            ownCategory = new PackingListCategory();
+            ownCategory.setTemplateCategoryId(templateCategory.getId());
+            packingListEntity.addCategory(ownCategory);
+            changed = true;
+        }
+        // Kept in sync with the template category (NOT NULL columns; the read path uses the template's values)
+        if (!Objects.equals(ownCategory.getTitle(), templateCategory.getTitle())) {
+            ownCategory.setTitle(templateCategory.getTitle());
+        }
+        if (!Objects.equals(ownCategory.getDisplayOrder(), templateCategory.getDisplayOrder())) {
+            ownCategory.setDisplayOrder(templateCategory.getDisplayOrder());
+        }
+        return mergeItems(ownItems, ownCategory) || changed;
+    }
+
+    // An unchecked, visible template item needs no override row, so that state deletes it
+    private boolean setOverride(TemplateState template, Long templateItemId, boolean checked, boolean removed) {
+        PackingListItemOverride override = template.overrides().get(templateItemId);
+        if (!checked && !removed) {
+            if (override == null) {
+                return false;
+            }
+            packingListItemOverrideRepository.delete(override);
+            template.overrides().remove(templateItemId);
+            return true;
+        }
+        if (override == null) {
+            override = new PackingListItemOverride(template.packingListId(), templateItemId);
+            override.setChecked(checked);
+            override.setRemoved(removed);
+            template.overrides().put(templateItemId, packingListItemOverrideRepository.save(override));
+            return true;
+        }
+        if (override.isChecked() == checked && override.isRemoved() == removed) {
+            return false;
+        }
+        override.setChecked(checked);
+        override.setRemoved(removed);
+        return true;
+    }
+
+    private TemplateState loadTemplateState(PackingList packingListEntity) {
+        Map<Long, PackingListTemplateCategory> categories = new HashMap<>();
+        packingListTemplateRepository.findCategoriesWithItems(packingListEntity.getTemplate().getId())
+                .forEach(category -> categories.put(category.getId(), category));
+        Map<Long, PackingListItemOverride> overrides = new HashMap<>();
+        packingListItemOverrideRepository.findByPackingListId(packingListEntity.getId())
+                .forEach(override -> overrides.put(override.getTemplateItemId(), override));
+        return new TemplateState(packingListEntity.getId(), categories, overrides, new HashSet<>());
+    }
+
+    private record TemplateState(Long packingListId,
+                                 Map<Long, PackingListTemplateCategory> categories,
+                                 Map<Long, PackingListItemOverride> overrides,
+                                 Set<Long> seenCategories) {
+    }
+
+    private boolean mergeItems(List<PackingListItemDto> itemDtos, PackingListCategory categoryEntity) {
+        Map<Long, PackingListItem> existingItems = new HashMap<>();
+        for (PackingListItem item : categoryEntity.getItems()) {
+            if (item.getId() != null) {
+                existingItems.put(item.getId(), item);
+            }
+        }
+
+        boolean changed = false;
+        for (PackingListItemDto itemDto : itemDtos) {
+            PackingListItem itemEntity = itemDto.getId() != null ? existingItems.remove(itemDto.getId()) : null;
+            if (itemEntity == null) {
+                itemEntity = new PackingListItem();
+                categoryEntity.addItem(itemEntity); // Uses helper to set bidirectional link
+                changed = true;
+            }
+            if (!Objects.equals(itemEntity.getText(), itemDto.getText())) {
+                itemEntity.setText(itemDto.getText());
+                changed = true;
+            }
+            if (itemEntity.isChecked() != itemDto.isChecked()) {
+                itemEntity.setChecked(itemDto.isChecked());
+                changed = true;
+            }
+            if (!Objects.equals(itemEntity.getDisplayOrder(), itemDto.getDisplayOrder())) {
+                itemEntity.setDisplayOrder(itemDto.getDisplayOrder());
+                changed = true;
+            }
+        }
+
+        changed |= !existingItems.isEmpty();
+        existingItems.values().forEach(categoryEntity::removeItem);
+        sortIfNeeded(categoryEntity.getItems(), Comparator.comparing(PackingListItem::getDisplayOrder));
+        return changed;
+    }
+
+    // List.sort rewrites every element, which marks a persistent collection dirty (and bumps the list's
+    // version) even when nothing moved
+    private static <T> void sortIfNeeded(List<T> list, Comparator<T> comparator) {
+        for (int i = 1; i < list.size(); i++) {
+            if (comparator.compare(list.get(i - 1), list.get(i)) > 0) {
+                list.sort(comparator);
+                return;
             }
         }
     }
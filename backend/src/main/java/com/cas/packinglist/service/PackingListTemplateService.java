@@ -0,0 +1,126 @@
+package com.cas.packinglist.service;
+
+import com.cas.login.repository.UserRepository;
+import com.cas.login.service.RoleRegistry;
+import com.cas.packinglist.dto.PackingListCategoryDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import com.cas.packinglist.dto.PackingListTemplateAssignResultDto;
+import com.cas.packinglist.dto.PackingListTemplateDto;
+import com.cas.packinglist.exception.ResourceNotFoundException;
+import com.cas.packinglist.model.PackingListTemplate;
+import com.cas.packinglist.model.PackingListTemplateCategory;
+import com.cas.packinglist.model.PackingListTemplateItem;
+import com.cas.packinglist.repository.PackingListRepository;
+import com.cas.packinglist.repository.PackingListTemplateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Shared packing list templates. Assigning a template writes one packing_lists row per camper; the
+ * template's categories and items are stored once and never copied into the campers' lists.
+ */
+@Service
+@RequiredArgsConstructor
+public class PackingListTemplateService {
+
+    private static final int ASSIGN_BATCH_SIZE = 1000;
+
+    private final PackingListTemplateRepository packingListTemplateRepository;
+    private final PackingListRepository packingListRepository;
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+
+    @Transactional
+    public PackingListTemplateDto createTemplate(PackingListTemplateDto templateDto) {
+        if (templateDto.getName() == null || templateDto.getName().isBlank()) {
+            throw new IllegalArgumentException("Template name must not be blank");
+        }
+        PackingListTemplate template = new PackingListTemplate();
+        template.setName(templateDto.getName());
+        for (PackingListCategoryDto categoryDto : templateDto.getCategories() != null ? templateDto.getCategories() : List.<PackingListCategoryDto>of()) {
+            if (categoryDto.getTitle() == null || categoryDto.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Category title must not be blank");
+            }
+            PackingListTemplateCategory category = new PackingListTemplateCategory();
+            category.setTitle(categoryDto.getTitle());
+            category.setDisplayOrder(categoryDto.getDisplayOrder());
+            template.addCategory(category);
+            for (PackingListItemDto itemDto : categoryDto.getItems() != null ? categoryDto.getItems() : List.<PackingListItemDto>of()) {
+                if (itemDto.getText() == null || itemDto.getText().isBlank()) {
+                    throw new IllegalArgumentException("Item text must not be blank");
+                }
+                PackingListTemplateItem item = new PackingListTemplateItem();
+                item.setText(itemDto.getText());
+                item.setDisplayOrder(itemDto.getDisplayOrder());
+                category.addItem(item);
+            }
+        }
+        return mapToDto(packingListTemplateRepository.save(template));
+    }
+
+    /**
+     * Gives each camper a list based on the template, in batches of {@value #ASSIGN_BATCH_SIZE} ids per
+     * INSERT. Every id must be a user with ROLE_ACAMPANTE, otherwise nothing is written; campers who
+     * already have a list are skipped.
+     */
+    @Transactional
+    public PackingListTemplateAssignResultDto assignTemplate(Long templateId, List<Long> userIds) {
+        if (userIds == null || userIds.contains(null)) {
+            throw new IllegalArgumentException("userIds must be a list of ids");
+        }
+        if (!packingListTemplateRepository.existsById(templateId)) {
+            throw new ResourceNotFoundException("Packing list template not found with id: " + templateId);
+        }
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(userIds));
+        rejectNonCampers(distinctIds);
+        int created = 0;
+        for (int from = 0; from < distinctIds.size(); from += ASSIGN_BATCH_SIZE) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + ASSIGN_BATCH_SIZE, distinctIds.size()));
+            created += packingListRepository.createListsFromTemplate(templateId, batch);
+        }
+        return new PackingListTemplateAssignResultDto(distinctIds.size(), created);
+    }
+
+    // Same check as the bulk supervision assignment: the camper role id comes from RoleRegistry and the
+    // users' roles are read one query per batch, without loading User entities
+    private void rejectNonCampers(List<Long> userIds) {
+        Set<Long> campers = new HashSet<>();
+        Optional<Integer> acampanteRoleId = roleRegistry.findId(RoleRegistry.ROLE_ACAMPANTE);
+        if (acampanteRoleId.isPresent()) {
+            for (int from = 0; from < userIds.size(); from += ASSIGN_BATCH_SIZE) {
+                List<Long> batch = userIds.subList(from, Math.min(from + ASSIGN_BATCH_SIZE, userIds.size()));
+                for (Object[] row : userRepository.findRoleIdsByUserIdIn(batch, List.of(acampanteRoleId.get()))) {
+                    campers.add((Long) row[0]);
+                }
+            }
+        }
+        List<Long> notCampers = userIds.stream().filter(id -> !campers.contains(id)).toList();
+        if (!notCampers.isEmpty()) {
+            throw new IllegalArgumentException("Users " + notCampers + " are not ACAMPANTE or do not exist.");
+        }
+    }
+
+    private PackingListTemplateDto mapToDto(PackingListTemplate template) {
+        PackingListTemplateDto dto = new PackingListTemplateDto();
+        dto.setId(template.getId());
+        dto.setName(template.getName());
+        for (PackingListTemplateCategory category : template.getCategories()) {
+            PackingListCategoryDto categoryDto = new PackingListCategoryDto();
+            categoryDto.setTemplateCategoryId(category.getId());
+            categoryDto.setTitle(category.getTitle());
+            categoryDto.setDisplayOrder(category.getDisplayOrder());
+            for (PackingListTemplateItem item : category.getItems()) {
+                categoryDto.getItems().add(new PackingListItemDto(null, item.getText(), false, item.getDisplayOrder(), item.getId()));
+            }
+            dto.getCategories().add(categoryDto);
+        }
+        return dto;
+    }
+}
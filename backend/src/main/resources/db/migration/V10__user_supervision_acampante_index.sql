@@ -0,0 +1,3 @@
+-- Dirigentes de un acampante (listado paginado y conteo): la clave primaria empieza por dirigente_id,
+-- así que la búsqueda por acampante_id necesita su propio índice
+CREATE INDEX IF NOT EXISTS idx_user_supervision_acampante ON user_supervision (acampante_id, dirigente_id);
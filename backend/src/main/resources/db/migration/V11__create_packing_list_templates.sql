@@ -0,0 +1,41 @@
+-- Plantillas de listas de equipaje compartidas: cada lista de un acampante referencia una plantilla y
+-- guarda solo sus diferencias (ítems marcados o quitados en packing_list_item_overrides, ítems propios en
+-- packing_list_categories/items). La vista completa se arma al leer.
+CREATE TABLE IF NOT EXISTS packing_list_templates (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS packing_list_template_categories (
+    id BIGSERIAL PRIMARY KEY,
+    template_id BIGINT NOT NULL REFERENCES packing_list_templates(id) ON DELETE CASCADE,
+    title VARCHAR(255) NOT NULL,
+    "order" INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS packing_list_template_items (
+    id BIGSERIAL PRIMARY KEY,
+    category_id BIGINT NOT NULL REFERENCES packing_list_template_categories(id) ON DELETE CASCADE,
+    text VARCHAR(255) NOT NULL,
+    "order" INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_packing_list_template_categories_template ON packing_list_template_categories(template_id);
+CREATE INDEX IF NOT EXISTS idx_packing_list_template_items_category ON packing_list_template_items(category_id);
+
+ALTER TABLE packing_lists ADD COLUMN IF NOT EXISTS template_id BIGINT REFERENCES packing_list_templates(id);
+
+-- Categoría propia que acompaña a una categoría de la plantilla (ítems añadidos por el acampante)
+ALTER TABLE packing_list_categories ADD COLUMN IF NOT EXISTS template_category_id BIGINT
+    REFERENCES packing_list_template_categories(id) ON DELETE SET NULL;
+
+CREATE TABLE IF NOT EXISTS packing_list_item_overrides (
+    id BIGSERIAL PRIMARY KEY,
+    packing_list_id BIGINT NOT NULL REFERENCES packing_lists(id) ON DELETE CASCADE,
+    template_item_id BIGINT NOT NULL REFERENCES packing_list_template_items(id) ON DELETE CASCADE,
+    is_checked BOOLEAN NOT NULL DEFAULT FALSE,
+    removed BOOLEAN NOT NULL DEFAULT FALSE,
+    UNIQUE (packing_list_id, template_item_id)
+);
@@ -0,0 +1,2 @@
+-- Versión de cada lista de equipaje (bloqueo optimista y ETag de GET /api/packing-list)
+ALTER TABLE packing_lists ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Paginación por cursor sobre (fecha_reunion, id): el índice compuesto permite resolver la comparación
+-- de filas (fecha_reunion, id) < (:fecha, :id) y el ORDER BY con un solo recorrido descendente del índice
+CREATE INDEX IF NOT EXISTS idx_reuniones_fecha_id ON reuniones (fecha_reunion, id);
+DROP INDEX IF EXISTS idx_reuniones_fecha;
+
+-- Historial de un usuario: localiza sus asistencias (con reunión e id) por user_id. fecha_reunion vive en
+-- reuniones, así que cada página aún une y ordena todo el historial del usuario; V15 lo acota
+CREATE INDEX IF NOT EXISTS idx_asistencias_usuario_reunion ON asistencias (user_id, reunion_id, id);
+DROP INDEX IF EXISTS idx_asistencias_usuario;
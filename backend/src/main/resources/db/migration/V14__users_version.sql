@@ -0,0 +1,3 @@
+-- Versión de cada usuario: sube con cualquier cambio de credenciales o de roles, de modo que un cambio
+-- solo en user_roles también actualiza la fila y dispara la invalidación de la caché de autenticación
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
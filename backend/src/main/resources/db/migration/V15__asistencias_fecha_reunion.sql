@@ -0,0 +1,43 @@
+-- Copia de reuniones.fecha_reunion en cada asistencia, mantenida por triggers, para que el historial de un
+-- usuario se ordene y pagine por (fecha_reunion, id) con un solo índice de asistencias: una página por
+-- cursor lee como mucho `limit` entradas del índice y une solo esas filas con reuniones
+ALTER TABLE asistencias ADD COLUMN IF NOT EXISTS fecha_reunion TIMESTAMP;
+
+UPDATE asistencias a
+SET fecha_reunion = r.fecha_reunion
+FROM reuniones r
+WHERE r.id = a.reunion_id AND a.fecha_reunion IS DISTINCT FROM r.fecha_reunion;
+
+ALTER TABLE asistencias ALTER COLUMN fecha_reunion SET NOT NULL;
+
+-- Toda asistencia nueva (o movida de reunión) toma la fecha de su reunión
+CREATE OR REPLACE FUNCTION asistencias_copiar_fecha_reunion() RETURNS trigger AS $$
+BEGIN
+    SELECT r.fecha_reunion INTO NEW.fecha_reunion FROM reuniones r WHERE r.id = NEW.reunion_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_asistencias_fecha_reunion ON asistencias;
+CREATE TRIGGER trg_asistencias_fecha_reunion
+    BEFORE INSERT OR UPDATE OF reunion_id ON asistencias
+    FOR EACH ROW EXECUTE FUNCTION asistencias_copiar_fecha_reunion();
+
+-- Reprogramar una reunión actualiza la copia en sus asistencias
+CREATE OR REPLACE FUNCTION reuniones_propagar_fecha_reunion() RETURNS trigger AS $$
+BEGIN
+    UPDATE asistencias SET fecha_reunion = NEW.fecha_reunion WHERE reunion_id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_reuniones_fecha_reunion ON reuniones;
+CREATE TRIGGER trg_reuniones_fecha_reunion
+    AFTER UPDATE OF fecha_reunion ON reuniones
+    FOR EACH ROW WHEN (OLD.fecha_reunion IS DISTINCT FROM NEW.fecha_reunion)
+    EXECUTE FUNCTION reuniones_propagar_fecha_reunion();
+
+-- Sustituye a idx_asistencias_usuario_reunion (V13): sigue cubriendo las búsquedas por user_id y además
+-- da el orden del historial, recorrido hacia atrás para (fecha_reunion DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_asistencias_usuario_fecha ON asistencias (user_id, fecha_reunion, id);
+DROP INDEX IF EXISTS idx_asistencias_usuario_reunion;
@@ -0,0 +1,3 @@
+-- La entidad Asistencia reserva IDs en bloques de 50 (optimizador pooled-lo) para poder
+-- agrupar los INSERT del registro masivo en lotes JDBC.
+ALTER SEQUENCE IF EXISTS asistencias_id_seq INCREMENT BY 50;
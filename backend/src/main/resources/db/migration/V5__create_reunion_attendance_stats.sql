@@ -0,0 +1,22 @@
+-- Contadores de asistencia por reunión, mantenidos incrementalmente por la aplicación
+CREATE TABLE IF NOT EXISTS reunion_attendance_stats (
+    reunion_id BIGINT PRIMARY KEY REFERENCES reuniones(id) ON DELETE CASCADE,
+    presentes BIGINT NOT NULL DEFAULT 0,
+    ausentes BIGINT NOT NULL DEFAULT 0,
+    tardanzas BIGINT NOT NULL DEFAULT 0,
+    justificados BIGINT NOT NULL DEFAULT 0
+);
+
+-- Carga inicial a partir de las asistencias existentes
+INSERT INTO reunion_attendance_stats (reunion_id, presentes, ausentes, tardanzas, justificados)
+SELECT r.id,
+       COUNT(a.id) FILTER (WHERE a.estado_asistencia = 'PRESENTE'),
+       COUNT(a.id) FILTER (WHERE a.estado_asistencia = 'AUSENTE'),
+       COUNT(a.id) FILTER (WHERE a.estado_asistencia = 'TARDANZA'),
+       COUNT(a.id) FILTER (WHERE a.estado_asistencia = 'JUSTIFICADO')
+FROM reuniones r
+LEFT JOIN asistencias a ON a.reunion_id = r.id
+GROUP BY r.id
+ON CONFLICT (reunion_id) DO NOTHING;
+
+COMMENT ON TABLE reunion_attendance_stats IS 'Contadores de asistencia por reunión (presentes, ausentes, tardanzas, justificados)';
@@ -0,0 +1,12 @@
+-- Búsqueda de reuniones por similitud de trigramas (tolera errores de tipeo y usa índice)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Texto de búsqueda normalizado: nombre, lugar y descripción en minúsculas
+ALTER TABLE reuniones
+    ADD COLUMN IF NOT EXISTS busqueda_texto TEXT
+    GENERATED ALWAYS AS (
+        lower(coalesce(nombre, '') || ' ' || coalesce(lugar, '') || ' ' || coalesce(descripcion, ''))
+    ) STORED;
+
+-- Índice GIN de trigramas: sirve tanto para LIKE '%texto%' como para el operador de similitud <%
+CREATE INDEX IF NOT EXISTS idx_reuniones_busqueda_trgm ON reuniones USING gin (busqueda_texto gin_trgm_ops);
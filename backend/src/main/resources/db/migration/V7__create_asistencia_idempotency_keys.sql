@@ -0,0 +1,13 @@
+-- Respuestas registradas por cabecera Idempotency-Key (reintentos de clientes móviles)
+CREATE TABLE IF NOT EXISTS asistencia_idempotency_keys (
+    id BIGSERIAL PRIMARY KEY,
+    usuario VARCHAR(255) NOT NULL,
+    clave VARCHAR(255) NOT NULL,
+    huella VARCHAR(64) NOT NULL,
+    estado_http INTEGER,
+    respuesta TEXT,
+    fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (usuario, clave)
+);
+
+CREATE INDEX IF NOT EXISTS idx_asistencia_idempotency_fecha ON asistencia_idempotency_keys(fecha_creacion);
@@ -0,0 +1,3 @@
+-- Listados de usuarios por rol (dirigentes, acampantes): recorre user_roles por role_id y devuelve
+-- directamente los user_id, sin pasar por todos los usuarios
+CREATE INDEX IF NOT EXISTS idx_user_roles_role_user ON user_roles (role_id, user_id);
@@ -0,0 +1,15 @@
+-- Las asignaciones masivas insertan con ON CONFLICT DO NOTHING, que necesita una restricción única sobre
+-- (dirigente_id, acampante_id). Hibernate crea esa clave primaria en la tabla de unión, pero una tabla
+-- creada por otra vía podría no tenerla: en ese caso se eliminan los pares repetidos y se añade.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'user_supervision'::regclass AND contype IN ('p', 'u')) THEN
+        DELETE FROM user_supervision a
+        USING user_supervision b
+        WHERE a.ctid > b.ctid
+          AND a.dirigente_id = b.dirigente_id
+          AND a.acampante_id = b.acampante_id;
+        ALTER TABLE user_supervision ADD PRIMARY KEY (dirigente_id, acampante_id);
+    END IF;
+END $$;
@@ -0,0 +1,136 @@
+package com.cas.asistencias.controller;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.model.Role;
+import com.cas.login.model.User;
+import com.cas.login.repository.RoleRepository;
+import com.cas.login.repository.UserRepository;
+import com.cas.login.security.UserDetailsImpl;
+import com.cas.login.service.UserSupervisionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registro masivo de un dirigente que mezcla acampantes supervisados y no supervisados: 403 con los IDs
+ * no supervisados y sin escribir nada. Sin transacción de test, porque el índice de supervisión solo
+ * refleja las asignaciones confirmadas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AsistenciaControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserSupervisionService userSupervisionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Reunion reunion;
+    private User dirigente;
+    private User supervisado;
+    private User noSupervisado1;
+    private User noSupervisado2;
+
+    @BeforeEach
+    void setUp() {
+        Role roleDirigente = roleRepository.findByName("ROLE_DIRIGENTE").orElseGet(() -> roleRepository.save(new Role("ROLE_DIRIGENTE")));
+        Role roleAcampante = roleRepository.findByName("ROLE_ACAMPANTE").orElseGet(() -> roleRepository.save(new Role("ROLE_ACAMPANTE")));
+        dirigente = crearUsuario("lote-dirigente-", roleDirigente);
+        supervisado = crearUsuario("lote-supervisado-", roleAcampante);
+        noSupervisado1 = crearUsuario("lote-no-supervisado1-", roleAcampante);
+        noSupervisado2 = crearUsuario("lote-no-supervisado2-", roleAcampante);
+        userSupervisionService.assignAcampanteToDirigente(dirigente.getId(), supervisado.getId());
+        reunion = reunionRepository.save(new Reunion("Reunión lote", null, LocalDateTime.now(), "Sede", false));
+    }
+
+    private User crearUsuario(String prefijo, Role rol) {
+        User usuario = new User(prefijo + System.nanoTime(), "password");
+        usuario.setRoles(new HashSet<>(Set.of(rol)));
+        return userRepository.save(usuario);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM asistencias WHERE reunion_id = ?", reunion.getId());
+        reunionRepository.deleteById(reunion.getId());
+        userSupervisionService.removeAcampanteFromDirigente(dirigente.getId(), supervisado.getId());
+        List.of(dirigente, supervisado, noSupervisado1, noSupervisado2).forEach(u -> userRepository.deleteById(u.getId()));
+    }
+
+    @Test
+    void registrarMultiples_conUsuariosNoSupervisados_responde403ConSusIds_ySinEscribir() throws Exception {
+        List<AsistenciaDto> lote = List.of(
+                new AsistenciaDto(reunion.getId(), supervisado.getId(), Asistencia.EstadoAsistencia.PRESENTE),
+                new AsistenciaDto(reunion.getId(), noSupervisado1.getId(), Asistencia.EstadoAsistencia.PRESENTE),
+                new AsistenciaDto(reunion.getId(), noSupervisado2.getId(), Asistencia.EstadoAsistencia.AUSENTE),
+                new AsistenciaDto(reunion.getId(), noSupervisado1.getId(), Asistencia.EstadoAsistencia.PRESENTE));
+
+        mockMvc.perform(post("/api/asistencias/multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote))
+                        .with(user(new UserDetailsImpl(dirigente.getId(), dirigente.getUsername(), "",
+                                List.of(new SimpleGrantedAuthority("ROLE_DIRIGENTE"))))))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403))
+                .andExpect(jsonPath("$.usuariosNoSupervisados",
+                        contains(noSupervisado1.getId().intValue(), noSupervisado2.getId().intValue())));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM asistencias WHERE reunion_id = ?",
+                Long.class, reunion.getId()));
+    }
+
+    @Test
+    void registrarMultiples_soloConSupervisados_registraElLote() throws Exception {
+        List<AsistenciaDto> lote = List.of(
+                new AsistenciaDto(reunion.getId(), supervisado.getId(), Asistencia.EstadoAsistencia.PRESENTE));
+
+        mockMvc.perform(post("/api/asistencias/multiple")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote))
+                        .with(user(new UserDetailsImpl(dirigente.getId(), dirigente.getUsername(), "",
+                                List.of(new SimpleGrantedAuthority("ROLE_DIRIGENTE"))))))
+                .andExpect(status().isCreated());
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM asistencias WHERE reunion_id = ?",
+                Long.class, reunion.getId()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.cas.asistencias.controller;
+
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.security.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Negociación del formato de exportación por la cabecera Accept (con sus valores q) y tiempo máximo
+ * propio de las exportaciones.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class AsistenciaExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    private Reunion reunion;
+
+    @BeforeEach
+    void setUp() {
+        reunion = reunionRepository.save(new Reunion("Reunión exportación", null, LocalDateTime.now(), "Sede", false));
+    }
+
+    @Test
+    void formato_respetaLosValoresQ() throws Exception {
+        assertEquals("application/x-ndjson", formato(null));
+        assertEquals("application/x-ndjson", formato("*/*"));
+        assertEquals("text/csv", formato("text/csv"));
+        assertEquals("text/csv", formato("text/csv, */*"));
+        assertEquals("application/x-ndjson", formato("text/csv;q=0.5, application/x-ndjson"));
+        assertEquals("text/csv", formato("application/x-ndjson;q=0.2, text/csv;q=0.9"));
+        assertEquals("application/x-ndjson", formato("text/csv;q=0, */*"));
+        assertEquals("text/csv", formato("application/x-ndjson;q=0, */*"));
+    }
+
+    @Test
+    void exportacion_usaSuPropioTiempoMaximo() throws Exception {
+        MvcResult resultado = exportar("text/csv");
+
+        assertEquals(1_800_000L, resultado.getRequest().getAsyncContext().getTimeout());
+    }
+
+    private String formato(String accept) throws Exception {
+        return exportar(accept).getResponse().getContentType();
+    }
+
+    private MvcResult exportar(String accept) throws Exception {
+        MockHttpServletRequestBuilder peticion = get("/api/asistencias/export/reunion/" + reunion.getId())
+                .with(user(new UserDetailsImpl(-1L, "exportador", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))));
+        if (accept != null) {
+            peticion.header(HttpHeaders.ACCEPT, accept);
+        }
+        return mockMvc.perform(peticion)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
@@ -0,0 +1,106 @@
+package com.cas.asistencias.security;
+
+import com.cas.asistencias.controller.AsistenciaController;
+import com.cas.login.security.UserDetailsImpl;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara el coste por llamada de una regla @PreAuthorize equivalente en SpEL con el de
+ * AsistenciaAuthorizationManager, y comprueba que ambas deciden lo mismo. La expresión se parsea una vez,
+ * como hace @PreAuthorize; lo que se mide es lo que se repite en cada petición: crear el contexto de
+ * evaluación, resolver el bean, enlazar los argumentos y evaluar. Solo informa de los tiempos; se ejecuta
+ * con ./gradlew benchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class AsistenciaAuthorizationBenchmarkTest {
+
+    private static final String EXPRESION = "hasRole('ADMIN') or (hasRole('DIRIGENTE') and "
+            + "@asistenciaSecurityService.supervisaUsuario(authentication, #usuarioId))";
+    private static final int CALENTAMIENTO = 50_000;
+    private static final int RONDAS = 15;
+    private static final int LLAMADAS_POR_RONDA = 100_000;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private AsistenciaAuthorizationManager asistenciaAuthorizationManager;
+
+    @Test
+    void managerTipado_decideComoSpel_yMideAmbos() throws Exception {
+        Method metodo = AsistenciaController.class.getMethod("obtenerAsistenciasPorUsuario", Long.class);
+        MethodInvocation invocacion = new SimpleMethodInvocation(
+                applicationContext.getBean(AsistenciaController.class), metodo, 42L);
+
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(applicationContext);
+        Expression expresion = expressionHandler.getExpressionParser().parseExpression(EXPRESION);
+
+        for (String rol : List.of("ROLE_ADMIN", "ROLE_DIRIGENTE")) {
+            Authentication autenticacion = autenticacion(rol);
+            Supplier<Authentication> proveedor = () -> autenticacion;
+
+            BooleanSupplier spel = () -> {
+                EvaluationContext contexto = expressionHandler.createEvaluationContext(proveedor, invocacion);
+                return Boolean.TRUE.equals(expresion.getValue(contexto, Boolean.class));
+            };
+            BooleanSupplier manager = () -> asistenciaAuthorizationManager.check(proveedor, invocacion).isGranted();
+
+            assertEquals(spel.getAsBoolean(), manager.getAsBoolean(), "Ambas reglas deben decidir lo mismo para " + rol);
+
+            double spelNanos = medir(spel);
+            double managerNanos = medir(manager);
+            System.out.printf("%s: SpEL=%.0f ns/llamada, AuthorizationManager=%.0f ns/llamada (%.1fx)%n",
+                    rol, spelNanos, managerNanos, spelNanos / managerNanos);
+        }
+    }
+
+    private static Authentication autenticacion(String rol) {
+        Set<SimpleGrantedAuthority> authorities = Set.of(new SimpleGrantedAuthority(rol));
+        UserDetailsImpl principal = new UserDetailsImpl(-1L, "benchmark", "", authorities);
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+    }
+
+    // Mediana de RONDAS rondas, en nanosegundos por llamada
+    private static double medir(BooleanSupplier regla) {
+        int concedidas = 0;
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            concedidas += regla.getAsBoolean() ? 1 : 0;
+        }
+        List<Double> rondas = new ArrayList<>();
+        for (int r = 0; r < RONDAS; r++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < LLAMADAS_POR_RONDA; i++) {
+                concedidas += regla.getAsBoolean() ? 1 : 0;
+            }
+            rondas.add((System.nanoTime() - inicio) / (double) LLAMADAS_POR_RONDA);
+        }
+        // Usa el resultado para que el JIT no elimine las llamadas
+        assertTrue(concedidas >= 0);
+        Collections.sort(rondas);
+        return rondas.get(rondas.size() / 2);
+    }
+}
@@ -0,0 +1,134 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.AsistenciaRepository;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.model.Role;
+import com.cas.login.model.User;
+import com.cas.login.repository.RoleRepository;
+import com.cas.login.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los listados de asistencias emitan un número constante de sentencias SQL,
+ * independientemente de la cantidad de filas devueltas (sin N+1 sobre reunión, usuario o roles).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class AsistenciaServiceQueryCountTest {
+
+    @Autowired
+    private AsistenciaService asistenciaService;
+
+    @Autowired
+    private AsistenciaRepository asistenciaRepository;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Role roleAcampante;
+
+    @BeforeEach
+    void setUp() {
+        roleAcampante = roleRepository.findByName("ROLE_ACAMPANTE")
+                .orElseGet(() -> roleRepository.save(new Role("ROLE_ACAMPANTE")));
+    }
+
+    @Test
+    void obtenerAsistenciasPorReunion_emiteSentenciasConstantes() {
+        Reunion pequena = crearReunionConAsistentes("pequena", 1).get(0).getReunion();
+        Reunion grande = crearReunionConAsistentes("grande", 25).get(0).getReunion();
+
+        long sentenciasPequena = contarSentencias(() -> asistenciaService.obtenerAsistenciasPorReunion(pequena.getId()));
+        long sentenciasGrande = contarSentencias(() -> asistenciaService.obtenerAsistenciasPorReunion(grande.getId()));
+
+        assertEquals(sentenciasPequena, sentenciasGrande);
+        assertEquals(2, sentenciasGrande); // existencia de la reunión + proyección
+    }
+
+    @Test
+    void obtenerAsistenciasPorUsuario_yHistorial_emitenSentenciasConstantes() {
+        User usuarioPocas = crearUsuario("pocas");
+        User usuarioMuchas = crearUsuario("muchas");
+        for (int i = 0; i < 25; i++) {
+            Reunion reunion = crearReunion("historial-" + i);
+            if (i == 0) {
+                asistenciaRepository.save(new Asistencia(reunion, usuarioPocas, Asistencia.EstadoAsistencia.PRESENTE));
+            }
+            asistenciaRepository.save(new Asistencia(reunion, usuarioMuchas, Asistencia.EstadoAsistencia.TARDANZA));
+        }
+
+        long porUsuarioPocas = contarSentencias(() -> asistenciaService.obtenerAsistenciasPorUsuario(usuarioPocas.getId()));
+        long porUsuarioMuchas = contarSentencias(() -> asistenciaService.obtenerAsistenciasPorUsuario(usuarioMuchas.getId()));
+        assertEquals(porUsuarioPocas, porUsuarioMuchas);
+        assertEquals(2, porUsuarioMuchas);
+
+        long historialPocas = contarSentencias(() -> asistenciaService.obtenerHistorialUsuario(usuarioPocas.getId()));
+        long historialMuchas = contarSentencias(() -> asistenciaService.obtenerHistorialUsuario(usuarioMuchas.getId()));
+        assertEquals(historialPocas, historialMuchas);
+        assertEquals(2, historialMuchas);
+    }
+
+    private long contarSentencias(Supplier<List<?>> consulta) {
+        // Vaciar el contexto de persistencia para que ninguna entidad quede en caché de primer nivel
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<?> resultado = consulta.get();
+        assertFalse(resultado.isEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Asistencia> crearReunionConAsistentes(String nombre, int cantidad) {
+        Reunion reunion = crearReunion(nombre);
+        List<Asistencia> asistencias = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            User usuario = crearUsuario(nombre + "-" + i);
+            asistencias.add(asistenciaRepository.save(
+                    new Asistencia(reunion, usuario, Asistencia.EstadoAsistencia.PRESENTE)));
+        }
+        return asistencias;
+    }
+
+    private Reunion crearReunion(String nombre) {
+        return reunionRepository.save(new Reunion("Reunión " + nombre, null, LocalDateTime.now(), "Sede", false));
+    }
+
+    private User crearUsuario(String username) {
+        User usuario = new User("qc-" + username, "password");
+        usuario.setRoles(new HashSet<>(Set.of(roleAcampante)));
+        return userRepository.save(usuario);
+    }
+}
@@ -0,0 +1,288 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.EventoAsistenciaDto;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.ReunionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Difusión del stream en vivo con emitters que registran (o retienen) lo que se les envía: orden
+ * snapshot-delta, entrega solo tras el commit, desconexión de un suscriptor atascado sin frenar a los
+ * demás y muchos suscriptores concurrentes. Un único hilo de envío hace visible cualquier bloqueo compartido.
+ */
+@SpringBootTest(properties = {
+        "asistencias.stream.hilos-envio=1",
+        "asistencias.stream.envio-timeout-ms=200",
+        "asistencias.stream.vigilancia-ms=50"
+})
+public class AsistenciaStreamServiceTest {
+
+    @Autowired
+    private AsistenciaStreamService asistenciaStreamService;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Reunion reunion;
+    private final List<EmitterDePrueba> emitters = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch retenerSiguiente;
+
+    @BeforeEach
+    void setUp() {
+        Reunion nueva = new Reunion("Reunión stream", null, LocalDateTime.now(), "Sede", false);
+        nueva.setEstado(Reunion.EstadoReunion.EN_CURSO);
+        reunion = reunionRepository.save(nueva);
+        asistenciaStreamService.usarFabricaEmitters(timeout -> {
+            CountDownLatch retener = retenerSiguiente;
+            retenerSiguiente = null;
+            EmitterDePrueba emitter = new EmitterDePrueba(timeout, retener);
+            emitters.add(emitter);
+            return emitter;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(EmitterDePrueba::liberar);
+        asistenciaStreamService.usarFabricaEmitters(SseEmitter::new);
+        reunionRepository.deleteById(reunion.getId());
+    }
+
+    @Test
+    void suscribir_enviaSnapshotYDespuesLosDeltasEnOrden() {
+        EmitterDePrueba emitter = (EmitterDePrueba) asistenciaStreamService.suscribir(reunion.getId());
+
+        for (long i = 1; i <= 10; i++) {
+            eventPublisher.publishEvent(evento(i));
+        }
+
+        esperar(() -> emitter.eventos.size() == 11);
+        assertEquals("snapshot", emitter.eventos.get(0).nombre());
+        List<Long> ids = new ArrayList<>();
+        for (Recibido recibido : emitter.eventos.subList(1, 11)) {
+            assertEquals("asistencia", recibido.nombre());
+            ids.add(recibido.asistenciaId());
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), ids);
+    }
+
+    @Test
+    void eventoPublicadoEnTransaccion_seEntregaSoloTrasElCommit() throws Exception {
+        EmitterDePrueba emitter = (EmitterDePrueba) asistenciaStreamService.suscribir(reunion.getId());
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        transaccion.executeWithoutResult(estado -> {
+            eventPublisher.publishEvent(evento(1L));
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertEquals(1, emitter.eventos.size(), "El delta no debe enviarse antes del commit");
+        });
+        esperar(() -> emitter.eventos.size() == 2);
+
+        transaccion.executeWithoutResult(estado -> {
+            eventPublisher.publishEvent(evento(2L));
+            estado.setRollbackOnly();
+        });
+        Thread.sleep(200);
+        assertEquals(2, emitter.eventos.size(), "Un evento de una transacción revertida no se envía");
+        assertEquals(1L, emitter.eventos.get(1).asistenciaId());
+    }
+
+    @Test
+    void suscriptorAtascado_seDesconecta_yLosDemasSiguenRecibiendo() {
+        CountDownLatch atasco = new CountDownLatch(1);
+        retenerSiguiente = atasco;
+        EmitterDePrueba lento = (EmitterDePrueba) asistenciaStreamService.suscribir(reunion.getId());
+        EmitterDePrueba rapido = (EmitterDePrueba) asistenciaStreamService.suscribir(reunion.getId());
+        int hilosIniciales = asistenciaStreamService.contarHilosEnvio();
+
+        for (long i = 1; i <= 20; i++) {
+            eventPublisher.publishEvent(evento(i));
+        }
+
+        // El único hilo de envío queda retenido por el lento: sin el plazo, el rápido no recibiría nada
+        esperar(() -> rapido.eventos.size() == 21);
+        assertEquals(1, asistenciaStreamService.contarSuscriptores(reunion.getId()));
+        assertFalse(rapido.completado);
+        assertEquals(hilosIniciales + 1, asistenciaStreamService.contarHilosEnvio());
+
+        eventPublisher.publishEvent(evento(21L));
+        esperar(() -> rapido.eventos.size() == 22);
+
+        // Al soltarse el envío atascado el lento se completa y el pool devuelve el hilo extra
+        atasco.countDown();
+        esperar(() -> lento.completado);
+        esperar(() -> asistenciaStreamService.contarHilosEnvio() == hilosIniciales);
+        assertTrue(lento.eventos.size() <= 2, "El lento no debe recibir más envíos tras ser desconectado");
+    }
+
+    @Test
+    void muchosSuscriptoresConcurrentes_recibenTodosLosEventos() throws Exception {
+        int suscriptores = 50;
+        int eventos = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<SseEmitter>> altas = new ArrayList<>();
+            for (int i = 0; i < suscriptores; i++) {
+                altas.add(executor.submit(() -> asistenciaStreamService.suscribir(reunion.getId())));
+            }
+            List<EmitterDePrueba> recibidos = new ArrayList<>();
+            for (Future<SseEmitter> alta : altas) {
+                recibidos.add((EmitterDePrueba) alta.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(suscriptores, asistenciaStreamService.contarSuscriptores(reunion.getId()));
+
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> publicaciones = new ArrayList<>();
+            for (int hilo = 0; hilo < 4; hilo++) {
+                long base = hilo * (eventos / 4L);
+                publicaciones.add(executor.submit(() -> {
+                    salida.await();
+                    for (long i = 1; i <= eventos / 4; i++) {
+                        eventPublisher.publishEvent(evento(base + i));
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> publicacion : publicaciones) {
+                publicacion.get(30, TimeUnit.SECONDS);
+            }
+
+            esperar(() -> recibidos.stream().allMatch(e -> e.eventos.size() == eventos + 1));
+            for (EmitterDePrueba emitter : recibidos) {
+                assertEquals("snapshot", emitter.eventos.get(0).nombre());
+                Set<Long> ids = emitter.eventos.stream().skip(1).map(Recibido::asistenciaId).collect(Collectors.toSet());
+                assertEquals(eventos, ids.size());
+                assertFalse(emitter.completado);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private EventoAsistenciaDto evento(Long asistenciaId) {
+        AsistenciaDto asistencia = new AsistenciaDto();
+        asistencia.setId(asistenciaId);
+        asistencia.setReunionId(reunion.getId());
+        asistencia.setEstadoAsistencia(Asistencia.EstadoAsistencia.PRESENTE);
+        return new EventoAsistenciaDto(EventoAsistenciaDto.Tipo.REGISTRADA, reunion.getId(), null, asistencia);
+    }
+
+    private static void esperar(BooleanSupplier condicion) {
+        long limite = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < limite) {
+            if (condicion.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("La condición no se cumplió a tiempo");
+    }
+
+    private record Recibido(String nombre, Long asistenciaId) {
+    }
+
+    /**
+     * Registra los eventos recibidos (sin latidos). Si tiene un cerrojo de retención, el primer delta
+     * queda bloqueado en send hasta liberarlo, como un socket que no acepta más datos.
+     */
+    private static final class EmitterDePrueba extends SseEmitter {
+
+        private final List<Recibido> eventos = new CopyOnWriteArrayList<>();
+        private final CountDownLatch retener;
+        private volatile boolean completado;
+
+        private EmitterDePrueba(Long timeout, CountDownLatch retener) {
+            super(timeout);
+            this.retener = retener;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            send(builder.build());
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> datos) throws IOException {
+            String texto = datos.stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining());
+            if (texto.startsWith(":")) {
+                return;
+            }
+            String nombre = texto.substring("event:".length(), texto.indexOf('\n'));
+            if (retener != null && nombre.equals("asistencia")) {
+                try {
+                    retener.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            eventos.add(new Recibido(nombre, asistenciaId(texto)));
+        }
+
+        @Override
+        public void complete() {
+            completado = true;
+        }
+
+        private void liberar() {
+            if (retener != null) {
+                retener.countDown();
+            }
+        }
+
+        private static Long asistenciaId(String texto) {
+            int inicio = texto.indexOf("\"asistencia\":{\"id\":");
+            if (inicio < 0) {
+                return null;
+            }
+            inicio += "\"asistencia\":{\"id\":".length();
+            int fin = inicio;
+            while (Character.isDigit(texto.charAt(fin))) {
+                fin++;
+            }
+            return Long.valueOf(texto.substring(inicio, fin));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.EstadisticasAsistenciaDto;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.AsistenciaRepository;
+import com.cas.asistencias.repository.ClaveIdempotenciaRepository;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lanza registros concurrentes de la misma asistencia desde varios hilos (sin transacción de test,
+ * cada llamada confirma la suya) y verifica que quede exactamente una fila, sin errores y con los
+ * contadores de la reunión coherentes.
+ */
+@SpringBootTest
+public class AsistenciaUpsertConcurrenciaTest {
+
+    private static final int HILOS = 16;
+    private static final int REGISTROS = 200;
+
+    @Autowired
+    private AsistenciaService asistenciaService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private EstadisticasAsistenciaService estadisticasAsistenciaService;
+
+    @Autowired
+    private AsistenciaRepository asistenciaRepository;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    private Reunion reunion;
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        reunion = reunionRepository.save(new Reunion("Reunión concurrencia", null, LocalDateTime.now(), "Sede", false));
+        usuario = userRepository.save(new User("upsert-concurrencia-" + System.nanoTime(), "password"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        claveIdempotenciaRepository.findByUsuarioAndClave("dirigente-test", "clave-" + reunion.getId())
+                .ifPresent(claveIdempotenciaRepository::delete);
+        reunionRepository.deleteById(reunion.getId());
+        userRepository.deleteById(usuario.getId());
+    }
+
+    @Test
+    void registrosConcurrentes_conCadaPolitica_dejanUnaSolaFila() throws Exception {
+        for (PoliticaConflicto politica : PoliticaConflicto.values()) {
+            List<Object> resultados = concurrentemente(i -> asistenciaService.registrarOActualizarAsistencia(
+                    nuevaAsistencia(i % 2 == 0 ? Asistencia.EstadoAsistencia.PRESENTE : Asistencia.EstadoAsistencia.TARDANZA),
+                    politica));
+
+            assertEquals(REGISTROS, resultados.size(), "Todos los registros deben terminar sin error con " + politica);
+            verificarUnaSolaFila();
+            if (politica == PoliticaConflicto.PREFERIR_PRESENTE) {
+                assertEquals(Asistencia.EstadoAsistencia.PRESENTE, asistenciaRepository
+                        .findDtoByReunionIdAndUsuarioId(reunion.getId(), usuario.getId()).orElseThrow().getEstadoAsistencia());
+            }
+            asistenciaService.eliminarAsistencia(asistenciaRepository
+                    .findDtoByReunionIdAndUsuarioId(reunion.getId(), usuario.getId()).orElseThrow().getId());
+        }
+    }
+
+    @Test
+    void reintentosConcurrentes_conLaMismaClave_devuelvenLaMismaRespuesta() throws Exception {
+        String clave = "clave-" + reunion.getId();
+        AsistenciaDto asistencia = nuevaAsistencia(Asistencia.EstadoAsistencia.PRESENTE);
+
+        List<Object> respuestas = concurrentemente(i -> idempotenciaService.ejecutar("dirigente-test", clave, "registrar",
+                asistencia, AsistenciaDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(asistenciaService.registrarAsistencia(asistencia))));
+
+        verificarUnaSolaFila();
+        Long id = asistenciaRepository.findDtoByReunionIdAndUsuarioId(reunion.getId(), usuario.getId()).orElseThrow().getId();
+        for (Object respuesta : respuestas) {
+            ResponseEntity<?> entidad = (ResponseEntity<?>) respuesta;
+            assertEquals(HttpStatus.CREATED, entidad.getStatusCode());
+            assertEquals(id, ((AsistenciaDto) entidad.getBody()).getId());
+        }
+    }
+
+    private void verificarUnaSolaFila() {
+        List<AsistenciaDto> filas = asistenciaRepository.findDetalleByReunionId(reunion.getId());
+        assertEquals(1, filas.size());
+
+        EstadisticasAsistenciaDto estadisticas = estadisticasAsistenciaService.obtenerEstadisticas(reunion.getId());
+        assertEquals(1, estadisticas.getTotal());
+        EstadisticasAsistenciaDto esperadas = new EstadisticasAsistenciaDto();
+        esperadas.sumar(filas.get(0).getEstadoAsistencia(), 1);
+        assertEquals(esperadas, estadisticas);
+    }
+
+    private AsistenciaDto nuevaAsistencia(Asistencia.EstadoAsistencia estado) {
+        AsistenciaDto dto = new AsistenciaDto();
+        dto.setReunionId(reunion.getId());
+        dto.setUsuarioId(usuario.getId());
+        dto.setEstadoAsistencia(estado);
+        dto.setRegistradoPor("dirigente-test");
+        return dto;
+    }
+
+    // Ejecuta REGISTROS llamadas desde HILOS hilos que arrancan a la vez; falla si alguna lanza excepción
+    private List<Object> concurrentemente(Registro registro) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futuros = new ArrayList<>();
+            for (int i = 0; i < REGISTROS; i++) {
+                int indice = i;
+                Callable<Object> tarea = () -> {
+                    salida.await();
+                    return registro.ejecutar(indice);
+                };
+                futuros.add(executor.submit(tarea));
+            }
+            salida.countDown();
+
+            List<Object> resultados = new ArrayList<>();
+            for (Future<Object> futuro : futuros) {
+                resultados.add(futuro.get(30, TimeUnit.SECONDS));
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Registro {
+        Object ejecutar(int indice);
+    }
+}
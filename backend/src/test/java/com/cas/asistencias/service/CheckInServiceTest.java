@@ -0,0 +1,271 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.MetricasCheckInDto;
+import com.cas.asistencias.dto.ResultadoRegistroAsistenciaDto;
+import com.cas.asistencias.exception.ColaCheckInLlenaException;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import com.cas.login.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Confirmación agrupada de check-ins con una cola pequeña (10), lotes de 5 y 100 ms de espera.
+ * Para retener al escritor se bloquea la fila de la reunión (FOR UPDATE) desde otra transacción: el
+ * INSERT del lote espera por la clave foránea hasta que se libera. Sin transacción de test, cada lote
+ * confirma la suya.
+ */
+@SpringBootTest(properties = {
+        "asistencias.checkin.capacidad=10",
+        "asistencias.checkin.tamano-lote=5",
+        "asistencias.checkin.espera-ms=100"
+})
+@AutoConfigureMockMvc
+public class CheckInServiceTest {
+
+    @Autowired
+    private CheckInService checkInService;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Reunion reunion;
+    private final List<User> usuarios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        reunion = reunionRepository.save(new Reunion("Reunión check-in", null, LocalDateTime.now(), "Sede", false));
+        for (int i = 0; i < 12; i++) {
+            usuarios.add(userRepository.save(new User("checkin-" + i + "-" + System.nanoTime(), "password")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM asistencias WHERE reunion_id = ?", reunion.getId());
+        usuarios.forEach(u -> userRepository.deleteById(u.getId()));
+        reunionRepository.deleteById(reunion.getId());
+    }
+
+    @Test
+    void checkInsConcurrentes_seAgrupanEnMenosLotes_yCadaUnoRecibeSuResultado() throws Exception {
+        MetricasCheckInDto antes = checkInService.obtenerMetricas();
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<CompletableFuture<ResultadoRegistroAsistenciaDto>>> envios = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Long usuarioId = usuarios.get(i).getId();
+                envios.add(executor.submit(() -> {
+                    salida.await();
+                    return checkInService.encolar(checkIn(usuarioId));
+                }));
+            }
+            salida.countDown();
+
+            for (int i = 0; i < 10; i++) {
+                ResultadoRegistroAsistenciaDto resultado = envios.get(i).get(30, TimeUnit.SECONDS).get(30, TimeUnit.SECONDS);
+                assertEquals(ResultadoRegistroAsistenciaDto.Resultado.CREADA, resultado.getResultado());
+                assertEquals(usuarios.get(i).getId(), resultado.getUsuarioId());
+                assertEquals(usuarios.get(i).getId(), resultado.getAsistencia().getUsuarioId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        MetricasCheckInDto despues = checkInService.obtenerMetricas();
+        long lotes = despues.getLotesConfirmados() - antes.getLotesConfirmados();
+        assertTrue(lotes < 10, "10 check-ins concurrentes deberían confirmarse en menos lotes, fueron " + lotes);
+        assertEquals(10, despues.getFilasConfirmadas() - antes.getFilasConfirmadas());
+        assertEquals(10, despues.getFilasProcesadas() - antes.getFilasProcesadas());
+    }
+
+    @Test
+    void checkInsEncolados_seConfirmanEnLotesDelTamanoMaximo() throws Exception {
+        MetricasCheckInDto antes = checkInService.obtenerMetricas();
+        List<CompletableFuture<ResultadoRegistroAsistenciaDto>> resultados = new ArrayList<>();
+        try (BloqueoReunion bloqueo = new BloqueoReunion()) {
+            // El primero forma un lote propio que queda esperando el bloqueo; los 10 siguientes se acumulan
+            resultados.add(checkInService.encolar(checkIn(usuarios.get(0).getId())));
+            esperarEscritorBloqueado();
+            for (int i = 1; i <= 10; i++) {
+                resultados.add(checkInService.encolar(checkIn(usuarios.get(i).getId())));
+            }
+        }
+
+        for (CompletableFuture<ResultadoRegistroAsistenciaDto> resultado : resultados) {
+            assertEquals(ResultadoRegistroAsistenciaDto.Resultado.CREADA, resultado.get(30, TimeUnit.SECONDS).getResultado());
+        }
+        MetricasCheckInDto despues = checkInService.obtenerMetricas();
+        assertEquals(3, despues.getLotesConfirmados() - antes.getLotesConfirmados());
+        assertEquals(5, despues.getUltimoTamanoLote());
+    }
+
+    @Test
+    void loteIncompleto_seConfirmaAlVencerLaEspera() throws Exception {
+        MetricasCheckInDto antes = checkInService.obtenerMetricas();
+        long inicio = System.nanoTime();
+
+        ResultadoRegistroAsistenciaDto resultado = checkInService.encolar(checkIn(usuarios.get(0).getId()))
+                .get(30, TimeUnit.SECONDS);
+
+        long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertEquals(ResultadoRegistroAsistenciaDto.Resultado.CREADA, resultado.getResultado());
+        assertTrue(esperaMs >= 100, "El lote no debería confirmarse antes de vencer la espera (" + esperaMs + " ms)");
+        MetricasCheckInDto despues = checkInService.obtenerMetricas();
+        assertEquals(1, despues.getLotesConfirmados() - antes.getLotesConfirmados());
+        assertEquals(1, despues.getUltimoTamanoLote());
+    }
+
+    @Test
+    void duplicados_cuentanComoProcesados_peroNoComoConfirmados() throws Exception {
+        Long usuarioId = usuarios.get(0).getId();
+        checkInService.encolar(checkIn(usuarioId)).get(30, TimeUnit.SECONDS);
+        MetricasCheckInDto antes = checkInService.obtenerMetricas();
+
+        ResultadoRegistroAsistenciaDto resultado = checkInService.encolar(checkIn(usuarioId)).get(30, TimeUnit.SECONDS);
+
+        assertEquals(ResultadoRegistroAsistenciaDto.Resultado.DUPLICADA, resultado.getResultado());
+        MetricasCheckInDto despues = checkInService.obtenerMetricas();
+        assertEquals(1, despues.getFilasProcesadas() - antes.getFilasProcesadas());
+        assertEquals(0, despues.getFilasConfirmadas() - antes.getFilasConfirmadas());
+    }
+
+    @Test
+    void loteFallido_completaSusCheckInsConError() throws Exception {
+        MetricasCheckInDto antes = checkInService.obtenerMetricas();
+        AsistenciaDto invalido = checkIn(usuarios.get(0).getId());
+        // registrado_por es VARCHAR(255): el INSERT falla también en el reintento
+        invalido.setRegistradoPor("x".repeat(300));
+
+        CompletableFuture<ResultadoRegistroAsistenciaDto> resultado = checkInService.encolar(invalido);
+
+        assertThrows(ExecutionException.class, () -> resultado.get(30, TimeUnit.SECONDS));
+        MetricasCheckInDto despues = checkInService.obtenerMetricas();
+        assertEquals(1, despues.getLotesFallidos() - antes.getLotesFallidos());
+        assertEquals(0, despues.getLotesConfirmados() - antes.getLotesConfirmados());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM asistencias WHERE reunion_id = ?",
+                Long.class, reunion.getId()));
+    }
+
+    @Test
+    void colaLlena_responde503ConRetryAfter() throws Exception {
+        List<CompletableFuture<ResultadoRegistroAsistenciaDto>> resultados = new ArrayList<>();
+        try (BloqueoReunion bloqueo = new BloqueoReunion()) {
+            resultados.add(checkInService.encolar(checkIn(usuarios.get(0).getId())));
+            esperarEscritorBloqueado();
+            for (int i = 1; i <= 10; i++) {
+                resultados.add(checkInService.encolar(checkIn(usuarios.get(i).getId())));
+            }
+            long rechazados = checkInService.obtenerMetricas().getRechazados();
+
+            assertThrows(ColaCheckInLlenaException.class, () -> checkInService.encolar(checkIn(usuarios.get(11).getId())));
+            mockMvc.perform(post("/api/asistencias/check-in")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"reunionId\":" + reunion.getId() + ",\"usuarioId\":" + usuarios.get(11).getId() + "}")
+                            .with(user(new UserDetailsImpl(-1L, "checkin", "", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            assertEquals(rechazados + 2, checkInService.obtenerMetricas().getRechazados());
+        }
+
+        // Los check-ins aceptados se confirman al liberar el bloqueo
+        for (CompletableFuture<ResultadoRegistroAsistenciaDto> resultado : resultados) {
+            assertEquals(ResultadoRegistroAsistenciaDto.Resultado.CREADA, resultado.get(30, TimeUnit.SECONDS).getResultado());
+        }
+    }
+
+    private AsistenciaDto checkIn(Long usuarioId) {
+        return new AsistenciaDto(reunion.getId(), usuarioId, Asistencia.EstadoAsistencia.PRESENTE);
+    }
+
+    // Espera a que el INSERT del lote en curso quede bloqueado por la fila de la reunión
+    private void esperarEscritorBloqueado() throws InterruptedException {
+        long limite = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < limite) {
+            Long esperando = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity " +
+                    "WHERE wait_event_type = 'Lock' AND datname = current_database()", Long.class);
+            if (esperando != null && esperando > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("El escritor de check-ins no llegó a esperar el bloqueo de la reunión");
+    }
+
+    /**
+     * Mantiene la fila de la reunión bloqueada con FOR UPDATE en otra transacción hasta cerrarse.
+     */
+    private final class BloqueoReunion implements AutoCloseable {
+
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        private final CountDownLatch liberar = new CountDownLatch(1);
+        private final Future<?> transaccion;
+
+        private BloqueoReunion() throws Exception {
+            CountDownLatch bloqueada = new CountDownLatch(1);
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            transaccion = executor.submit(() -> template.executeWithoutResult(estado -> {
+                jdbcTemplate.queryForList("SELECT id FROM reuniones WHERE id = ? FOR UPDATE", reunion.getId());
+                bloqueada.countDown();
+                try {
+                    liberar.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(bloqueada.await(30, TimeUnit.SECONDS));
+        }
+
+        @Override
+        public void close() throws Exception {
+            liberar.countDown();
+            transaccion.get(30, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.EstadisticasAsistenciaDto;
+import com.cas.asistencias.dto.ReconciliacionEstadisticasDto;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.EstadisticasReunionRepository;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Intercala un registro de asistencia (registrarCambios sin confirmar) con una reconciliación
+ * (sin transacción de test, cada hilo confirma la suya) y verifica que la corrección no pise el delta.
+ */
+@SpringBootTest
+public class EstadisticasReconciliacionConcurrenciaTest {
+
+    @Autowired
+    private EstadisticasAsistenciaService estadisticasAsistenciaService;
+
+    @Autowired
+    private EstadisticasReunionRepository estadisticasReunionRepository;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Reunion reunion;
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        reunion = reunionRepository.save(new Reunion("Reunión reconciliación", null, LocalDateTime.now(), "Sede", false));
+        usuario = userRepository.save(new User("reconciliacion-concurrencia-" + System.nanoTime(), "password"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reunionRepository.deleteById(reunion.getId());
+        userRepository.deleteById(usuario.getId());
+    }
+
+    @Test
+    void reconciliacion_esperaAlRegistroEnCurso_yNoPisaSuDelta() throws Exception {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        // Contadores corruptos: la reconciliación tendrá que corregir esta reunión
+        transaccion.executeWithoutResult(estado ->
+                estadisticasReunionRepository.establecer(reunion.getId(), 5, 0, 0, 0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        try {
+            Future<?> registro = executor.submit(() -> transaccion.executeWithoutResult(estado -> {
+                jdbcTemplate.update("INSERT INTO asistencias (reunion_id, user_id, estado_asistencia, fecha_registro) " +
+                        "VALUES (?, ?, 'PRESENTE', now())", reunion.getId(), usuario.getId());
+                EstadisticasAsistenciaDto delta = new EstadisticasAsistenciaDto();
+                delta.sumar(Asistencia.EstadoAsistencia.PRESENTE, 1);
+                estadisticasAsistenciaService.registrarCambios(Map.of(reunion.getId(), delta));
+                registrado.countDown();
+                try {
+                    confirmar.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(registrado.await(30, TimeUnit.SECONDS));
+
+            Future<ReconciliacionEstadisticasDto> reconciliacion = executor.submit(estadisticasAsistenciaService::reconciliar);
+            esperarBloqueoSobreContadores();
+            confirmar.countDown();
+            registro.get(30, TimeUnit.SECONDS);
+            ReconciliacionEstadisticasDto resultado = reconciliacion.get(30, TimeUnit.SECONDS);
+
+            EstadisticasAsistenciaDto esperadas = new EstadisticasAsistenciaDto();
+            esperadas.sumar(Asistencia.EstadoAsistencia.PRESENTE, 1);
+            assertEquals(esperadas, estadisticasAsistenciaService.obtenerEstadisticas(reunion.getId()));
+            ReconciliacionEstadisticasDto.Desviacion desviacion = resultado.getDesviaciones().stream()
+                    .filter(d -> d.getReunionId().equals(reunion.getId()))
+                    .findFirst().orElseThrow();
+            assertEquals(esperadas, desviacion.getReales());
+        } finally {
+            confirmar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // Espera a que la reconciliación quede bloqueada por la fila de contadores que tiene el registro sin confirmar
+    private void esperarBloqueoSobreContadores() throws InterruptedException {
+        long limite = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < limite) {
+            Long esperando = jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity " +
+                    "WHERE wait_event_type = 'Lock' AND query LIKE '%reunion_attendance_stats%'", Long.class);
+            if (esperando != null && esperando > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("La reconciliación no llegó a esperar el bloqueo de los contadores");
+    }
+}
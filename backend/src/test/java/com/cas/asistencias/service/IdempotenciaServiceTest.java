@@ -0,0 +1,93 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.exception.ClaveIdempotenciaReutilizadaException;
+import com.cas.asistencias.repository.ClaveIdempotenciaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Caducidad de las claves de idempotencia: dentro del TTL un reintento repite la respuesta registrada;
+ * pasado el TTL la clave cuenta como ausente aunque la limpieza periódica aún no la haya borrado.
+ * Sin transacción de test, para que cada llamada confirme la suya como una petición real.
+ */
+@SpringBootTest(properties = "asistencias.idempotencia.ttl-horas=24")
+public class IdempotenciaServiceTest {
+
+    private static final String USUARIO = "idempotencia-test";
+    private static final String CLAVE = "clave-caducidad";
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        claveIdempotenciaRepository.findByUsuarioAndClave(USUARIO, CLAVE)
+                .ifPresent(claveIdempotenciaRepository::delete);
+    }
+
+    @Test
+    void reintentoDentroDelTtl_repiteLaRespuestaRegistrada() {
+        ResponseEntity<String> primera = ejecutar(Map.of("usuarioId", 1));
+        ResponseEntity<String> reintento = ejecutar(Map.of("usuarioId", 1));
+
+        assertEquals(1, ejecuciones.get());
+        assertEquals(primera.getBody(), reintento.getBody());
+        assertEquals("true", reintento.getHeaders().getFirst(IdempotenciaService.CABECERA_REPETIDA));
+        assertThrows(ClaveIdempotenciaReutilizadaException.class, () -> ejecutar(Map.of("usuarioId", 2)));
+    }
+
+    @Test
+    void clavePasadoElTtl_seTrataComoAusente() {
+        ejecutar(Map.of("usuarioId", 1));
+        caducarClave();
+
+        ResponseEntity<String> tras = ejecutar(Map.of("usuarioId", 1));
+
+        assertEquals(2, ejecuciones.get());
+        assertEquals("ejecucion-2", tras.getBody());
+        assertNull(tras.getHeaders().getFirst(IdempotenciaService.CABECERA_REPETIDA));
+        // La fila reutilizada vuelve a valer durante el TTL
+        assertEquals("ejecucion-2", ejecutar(Map.of("usuarioId", 1)).getBody());
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    void clavePasadoElTtl_admiteOtraPeticion() {
+        ejecutar(Map.of("usuarioId", 1));
+        caducarClave();
+
+        ResponseEntity<String> otra = ejecutar(Map.of("usuarioId", 2));
+
+        assertEquals(2, ejecuciones.get());
+        assertEquals(HttpStatus.CREATED, otra.getStatusCode());
+    }
+
+    private ResponseEntity<String> ejecutar(Object peticion) {
+        return idempotenciaService.ejecutar(USUARIO, CLAVE, "test", peticion, String.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body("ejecucion-" + ejecuciones.incrementAndGet()));
+    }
+
+    private void caducarClave() {
+        jdbcTemplate.update("UPDATE asistencia_idempotency_keys SET fecha_creacion = ? WHERE usuario = ? AND clave = ?",
+                LocalDateTime.now().minusHours(25), USUARIO, CLAVE);
+    }
+}
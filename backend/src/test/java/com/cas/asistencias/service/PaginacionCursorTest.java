@@ -0,0 +1,90 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.dto.AsistenciaDto;
+import com.cas.asistencias.dto.ReunionDto;
+import com.cas.asistencias.model.Asistencia;
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.AsistenciaRepository;
+import com.cas.asistencias.repository.ReunionRepository;
+import com.cas.common.pagination.CursorPage;
+import com.cas.common.pagination.KeysetCursor;
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los listados ordenados por fecha solo aceptan cursores (fechaReunion, id): un cursor con solo ID
+ * (el de las asistencias de una reunión) se rechaza en lugar de interpretarse con una fecha nula.
+ */
+@SpringBootTest
+@Transactional
+public class PaginacionCursorTest {
+
+    @Autowired
+    private ReunionService reunionService;
+
+    @Autowired
+    private AsistenciaService asistenciaService;
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private AsistenciaRepository asistenciaRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void cursorSinFecha_enListadosPorFecha_seRechaza() {
+        User usuario = userRepository.save(new User("cursor-sin-fecha-" + System.nanoTime(), "password"));
+        String soloId = KeysetCursor.of(1L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> reunionService.obtenerReuniones(soloId, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> asistenciaService.obtenerHistorialUsuario(usuario.getId(), soloId, 10));
+    }
+
+    @Test
+    void cursorConFecha_continuaDespuesDeLaUltimaFila() {
+        LocalDateTime fecha = LocalDateTime.now().plusYears(50);
+        Reunion primera = reunionRepository.save(new Reunion("Cursor 1", null, fecha, "Sede", false));
+        Reunion segunda = reunionRepository.save(new Reunion("Cursor 2", null, fecha, "Sede", false));
+        String cursor = KeysetCursor.of(fecha, segunda.getId()).encode();
+
+        CursorPage<ReunionDto> pagina = reunionService.obtenerReuniones(cursor, 1);
+
+        assertEquals(primera.getId(), pagina.getItems().get(0).getId());
+    }
+
+    @Test
+    void historialPaginado_sigueLaFechaDeLaReunion_inclusoTrasReprogramarla() {
+        User usuario = userRepository.save(new User("cursor-historial-" + System.nanoTime(), "password"));
+        LocalDateTime base = LocalDateTime.now().minusYears(1);
+        Reunion antigua = reunionRepository.save(new Reunion("Historial 1", null, base, "Sede", false));
+        Reunion media = reunionRepository.save(new Reunion("Historial 2", null, base.plusDays(1), "Sede", false));
+        Reunion reciente = reunionRepository.save(new Reunion("Historial 3", null, base.plusDays(2), "Sede", false));
+        for (Reunion reunion : List.of(antigua, media, reciente)) {
+            asistenciaRepository.save(new Asistencia(reunion, usuario, Asistencia.EstadoAsistencia.PRESENTE));
+        }
+
+        // La copia de fecha_reunion en asistencias se actualiza por trigger al reprogramar la reunión
+        antigua.setFechaReunion(base.plusDays(3));
+        reunionRepository.saveAndFlush(antigua);
+
+        CursorPage<AsistenciaDto> primera = asistenciaService.obtenerHistorialUsuario(usuario.getId(), null, 2);
+        CursorPage<AsistenciaDto> segunda = asistenciaService.obtenerHistorialUsuario(usuario.getId(), primera.getNextCursor(), 2);
+
+        assertEquals(List.of(antigua.getId(), reciente.getId()),
+                primera.getItems().stream().map(AsistenciaDto::getReunionId).toList());
+        assertEquals(List.of(media.getId()), segunda.getItems().stream().map(AsistenciaDto::getReunionId).toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.cas.asistencias.service;
+
+import com.cas.asistencias.model.Reunion;
+import com.cas.asistencias.repository.ReunionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide la búsqueda anterior (LOWER(nombre) LIKE '%texto%', sin índice utilizable) y la búsqueda por
+ * trigramas sobre 100.000 reuniones; los tiempos solo se informan, lo que se verifica es que el plan use
+ * idx_reuniones_busqueda_trgm. Se ejecuta con ./gradlew benchmark; los datos se revierten al terminar.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+public class ReunionBusquedaBenchmarkTest {
+
+    private static final int REUNIONES = 100_000;
+    private static final int CALENTAMIENTO = 5;
+    private static final int ITERACIONES = 30;
+    private static final PageRequest PAGINA = PageRequest.of(0, 20);
+
+    // Consultas equivalentes a las que generaba findByNombreContainingIgnoreCase (página + conteo)
+    private static final String LIKE_PAGINA = "SELECT * FROM reuniones r WHERE LOWER(r.nombre) LIKE LOWER(?) " +
+            "ORDER BY r.fecha_reunion DESC LIMIT 20";
+    private static final String LIKE_CONTEO = "SELECT count(*) FROM reuniones r WHERE LOWER(r.nombre) LIKE LOWER(?)";
+
+    @Autowired
+    private ReunionRepository reunionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update(
+                "INSERT INTO reuniones (nombre, descripcion, fecha_reunion, lugar, es_obligatoria, estado) " +
+                "SELECT 'Reunión ' || (ARRAY['fogón', 'campamento', 'asamblea', 'excursión', 'taller'])[1 + i % 5] || ' ' || (i % 1000), " +
+                "       'Actividad número ' || i || ' del calendario anual', " +
+                "       now() - i * interval '1 hour', 'Sede ' || (i % 50), false, 'PROGRAMADA' " +
+                "FROM generate_series(1, ?) AS i", REUNIONES);
+        jdbcTemplate.execute("ANALYZE reuniones");
+    }
+
+    @Test
+    void busquedaPorTrigramas_encuentraResultados_ySuPlanUsaIdxReunionesBusquedaTrgm() {
+        String texto = "asamblea 417";
+        String patron = "%" + texto + "%";
+
+        long likeNanos = medir(() -> {
+            jdbcTemplate.queryForList(LIKE_PAGINA, patron);
+            jdbcTemplate.queryForObject(LIKE_CONTEO, Long.class, patron);
+        });
+        long trigramaNanos = medir(() -> reunionRepository.buscarPorTexto(texto, patron, PAGINA));
+
+        System.out.printf("Búsqueda sobre %d reuniones (mediana de %d ejecuciones): LIKE=%.2f ms, trigramas=%.2f ms%n",
+                REUNIONES, ITERACIONES, likeNanos / 1e6, trigramaNanos / 1e6);
+
+        Page<Reunion> resultado = reunionRepository.buscarPorTexto(texto, patron, PAGINA);
+        assertFalse(resultado.isEmpty());
+        assertTrue(resultado.getContent().get(0).getNombre().toLowerCase().contains(texto));
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT r.id FROM reuniones r WHERE r.busqueda_texto LIKE ? OR ? <% r.busqueda_texto",
+                String.class, patron, texto));
+        assertTrue(plan.contains("idx_reuniones_busqueda_trgm"), plan);
+    }
+
+    @Test
+    void busquedaPorTrigramas_toleraErroresDeTipeo() {
+        Page<Reunion> resultado = reunionRepository.buscarPorTexto("asamblae", "%asamblae%", PAGINA);
+
+        assertFalse(resultado.isEmpty());
+        assertTrue(resultado.getContent().get(0).getNombre().contains("asamblea"));
+    }
+
+    private long medir(Runnable consulta) {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            consulta.run();
+        }
+        List<Long> tiempos = new ArrayList<>();
+        for (int i = 0; i < ITERACIONES; i++) {
+            long inicio = System.nanoTime();
+            consulta.run();
+            tiempos.add(System.nanoTime() - inicio);
+        }
+        Collections.sort(tiempos);
+        return tiempos.get(tiempos.size() / 2);
+    }
+}
@@ -0,0 +1,101 @@
+package com.cas.login.controller;
+
+import com.cas.login.model.Role;
+import com.cas.login.model.User;
+import com.cas.login.repository.RoleRepository;
+import com.cas.login.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class AccessTokenIntegrationTest {
+
+    private static final String USERNAME = "token-user";
+    private static final String PASSWORD = "password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        Role roleDirigente = roleRepository.findByName("ROLE_DIRIGENTE")
+                .orElseGet(() -> roleRepository.save(new Role("ROLE_DIRIGENTE")));
+        User user = new User(USERNAME, passwordEncoder.encode(PASSWORD));
+        user.setRoles(Set.of(roleDirigente));
+        userRepository.save(user);
+    }
+
+    @Test
+    void login_issuesToken_thatAuthenticatesApiCallsWithoutSession() throws Exception {
+        String token = login();
+
+        mockMvc.perform(get("/api/user/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tamperedOrMalformedToken_isRejected() throws Exception {
+        String token = login();
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        mockMvc.perform(get("/api/user/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + tampered))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/user/me").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_returnsNewToken() throws Exception {
+        String token = login();
+
+        String body = mockMvc.perform(post("/api/token/refresh").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType", is("Bearer")))
+                .andExpect(jsonPath("$.accessToken", not(emptyOrNullString())))
+                .andReturn().getResponse().getContentAsString();
+
+        String refreshed = objectMapper.readTree(body).get("accessToken").asText();
+        mockMvc.perform(get("/api/user/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed))
+                .andExpect(status().isOk());
+    }
+
+    private String login() throws Exception {
+        String body = mockMvc.perform(post("/perform_login").param("username", USERNAME).param("password", PASSWORD))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roles", contains("ROLE_DIRIGENTE")))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode json = objectMapper.readTree(body);
+        assertEquals("Bearer", json.get("tokenType").asText());
+        return json.get("accessToken").asText();
+    }
+}
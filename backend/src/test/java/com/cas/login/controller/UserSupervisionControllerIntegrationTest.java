@@ -1,5 +1,6 @@
 package com.cas.login.controller;
 
+import com.cas.login.dto.SupervisionAssignmentDto;
 import com.cas.login.model.Role;
 import com.cas.login.model.User;
 import com.cas.login.repository.RoleRepository;
@@ -19,6 +20,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
@@ -204,4 +206,75 @@ public class UserSupervisionControllerIntegrationTest {
                 .andExpect(jsonPath("$[?(@.username == 'acampante2')]").exists());
     }
 
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void getDirigentesPage_shouldReturnLeanSortedPage() throws Exception {
+        mockMvc.perform(get("/api/supervision/dirigentes")
+                        .param("page", "0").param("size", "1").param("sort", "username,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].username", is("dirigente2")))
+                .andExpect(jsonPath("$.content[0].roles").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(2)));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void getAcampantesPage_withUnsupportedSort_shouldBeBadRequest() throws Exception {
+        mockMvc.perform(get("/api/supervision/acampantes").param("page", "0").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void bulkAssignAndRemove_shouldWriteOnlyMissingPairs() throws Exception {
+        userSupervisionService.assignAcampanteToDirigente(dirigente1.getId(), acampante1.getId());
+        String mapping = objectMapper.writeValueAsString(List.of(
+                new SupervisionAssignmentDto(dirigente1.getId(), List.of(acampante1.getId(), acampante2.getId(), acampante2.getId())),
+                new SupervisionAssignmentDto(dirigente2.getId(), List.of(acampante1.getId()))));
+
+        mockMvc.perform(post("/api/supervision/bulk/assign").contentType(MediaType.APPLICATION_JSON).content(mapping))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(3)))
+                .andExpect(jsonPath("$.changed", is(2)));
+        assertEquals(4, userRepository.findSupervisionPairs().size());
+
+        mockMvc.perform(post("/api/supervision/dirigente/{dirigenteId}/remove", dirigente1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(acampante1.getId(), acampante2.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed", is(2)));
+        assertEquals(1, userRepository.findSupervisionPairs().size());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void bulkAssign_withWrongRoles_shouldBeBadRequestAndWriteNothing() throws Exception {
+        mockMvc.perform(post("/api/supervision/dirigente/{dirigenteId}/assign", dirigente1.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(acampante1.getId(), regularUser.getId(), dirigente2.getId()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", containsString(regularUser.getId().toString())))
+                .andExpect(jsonPath("$.error", containsString(dirigente2.getId().toString())));
+        assertTrue(userRepository.findSupervisionPairs().isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "dirigente1", roles = {"DIRIGENTE"})
+    void getSupervisedCampersPage_shouldReturnProjectionAndCount() throws Exception {
+        userSupervisionService.assignAcampantesToDirigente(dirigente1.getId(), List.of(acampante1.getId(), acampante2.getId()));
+
+        mockMvc.perform(get("/api/supervision/dirigente/{dirigenteId}/campers", dirigente1.getId())
+                        .param("page", "0").param("size", "50").param("sort", "username,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].username", is("acampante2")))
+                .andExpect(jsonPath("$.content[0].nombre").value(nullValue()))
+                .andExpect(jsonPath("$.content[0].roles").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(2)));
+
+        mockMvc.perform(get("/api/supervision/dirigente/{dirigenteId}/campers/count", dirigente1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(2)));
+    }
 }
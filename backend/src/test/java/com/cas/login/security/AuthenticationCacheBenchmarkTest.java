@@ -0,0 +1,103 @@
+package com.cas.login.security;
+
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mide autenticaciones HTTP Basic por segundo con el proveedor BCrypt directo y con la caché de credenciales.
+ * Se ejecuta con ./gradlew benchmark; la invalidación se prueba en UserCredentialsListenerTest.
+ */
+@Tag("benchmark")
+@SpringBootTest
+public class AuthenticationCacheBenchmarkTest {
+
+    private static final int HILOS = 8;
+    private static final long DURACION_MS = 5_000;
+    private static final String PASSWORD = "benchmark-password";
+
+    @Autowired
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = userRepository.save(new User("auth-cache-" + System.nanoTime(), passwordEncoder.encode(PASSWORD)));
+        authenticationCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(usuario.getId());
+        authenticationCache.clear();
+    }
+
+    @Test
+    void conCache_multiplicaElThroughput() throws Exception {
+        CachingAuthenticationProvider conCache = new CachingAuthenticationProvider(authenticationProvider, authenticationCache);
+
+        double sinCachePorSegundo = throughput(authenticationProvider);
+        double conCachePorSegundo = throughput(conCache);
+        System.out.printf("Autenticaciones HTTP Basic con %d hilos: sin caché=%.0f/s, con caché=%.0f/s (%.0fx)%n",
+                HILOS, sinCachePorSegundo, conCachePorSegundo, conCachePorSegundo / sinCachePorSegundo);
+        assertTrue(conCachePorSegundo > sinCachePorSegundo * 10);
+    }
+
+    private UsernamePasswordAuthenticationToken credenciales() {
+        return UsernamePasswordAuthenticationToken.unauthenticated(usuario.getUsername(), PASSWORD);
+    }
+
+    // Autenticaciones por segundo durante DURACION_MS, repartidas entre HILOS hilos
+    private double throughput(AuthenticationProvider proveedor) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURACION_MS);
+            List<Future<Long>> futuros = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                futuros.add(executor.submit(() -> {
+                    long autenticaciones = 0;
+                    while (System.nanoTime() < fin) {
+                        assertTrue(proveedor.authenticate(credenciales()).isAuthenticated());
+                        autenticaciones++;
+                    }
+                    return autenticaciones;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> futuro : futuros) {
+                total += futuro.get(DURACION_MS * 2, TimeUnit.MILLISECONDS);
+            }
+            return total * 1000.0 / DURACION_MS;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.cas.login.security;
+
+import com.cas.login.model.Role;
+import com.cas.login.model.User;
+import com.cas.login.repository.RoleRepository;
+import com.cas.login.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Invalidación de la caché de autenticación: un cambio de contraseña o solo de roles quita la entrada
+ * del usuario al confirmar, y un cambio revertido la conserva. Sin transacción de test.
+ */
+@SpringBootTest
+public class UserCredentialsListenerTest {
+
+    private static final String PASSWORD = "listener-password";
+
+    @Autowired
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CachingAuthenticationProvider conCache;
+    private User usuario;
+
+    @BeforeEach
+    void setUp() {
+        usuario = userRepository.save(new User("credentials-listener-" + System.nanoTime(), passwordEncoder.encode(PASSWORD)));
+        authenticationCache.clear();
+        conCache = new CachingAuthenticationProvider(authenticationProvider, authenticationCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(usuario.getId());
+        authenticationCache.clear();
+    }
+
+    @Test
+    void cambiarLaPassword_invalidaLaEntradaCacheada() {
+        conCache.authenticate(credenciales());
+        assertEquals(1, authenticationCache.size());
+
+        usuario.setPassword(passwordEncoder.encode("otra-password"));
+        usuario = userRepository.save(usuario);
+
+        assertEquals(0, authenticationCache.size());
+        assertThrows(BadCredentialsException.class, () -> conCache.authenticate(credenciales()));
+    }
+
+    @Test
+    void cambiarSoloLosRoles_invalidaLaEntradaCacheada() {
+        Role dirigente = roleRepository.findByName("ROLE_DIRIGENTE").orElseGet(() -> roleRepository.save(new Role("ROLE_DIRIGENTE")));
+        conCache.authenticate(credenciales());
+        assertEquals(1, authenticationCache.size());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            User gestionado = userRepository.findById(usuario.getId()).orElseThrow();
+            gestionado.getRoles().add(dirigente);
+        });
+
+        assertEquals(0, authenticationCache.size());
+        Set<String> roles = conCache.authenticate(credenciales()).getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        assertTrue(roles.contains("ROLE_DIRIGENTE"));
+    }
+
+    @Test
+    void cambioRevertido_conservaLaEntradaCacheada() {
+        conCache.authenticate(credenciales());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            User gestionado = userRepository.findById(usuario.getId()).orElseThrow();
+            gestionado.setRoles(new HashSet<>());
+            gestionado.setPassword(passwordEncoder.encode("otra-password"));
+            userRepository.flush();
+            estado.setRollbackOnly();
+        });
+
+        assertEquals(1, authenticationCache.size());
+    }
+
+    private UsernamePasswordAuthenticationToken credenciales() {
+        return UsernamePasswordAuthenticationToken.unauthenticated(usuario.getUsername(), PASSWORD);
+    }
+}
@@ -0,0 +1,194 @@
+package com.cas.login.service;
+
+import com.cas.login.model.Role;
+import com.cas.login.model.User;
+import com.cas.login.repository.RoleRepository;
+import com.cas.login.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Índice de supervisión en memoria: cambios aplicados solo tras el commit, parseo de las notificaciones
+ * y recarga completa cuando SupervisionIndexListener reconecta. Sin transacción de test, para que los
+ * commits (y los NOTIFY) ocurran de verdad.
+ */
+@SpringBootTest
+public class SupervisionIndexTest {
+
+    @Autowired
+    private SupervisionIndex supervisionIndex;
+
+    @Autowired
+    private UserSupervisionService userSupervisionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User dirigente;
+    private User acampante1;
+    private User acampante2;
+
+    @BeforeEach
+    void setUp() {
+        Role roleDirigente = roleRepository.findByName("ROLE_DIRIGENTE").orElseGet(() -> roleRepository.save(new Role("ROLE_DIRIGENTE")));
+        Role roleAcampante = roleRepository.findByName("ROLE_ACAMPANTE").orElseGet(() -> roleRepository.save(new Role("ROLE_ACAMPANTE")));
+        dirigente = createUser("supervision-index-dirigente-", roleDirigente);
+        acampante1 = createUser("supervision-index-acampante1-", roleAcampante);
+        acampante2 = createUser("supervision-index-acampante2-", roleAcampante);
+    }
+
+    private User createUser(String prefix, Role role) {
+        User user = new User(prefix + System.nanoTime(), "password");
+        user.setRoles(new HashSet<>(Set.of(role)));
+        return userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_supervision WHERE dirigente_id = ?", dirigente.getId());
+        List.of(dirigente, acampante1, acampante2).forEach(u -> userRepository.deleteById(u.getId()));
+        supervisionIndex.reload();
+    }
+
+    @Test
+    void assignAndRemove_areVisibleAfterCommit() {
+        assertFalse(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante1.getId()));
+
+        userSupervisionService.assignAcampanteToDirigente(dirigente.getId(), acampante1.getId());
+        assertTrue(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante1.getId()));
+        assertFalse(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante2.getId()));
+
+        userSupervisionService.removeAcampanteFromDirigente(dirigente.getId(), acampante1.getId());
+        assertFalse(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante1.getId()));
+    }
+
+    @Test
+    void assign_isNotVisibleBeforeCommit_norAfterRollback() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            userSupervisionService.assignAcampanteToDirigente(dirigente.getId(), acampante1.getId());
+            assertFalse(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante1.getId()),
+                    "La asignación no debe verse antes del commit");
+            status.setRollbackOnly();
+        });
+
+        assertFalse(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante1.getId()));
+    }
+
+    @Test
+    void removal_isNotAppliedOnRollback() {
+        userSupervisionService.assignAcampanteToDirigente(dirigente.getId(), acampante1.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userSupervisionService.removeAcampanteFromDirigente(dirigente.getId(), acampante1.getId());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(userSupervisionService.dirigenteSuperviseAcampante(dirigente.getId(), acampante1.getId()));
+    }
+
+    @Test
+    void applyNotification_parsesSingleAndBulkPayloads() {
+        long dirigenteId = dirigente.getId();
+        long id1 = acampante1.getId();
+        long id2 = acampante2.getId();
+
+        supervisionIndex.applyNotification("+" + dirigenteId + ":" + id2 + "," + id1);
+        assertTrue(supervisionIndex.supervises(dirigenteId, id1));
+        assertTrue(supervisionIndex.supervises(dirigenteId, id2));
+
+        supervisionIndex.applyNotification("-" + dirigenteId + ":" + id1);
+        assertFalse(supervisionIndex.supervises(dirigenteId, id1));
+        assertTrue(supervisionIndex.supervises(dirigenteId, id2));
+
+        // Aplicar la misma notificación dos veces es inocuo
+        supervisionIndex.applyNotification("+" + dirigenteId + ":" + id1);
+        supervisionIndex.applyNotification("+" + dirigenteId + ":" + id1);
+        assertEquals(Set.of(), supervisionIndex.findUnsupervised(dirigenteId, List.of(id1, id2)));
+
+        supervisionIndex.applyNotification(null);
+        supervisionIndex.applyNotification("");
+        assertTrue(supervisionIndex.supervises(dirigenteId, id1));
+    }
+
+    @Test
+    void applyNotification_reloadsOnInvalidOrWildcardPayload() {
+        // Pares que solo existen en memoria: una recarga los descarta porque no están en user_supervision
+        supervisionIndex.applyNotification("+" + dirigente.getId() + ":" + acampante1.getId());
+        supervisionIndex.applyNotification("+" + dirigente.getId() + ":no-es-un-id");
+        assertFalse(supervisionIndex.supervises(dirigente.getId(), acampante1.getId()));
+
+        supervisionIndex.applyNotification("+" + dirigente.getId() + ":" + acampante1.getId());
+        supervisionIndex.applyNotification("*");
+        assertFalse(supervisionIndex.supervises(dirigente.getId(), acampante1.getId()));
+    }
+
+    @Test
+    void notificationFromAnotherNode_isAppliedByTheListener() {
+        // Otro nodo: escribe la fila y notifica sin pasar por este índice
+        jdbcTemplate.update("INSERT INTO user_supervision (dirigente_id, acampante_id) VALUES (?, ?)",
+                dirigente.getId(), acampante1.getId());
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, SupervisionIndex.CHANNEL,
+                "+" + dirigente.getId() + ":" + acampante1.getId());
+
+        waitUntil(() -> supervisionIndex.supervises(dirigente.getId(), acampante1.getId()));
+    }
+
+    @Test
+    void listenerReconnect_reloadsTheWholeIndex() {
+        // Una fila escrita sin NOTIFY (p. ej. mientras la escucha estaba caída) no llega al índice...
+        jdbcTemplate.update("INSERT INTO user_supervision (dirigente_id, acampante_id) VALUES (?, ?)",
+                dirigente.getId(), acampante2.getId());
+        assertFalse(supervisionIndex.supervises(dirigente.getId(), acampante2.getId()));
+
+        // ...hasta que la conexión de escucha se pierde y, al reconectar, el listener recarga el índice
+        waitUntil(() -> {
+            List<Integer> terminated = jdbcTemplate.queryForList("SELECT pid FROM pg_stat_activity " +
+                    "WHERE query = 'LISTEN " + SupervisionIndex.CHANNEL + "' AND pid <> pg_backend_pid()", Integer.class);
+            terminated.forEach(pid -> jdbcTemplate.queryForObject("SELECT pg_terminate_backend(?)", Boolean.class, pid));
+            return !terminated.isEmpty();
+        });
+        waitUntil(() -> supervisionIndex.supervises(dirigente.getId(), acampante2.getId()));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("La condición no se cumplió a tiempo");
+    }
+}
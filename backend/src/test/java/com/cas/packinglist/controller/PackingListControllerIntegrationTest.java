@@ -0,0 +1,137 @@
+package com.cas.packinglist.controller;
+
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import com.cas.login.security.UserDetailsImpl;
+import com.cas.packinglist.dto.PackingListCategoryDto;
+import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Conditional requests on the packing list: ETag/If-None-Match on reads, If-Match on writes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+public class PackingListControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    void setUp() {
+        User owner = userRepository.save(new User("packing-etag-" + System.nanoTime(), "password"));
+        principal = new UserDetailsImpl(owner.getId(), owner.getUsername(), "",
+                List.of(new SimpleGrantedAuthority("ROLE_DIRIGENTE")));
+    }
+
+    @Test
+    void unchangedList_isNotModified_andChangesMoveTheETag() throws Exception {
+        mockMvc.perform(as(get("/api/packing-list")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        PackingListDto saved = create();
+        Long itemId = saved.getCategories().get(0).getItems().get(0).getId();
+
+        mockMvc.perform(as(get("/api/packing-list")).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(as(patch("/api/packing-list/items/" + itemId))
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"checked\": true}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(as(get("/api/packing-list")).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1))
+                .andExpect(jsonPath("$.categories[0].items[0].checked").value(true));
+    }
+
+    @Test
+    void writesWithoutIfMatch_areRejected_andStaleWritesFail() throws Exception {
+        PackingListDto saved = create();
+        Long itemId = saved.getCategories().get(0).getItems().get(0).getId();
+
+        mockMvc.perform(as(delete("/api/packing-list/items/" + itemId)))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(as(post("/api/packing-list"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(saved)))
+                .andExpect(status().isPreconditionRequired());
+
+        // The phone saves first; the laptop's save, still based on version 0, must not overwrite it
+        saved.getCategories().get(0).getItems().get(0).setText("Polar grueso");
+        mockMvc.perform(as(post("/api/packing-list"))
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(saved)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        mockMvc.perform(as(patch("/api/packing-list/items/" + itemId))
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"text\": \"Polar fino\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(as(post("/api/packing-list"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(saved)))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(as(get("/api/packing-list")))
+                .andExpect(jsonPath("$.categories[0].items[0].text").value("Polar grueso"));
+    }
+
+    // Creates the user's first list (If-None-Match: *), which starts at version 0
+    private PackingListDto create() throws Exception {
+        PackingListDto dto = new PackingListDto();
+        PackingListCategoryDto ropa = new PackingListCategoryDto();
+        ropa.setTitle("Ropa");
+        ropa.getItems().add(new PackingListItemDto(null, "Polar", false, 0));
+        dto.getCategories().add(ropa);
+
+        String body = mockMvc.perform(as(post("/api/packing-list"))
+                        .header(HttpHeaders.IF_NONE_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, PackingListDto.class);
+    }
+
+    private MockHttpServletRequestBuilder as(MockHttpServletRequestBuilder request) {
+        return request.with(user(principal));
+    }
+}
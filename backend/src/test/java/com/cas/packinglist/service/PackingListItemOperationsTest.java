@@ -0,0 +1,127 @@
+package com.cas.packinglist.service;
+
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import com.cas.packinglist.dto.PackingListCategoryDto;
+import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemCreateDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import com.cas.packinglist.dto.PackingListItemPatchDto;
+import com.cas.packinglist.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Item-level operations: one SQL statement each plus the list's version bump, and no effect on another
+ * user's packing list.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class PackingListItemOperationsTest {
+
+    @Autowired
+    private PackingListService packingListService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User otherUser;
+    private PackingListCategoryDto category;
+    private long version;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User("packing-items-" + System.nanoTime(), "password"));
+        otherUser = userRepository.save(new User("packing-items-other-" + System.nanoTime(), "password"));
+
+        PackingListDto dto = new PackingListDto();
+        PackingListCategoryDto ropa = new PackingListCategoryDto();
+        ropa.setTitle("Ropa");
+        ropa.setDisplayOrder(0);
+        ropa.getItems().add(new PackingListItemDto(null, "Polar", false, 0));
+        ropa.getItems().add(new PackingListItemDto(null, "Gorro", false, 1));
+        ropa.getItems().add(new PackingListItemDto(null, "Botas", false, 2));
+        dto.getCategories().add(ropa);
+        PackingListDto saved = packingListService.savePackingListForUser(owner.getId(), dto, null);
+        category = saved.getCategories().get(0);
+        version = saved.getVersion();
+    }
+
+    @Test
+    void updateItem_isOneStatementPlusTheVersionBump_andOnlyForTheOwner() {
+        Long itemId = category.getItems().get(1).getId();
+
+        long statements = countStatements(() -> packingListService.updateItem(owner.getId(), version, itemId,
+                new PackingListItemPatchDto(true, null)));
+
+        assertEquals(2, statements);
+        assertThrows(ResourceNotFoundException.class, () -> packingListService.updateItem(otherUser.getId(), version + 1,
+                itemId, new PackingListItemPatchDto(false, "Robado")));
+        PackingListItemDto item = items().get(1);
+        assertTrue(item.isChecked());
+        assertEquals("Gorro", item.getText());
+    }
+
+    @Test
+    void addRemoveAndReorder_areOneStatementEachPlusTheVersionBump() {
+        PackingListItemDto[] added = new PackingListItemDto[1];
+        assertEquals(2, countStatements(() -> added[0] = packingListService.addItem(owner.getId(), version, category.getId(),
+                new PackingListItemCreateDto("Guantes", null))));
+        assertEquals(3, added[0].getDisplayOrder());
+
+        Long polarId = category.getItems().get(0).getId();
+        assertEquals(2, countStatements(() -> packingListService.removeItem(owner.getId(), version + 1, polarId)));
+
+        List<Long> newOrder = List.of(added[0].getId(), category.getItems().get(2).getId(), category.getItems().get(1).getId());
+        assertEquals(2, countStatements(() -> packingListService.reorderItems(owner.getId(), version + 2,
+                category.getId(), newOrder)));
+
+        assertEquals(List.of("Guantes", "Botas", "Gorro"), items().stream().map(PackingListItemDto::getText).toList());
+        assertEquals(version + 3, packingListService.getPackingListForUser(owner.getId()).getVersion());
+    }
+
+    @Test
+    void itemOperations_onAnotherUsersList_areNotFound() {
+        Long itemId = category.getItems().get(0).getId();
+
+        assertThrows(ResourceNotFoundException.class, () -> packingListService.addItem(otherUser.getId(), version,
+                category.getId(), new PackingListItemCreateDto("Intruso", null)));
+        assertThrows(ResourceNotFoundException.class, () -> packingListService.removeItem(otherUser.getId(), version, itemId));
+        assertThrows(ResourceNotFoundException.class, () -> packingListService.reorderItems(otherUser.getId(), version,
+                category.getId(), List.of(itemId)));
+        assertEquals(3, items().size());
+    }
+
+    private long countStatements(Runnable operation) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        operation.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<PackingListItemDto> items() {
+        entityManager.flush();
+        entityManager.clear();
+        return packingListService.getPackingListForUser(owner.getId()).getCategories().get(0).getItems();
+    }
+}
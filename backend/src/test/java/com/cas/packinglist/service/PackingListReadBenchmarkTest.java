@@ -0,0 +1,137 @@
+package com.cas.packinglist.service;
+
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import com.cas.packinglist.dto.PackingListCategoryDto;
+import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import com.cas.packinglist.model.PackingList;
+import com.cas.packinglist.model.PackingListCategory;
+import com.cas.packinglist.model.PackingListItem;
+import com.cas.packinglist.repository.PackingListRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the previous read path (PackingList, then lazy categories, then lazy items per category) with
+ * the single flat query, for lists of 10, 100 and 1000 items (10 items per category).
+ * Run with ./gradlew benchmark; the data is rolled back at the end.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class PackingListReadBenchmarkTest {
+
+    private static final int[] SIZES = {10, 100, 1000};
+    private static final int ITEMS_PER_CATEGORY = 10;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 30;
+
+    @Autowired
+    private PackingListService packingListService;
+
+    @Autowired
+    private PackingListRepository packingListRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void singleQueryRead_usesOneStatement_andIsFasterThanLazyNavigation() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int size : SIZES) {
+            User user = userRepository.save(new User("packing-bench-" + size + "-" + System.nanoTime(), "password"));
+            packingListService.savePackingListForUser(user.getId(), newList(size), null);
+
+            long lazyStatements = statements(statistics, () -> readLazily(user.getId()));
+            long singleStatements = statements(statistics, () -> packingListService.getPackingListForUser(user.getId()));
+            long lazyNanos = measure(() -> readLazily(user.getId()));
+            long singleNanos = measure(() -> packingListService.getPackingListForUser(user.getId()));
+
+            System.out.printf("Packing list with %d items (median of %d runs): lazy=%.2f ms / %d statements, " +
+                              "single query=%.2f ms / %d statement(s)%n",
+                    size, ITERATIONS, lazyNanos / 1e6, lazyStatements, singleNanos / 1e6, singleStatements);
+
+            assertEquals(1, singleStatements);
+            assertEquals(2 + size / ITEMS_PER_CATEGORY, lazyStatements);
+            assertEquals(readLazily(user.getId()), packingListService.getPackingListForUser(user.getId()));
+        }
+    }
+
+    // The previous read path: navigate the lazy collections and map them one by one
+    private PackingListDto readLazily(Long userId) {
+        PackingList packingList = packingListRepository.findByUserId(userId).orElseThrow();
+        PackingListDto dto = new PackingListDto();
+        dto.setId(packingList.getId());
+        dto.setCreatedAt(packingList.getCreatedAt());
+        dto.setUpdatedAt(packingList.getUpdatedAt());
+        for (PackingListCategory category : packingList.getCategories()) {
+            PackingListCategoryDto categoryDto = new PackingListCategoryDto();
+            categoryDto.setId(category.getId());
+            categoryDto.setTitle(category.getTitle());
+            categoryDto.setDisplayOrder(category.getDisplayOrder());
+            for (PackingListItem item : category.getItems()) {
+                categoryDto.getItems().add(new PackingListItemDto(item.getId(), item.getText(), item.isChecked(), item.getDisplayOrder()));
+            }
+            dto.getCategories().add(categoryDto);
+        }
+        return dto;
+    }
+
+    private long statements(Statistics statistics, Runnable read) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long measure(Runnable read) {
+        for (int i = 0; i < WARMUP; i++) {
+            entityManager.clear();
+            read.run();
+        }
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            read.run();
+            times.add(System.nanoTime() - start);
+        }
+        Collections.sort(times);
+        return times.get(times.size() / 2);
+    }
+
+    private static PackingListDto newList(int items) {
+        PackingListDto dto = new PackingListDto();
+        for (int c = 0; c < items / ITEMS_PER_CATEGORY; c++) {
+            PackingListCategoryDto category = new PackingListCategoryDto();
+            category.setTitle("Categoría " + c);
+            category.setDisplayOrder(c);
+            for (int i = 0; i < ITEMS_PER_CATEGORY; i++) {
+                category.getItems().add(new PackingListItemDto(null, "Item " + c + "-" + i, i % 3 == 0, i));
+            }
+            dto.getCategories().add(category);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,157 @@
+package com.cas.packinglist.service;
+
+import com.cas.login.model.User;
+import com.cas.login.repository.UserRepository;
+import com.cas.packinglist.dto.PackingListCategoryDto;
+import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements of each save: the merge must load the list in a fixed number of queries
+ * and write only the rows that changed, no matter how large the packing list is.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class PackingListServiceMergeTest {
+
+    private static final int CATEGORIES = 8;
+    private static final int ITEMS_PER_CATEGORY = 10;
+
+    @Autowired
+    private PackingListService packingListService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private PackingListDto saved;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("packing-merge-" + System.nanoTime(), "password"));
+        saved = packingListService.savePackingListForUser(user.getId(), newList(), null);
+    }
+
+    @Test
+    void togglingOneItem_issuesASingleUpdate_plusTheVersionBump() {
+        PackingListDto dto = reload();
+        PackingListItemDto item = dto.getCategories().get(3).getItems().get(5);
+        item.setChecked(true);
+
+        Statistics statistics = save(dto);
+
+        // Loading the list and its items (2), the item and version updates (2) and the read-back (1)
+        assertEquals(5, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getEntityUpdateCount()); // The item and the list's version
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        PackingListDto after = reload();
+        assertTrue(after.getCategories().get(3).getItems().get(5).isChecked());
+        assertEquals(ids(saved), ids(after), "Row ids must survive the save");
+        assertEquals(saved.getVersion() + 1, after.getVersion());
+    }
+
+    @Test
+    void unchangedList_issuesNoWrites() {
+        Statistics statistics = save(reload());
+
+        assertEquals(3, statistics.getPrepareStatementCount()); // Loading the list and its items, and the read-back
+        assertEquals(0, statistics.getEntityUpdateCount() + statistics.getEntityInsertCount()
+                + statistics.getEntityDeleteCount());
+        assertEquals(saved.getVersion(), reload().getVersion());
+    }
+
+    @Test
+    void addingAndRemovingItems_touchesOnlyThoseRows() {
+        PackingListDto dto = reload();
+        List<PackingListItemDto> items = dto.getCategories().get(0).getItems();
+        Long removedId = items.remove(0).getId();
+        items.add(new PackingListItemDto(null, "Linterna", false, ITEMS_PER_CATEGORY));
+        dto.getCategories().remove(CATEGORIES - 1);
+
+        Statistics statistics = save(dto);
+
+        // Loading (2), the insert, the batched item deletes, the category delete, the version update, the read-back
+        assertEquals(7, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1 + 1 + ITEMS_PER_CATEGORY, statistics.getEntityDeleteCount()); // item + category and its items
+        assertEquals(1, statistics.getEntityUpdateCount()); // The list's version
+        PackingListDto after = reload();
+        assertEquals(CATEGORIES - 1, after.getCategories().size());
+        assertFalse(ids(after).contains(removedId));
+        assertEquals("Linterna", after.getCategories().get(0).getItems().get(ITEMS_PER_CATEGORY - 1).getText());
+    }
+
+    @Test
+    void readingTheList_isOneStatement_andKeepsDisplayOrder() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PackingListDto dto = packingListService.getPackingListForUser(user.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(ids(saved), ids(dto));
+        assertEquals("Item 7-9", dto.getCategories().get(7).getItems().get(9).getText());
+    }
+
+    private Statistics save(PackingListDto dto) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        packingListService.savePackingListForUser(user.getId(), dto, dto.getVersion());
+        entityManager.flush();
+        return statistics;
+    }
+
+    private PackingListDto reload() {
+        entityManager.flush();
+        entityManager.clear();
+        return packingListService.getPackingListForUser(user.getId());
+    }
+
+    private static List<Long> ids(PackingListDto dto) {
+        List<Long> ids = new ArrayList<>();
+        for (PackingListCategoryDto category : dto.getCategories()) {
+            ids.add(category.getId());
+            category.getItems().forEach(item -> ids.add(item.getId()));
+        }
+        return ids;
+    }
+
+    private static PackingListDto newList() {
+        PackingListDto dto = new PackingListDto();
+        for (int c = 0; c < CATEGORIES; c++) {
+            PackingListCategoryDto category = new PackingListCategoryDto();
+            category.setTitle("Categoría " + c);
+            category.setDisplayOrder(c);
+            for (int i = 0; i < ITEMS_PER_CATEGORY; i++) {
+                category.getItems().add(new PackingListItemDto(null, "Item " + c + "-" + i, false, i));
+            }
+            dto.getCategories().add(category);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,194 @@
+package com.cas.packinglist.service;
+
+import com.cas.login.model.User;
+import com.cas.login.model.Role;
+import com.cas.login.repository.RoleRepository;
+import com.cas.login.repository.UserRepository;
+import com.cas.packinglist.dto.PackingListCategoryDto;
+import com.cas.packinglist.dto.PackingListDto;
+import com.cas.packinglist.dto.PackingListItemDto;
+import com.cas.packinglist.dto.PackingListItemPatchDto;
+import com.cas.packinglist.dto.PackingListTemplateAssignResultDto;
+import com.cas.packinglist.dto.PackingListTemplateDto;
+import com.cas.packinglist.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Template-based lists: assigning stores one row per camper, and each camper's changes are stored as
+ * overrides or own items without touching the template or the other campers' lists.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class PackingListTemplateTest {
+
+    private static final int CAMPERS = 20;
+
+    @Autowired
+    private PackingListService packingListService;
+
+    @Autowired
+    private PackingListTemplateService packingListTemplateService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private PackingListTemplateDto template;
+    private List<Long> camperIds;
+
+    @BeforeEach
+    void setUp() {
+        PackingListTemplateDto dto = new PackingListTemplateDto();
+        dto.setName("Campamento de invierno");
+        PackingListCategoryDto ropa = new PackingListCategoryDto();
+        ropa.setTitle("Ropa");
+        ropa.setDisplayOrder(0);
+        ropa.getItems().add(new PackingListItemDto(null, "Polar", false, 0));
+        ropa.getItems().add(new PackingListItemDto(null, "Gorro", false, 1));
+        ropa.getItems().add(new PackingListItemDto(null, "Botas", false, 2));
+        PackingListCategoryDto cocina = new PackingListCategoryDto();
+        cocina.setTitle("Cocina");
+        cocina.setDisplayOrder(1);
+        cocina.getItems().add(new PackingListItemDto(null, "Plato", false, 0));
+        dto.getCategories().add(ropa);
+        dto.getCategories().add(cocina);
+        template = packingListTemplateService.createTemplate(dto);
+
+        Role acampante = roleRepository.findByName("ROLE_ACAMPANTE")
+                .orElseGet(() -> roleRepository.save(new Role("ROLE_ACAMPANTE")));
+        camperIds = new ArrayList<>();
+        for (int i = 0; i < CAMPERS; i++) {
+            User camper = new User("packing-template-" + i + "-" + System.nanoTime(), "password");
+            camper.setRoles(new HashSet<>(Set.of(acampante)));
+            camperIds.add(userRepository.save(camper).getId());
+        }
+    }
+
+    @Test
+    void assigningATemplate_writesOneRowPerCamper_andNoCategoriesOrItems() {
+        PackingListTemplateAssignResultDto result = packingListTemplateService.assignTemplate(template.getId(), camperIds);
+
+        assertEquals(CAMPERS, result.getCreated());
+        assertEquals(0, count("SELECT count(*) FROM packing_list_categories c JOIN packing_lists l ON l.id = c.packing_list_id " +
+                "WHERE l.template_id = ?"));
+        assertEquals(0, packingListTemplateService.assignTemplate(template.getId(), camperIds).getCreated());
+
+        PackingListDto list = packingListService.getPackingListForUser(camperIds.get(0));
+        assertEquals(template.getId(), list.getTemplateId());
+        assertEquals(List.of("Ropa", "Cocina"), list.getCategories().stream().map(PackingListCategoryDto::getTitle).toList());
+        assertEquals(List.of("Polar", "Gorro", "Botas"), texts(list.getCategories().get(0)));
+        assertTrue(list.getCategories().get(0).getItems().stream().allMatch(item -> item.getId() == null
+                && item.getTemplateItemId() != null && !item.isChecked()));
+    }
+
+    @Test
+    void assigningToUsersWhoAreNotCampers_isRejected_andWritesNothing() {
+        Long notACamper = userRepository.save(new User("packing-template-dirigente-" + System.nanoTime(), "password")).getId();
+        List<Long> ids = new ArrayList<>(camperIds);
+        ids.add(notACamper);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> packingListTemplateService.assignTemplate(template.getId(), ids));
+
+        assertTrue(error.getMessage().contains(notACamper.toString()));
+        assertEquals(0, count("SELECT count(*) FROM packing_lists WHERE template_id = ?"));
+    }
+
+    @Test
+    void leavingOutATemplateCategory_isRejected() {
+        packingListTemplateService.assignTemplate(template.getId(), camperIds);
+        Long camperId = camperIds.get(0);
+        PackingListDto list = packingListService.getPackingListForUser(camperId);
+        list.getCategories().remove(1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> packingListService.savePackingListForUser(camperId, list, list.getVersion()));
+    }
+
+    @Test
+    void checkingATemplateItem_writesOneOverride_forThatCamperOnly() {
+        packingListTemplateService.assignTemplate(template.getId(), camperIds);
+        Long gorroId = template.getCategories().get(0).getItems().get(1).getTemplateItemId();
+
+        long statements = countStatements(() -> packingListService.updateTemplateItem(camperIds.get(0), 0, gorroId,
+                new PackingListItemPatchDto(true, null)));
+
+        assertEquals(2, statements); // The version bump and the override upsert
+        assertTrue(packingListService.getPackingListForUser(camperIds.get(0)).getCategories().get(0).getItems().get(1).isChecked());
+        assertFalse(packingListService.getPackingListForUser(camperIds.get(1)).getCategories().get(0).getItems().get(1).isChecked());
+        assertThrows(ResourceNotFoundException.class, () -> packingListService.updateTemplateItem(camperIds.get(0),
+                1, -1L, new PackingListItemPatchDto(true, null)));
+    }
+
+    @Test
+    void savingATemplateList_storesOnlyTheDifferences() {
+        packingListTemplateService.assignTemplate(template.getId(), camperIds);
+        Long camperId = camperIds.get(0);
+        PackingListDto list = packingListService.getPackingListForUser(camperId);
+        PackingListCategoryDto ropa = list.getCategories().get(0);
+        ropa.getItems().get(0).setChecked(true);                       // Polar checked
+        ropa.getItems().get(1).setText("Gorro de lana");               // Gorro renamed: copy-on-write
+        ropa.getItems().remove(2);                                      // Botas removed
+        ropa.getItems().add(new PackingListItemDto(null, "Bufanda", false, 3));
+
+        PackingListDto saved = packingListService.savePackingListForUser(camperId, list, list.getVersion());
+
+        assertEquals(List.of("Polar", "Gorro de lana", "Bufanda"), texts(saved.getCategories().get(0)));
+        assertTrue(saved.getCategories().get(0).getItems().get(0).isChecked());
+        assertNotNull(saved.getCategories().get(0).getItems().get(1).getId());
+        assertEquals(List.of("Plato"), texts(saved.getCategories().get(1)));
+        assertEquals(2, count("SELECT count(*) FROM packing_list_item_overrides o JOIN packing_lists l ON l.id = o.packing_list_id " +
+                "WHERE l.template_id = ? AND o.removed"));
+        assertEquals(List.of("Polar", "Gorro", "Botas"),
+                texts(packingListService.getPackingListForUser(camperIds.get(1)).getCategories().get(0)));
+
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(saved, packingListService.savePackingListForUser(camperId, saved, saved.getVersion()));
+    }
+
+    private long countStatements(Runnable operation) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        operation.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long count(String sql) {
+        entityManager.flush();
+        return jdbcTemplate.queryForObject(sql, Long.class, template.getId());
+    }
+
+    private static List<String> texts(PackingListCategoryDto category) {
+        return category.getItems().stream().map(PackingListItemDto::getText).toList();
+    }
+}
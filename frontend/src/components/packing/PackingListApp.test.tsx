@@ -233,4 +233,46 @@ describe('PackingListApp', ()_ => {
       expect(screen.getByTestId("sync-status")).toHaveTextContent("Server Save Error");
     });
   });
+
+  it('reloads the list when a save is rejected with 412', async () => {
+    const staleList = { ...JSON.parse(JSON.stringify(mockInitialList)), version: 3 };
+    const currentList: PackingListDto = {
+      ...mockInitialList,
+      version: 4,
+      categories: [createMockCategory(10, "Ropa", [createMockItem(101, "Mochila grande", true, 0)], 0)],
+    };
+    mockGetPackingList
+      .mockResolvedValueOnce({ success: true, data: staleList })
+      .mockResolvedValueOnce({ success: true, data: currentList });
+    mockSavePackingList.mockRejectedValueOnce(new ApiError(412, "Precondition Failed"));
+
+    render(<PackingListApp />);
+    await waitFor(() => expect(screen.getByText('Mochila')).toBeInTheDocument());
+
+    fireEvent.click(screen.getByText('Add Item to Ropa'));
+
+    await waitFor(() => expect(mockGetPackingList).toHaveBeenCalledTimes(2));
+    await waitFor(() => {
+      expect(screen.getByText('Mochila grande')).toBeInTheDocument();
+      expect(screen.queryByText('Documentos')).not.toBeInTheDocument();
+      expect(screen.getByTestId("sync-status")).toHaveTextContent(/changed on another device/);
+    });
+  });
+
+  it('sends each queued save with the version returned by the previous one', async () => {
+    mockGetPackingList.mockResolvedValueOnce({ success: true, data: { ...JSON.parse(JSON.stringify(mockInitialList)), version: 0 } });
+    mockSavePackingList
+      .mockImplementationOnce(async (list: PackingListDto) => ({ success: true, data: { ...list, version: 1 } }))
+      .mockImplementationOnce(async (list: PackingListDto) => ({ success: true, data: { ...list, version: 2 } }));
+
+    render(<PackingListApp />);
+    await waitFor(() => expect(screen.getByText('Mochila')).toBeInTheDocument());
+
+    fireEvent.click(screen.getByText('Add Item to Ropa'));
+    fireEvent.click(screen.getByText('Add Item to Documentos'));
+
+    await waitFor(() => expect(mockSavePackingList).toHaveBeenCalledTimes(2));
+    expect((mockSavePackingList.mock.calls[0][0] as PackingListDto).version).toBe(0);
+    expect((mockSavePackingList.mock.calls[1][0] as PackingListDto).version).toBe(1);
+  });
 });
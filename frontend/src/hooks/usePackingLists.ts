@@ -1,10 +1,10 @@
-import { useState, useEffect, useCallback } from 'react';
+import { useState, useEffect, useCallback, useRef } from 'react';
 import {
   PackingListDto,
   PackingListCategoryDto,
   PackingListItemDto,
 } from '../types/api';
-import api from '../services/api'; // Ensure this path is correct
+import api, { ApiError } from '../services/api'; // Ensure this path is correct
 import { packingCategories as defaultCategoriesData } from '../data/packingList'; // For initial structure if needed
 
 // Helper to convert default data to DTO structure (if used for new users)
@@ -34,74 +34,101 @@ export function usePackingLists() {
     return packingList?.categories || [];
   };
 
-  // Private persist function
-  const persistList = useCallback(async (listToSave: PackingListDto) => {
+  // Latest version acknowledged by the backend; every save is sent with it as If-Match
+  const versionRef = useRef<number | undefined>(undefined);
+  // Saves run one at a time, so each one carries the version returned by the previous save
+  const saveQueueRef = useRef<Promise<void>>(Promise.resolve());
+  // Bumped after a 412 reload: saves queued before it were built on the stale list and are dropped
+  const generationRef = useRef(0);
+
+  const showList = useCallback((list: PackingListDto) => {
+    versionRef.current = list.version;
+    setPackingList(list);
+  }, []);
+
+  const fetchList = useCallback(async () => {
     setIsLoading(true);
     setError(null);
     try {
-      // Assign displayOrder before sending if not already meticulously managed
-      const listWithOrder = {
-        ...listToSave,
-        categories: listToSave.categories.map((cat, catIndex) => ({
-          ...cat,
-          displayOrder: cat.displayOrder ?? catIndex,
-          items: cat.items.map((item, itemIndex) => ({
-            ...item,
-            displayOrder: item.displayOrder ?? itemIndex,
-          })),
-        })),
-      };
-
-      const response = await api.packingList.save(listWithOrder);
+      const response = await api.packingList.get();
       if (response.success && response.data) {
-        setPackingList(response.data);
-        setLastSynced(new Date());
+        if (response.data.id) { // Check if it's a persisted list or a new transient one
+          showList(response.data);
+        } else {
+          // Backend returned a new, empty DTO.
+          // Initialize with an empty structure or default local data.
+          // For now, let's use an empty structure, assuming backend is source of truth.
+          showList({
+            id: undefined,
+            categories: [], // Or mapDefaultCategoryToDto if we want defaults for truly new users
+            createdAt: undefined,
+            updatedAt: undefined,
+          });
+        }
       } else {
-        setError(response.message || 'Failed to save packing list.');
-        // Potentially revert optimistic update here or offer a retry mechanism
+        setError(response.message || 'Failed to fetch packing list.');
+        // Initialize with a basic empty structure on failure to fetch
+        showList({ id: undefined, categories: [], createdAt: undefined, updatedAt: undefined });
       }
     } catch (e: any) {
-      setError(e.message || 'An unexpected error occurred while saving.');
-      // Potentially revert
+      setError(e.message || 'An unexpected error occurred while fetching.');
+      showList({ id: undefined, categories: [], createdAt: undefined, updatedAt: undefined });
     } finally {
       setIsLoading(false);
     }
-  }, []);
+  }, [showList]);
 
-  useEffect(() => {
-    const fetchList = async () => {
+  // Private persist function
+  const persistList = useCallback((listToSave: PackingListDto) => {
+    const generation = generationRef.current;
+    const save = async () => {
+      if (generation !== generationRef.current) return;
       setIsLoading(true);
       setError(null);
       try {
-        const response = await api.packingList.get();
+        // Assign displayOrder before sending if not already meticulously managed
+        const listWithOrder = {
+          ...listToSave,
+          version: versionRef.current,
+          categories: listToSave.categories.map((cat, catIndex) => ({
+            ...cat,
+            displayOrder: cat.displayOrder ?? catIndex,
+            items: cat.items.map((item, itemIndex) => ({
+              ...item,
+              displayOrder: item.displayOrder ?? itemIndex,
+            })),
+          })),
+        };
+
+        const response = await api.packingList.save(listWithOrder);
         if (response.success && response.data) {
-          if (response.data.id) { // Check if it's a persisted list or a new transient one
-            setPackingList(response.data);
-          } else {
-            // Backend returned a new, empty DTO.
-            // Initialize with an empty structure or default local data.
-            // For now, let's use an empty structure, assuming backend is source of truth.
-            setPackingList({
-              id: undefined,
-              categories: [], // Or mapDefaultCategoryToDto if we want defaults for truly new users
-              createdAt: undefined,
-              updatedAt: undefined,
-            });
-          }
+          showList(response.data);
+          setLastSynced(new Date());
         } else {
-          setError(response.message || 'Failed to fetch packing list.');
-          // Initialize with a basic empty structure on failure to fetch
-          setPackingList({ id: undefined, categories: [], createdAt: undefined, updatedAt: undefined });
+          setError(response.message || 'Failed to save packing list.');
+          // Potentially revert optimistic update here or offer a retry mechanism
         }
       } catch (e: any) {
-        setError(e.message || 'An unexpected error occurred while fetching.');
-        setPackingList({ id: undefined, categories: [], createdAt: undefined, updatedAt: undefined });
+        if (e instanceof ApiError && e.status === 412) {
+          // Changed on another device since our version: replace the local list with the current one
+          await fetchList();
+          generationRef.current += 1;
+          setError('This list was changed on another device. The latest version has been loaded; please redo your last change.');
+        } else {
+          setError(e.message || 'An unexpected error occurred while saving.');
+          // Potentially revert
+        }
       } finally {
         setIsLoading(false);
       }
     };
+    saveQueueRef.current = saveQueueRef.current.then(save);
+    return saveQueueRef.current;
+  }, [showList, fetchList]);
+
+  useEffect(() => {
     fetchList();
-  }, []);
+  }, [fetchList]);
 
 
   const addCategory = useCallback(async (title: string) => {
@@ -271,26 +298,8 @@ export function usePackingLists() {
     // setPackingList(listToPersist);
     // persistList(listToPersist);
     // For now, just re-trigger initial fetch:
-    const fetchList = async () => {
-        setIsLoading(true);
-        setError(null);
-        try {
-          const response = await api.packingList.get();
-          if (response.success && response.data) {
-            setPackingList(response.data.id ? response.data : { id: undefined, categories: [] });
-          } else {
-            setError(response.message || 'Failed to fetch packing list.');
-            setPackingList({ id: undefined, categories: [] });
-          }
-        } catch (e: any) {
-          setError(e.message || 'An unexpected error occurred while fetching.');
-          setPackingList({ id: undefined, categories: [] });
-        } finally {
-          setIsLoading(false);
-        }
-      };
-      fetchList();
-  }, [/* packingList?.id, persistList */]); // Dependencies might change based on strategy
+    fetchList();
+  }, [fetchList]);
 
   return {
     categories: getCategories(),
@@ -269,8 +269,11 @@ export const api = {
   // Packing List
   packingList: {
     get: () => apiRequest<PackingListDto>('/api/packing-list'),
+    // El backend exige la versión leída (If-Match) para no pisar cambios hechos desde otro dispositivo;
+    // una lista que aún no existe se crea con If-None-Match: *
     save: (data: PackingListDto) => apiRequest<PackingListDto>('/api/packing-list', {
       method: 'POST',
+      headers: data.version != null ? { 'If-Match': `"${data.version}"` } : { 'If-None-Match': '*' },
       body: JSON.stringify(data),
     }),
   },
@@ -144,6 +144,7 @@ export interface PackingListDto {
   categories: PackingListCategoryDto[];
   createdAt?: string; // ISO date string
   updatedAt?: string; // ISO date string
+  version?: number; // Same value as the ETag; sent back as If-Match when saving
 }
 
 // Assistance